@@ -31,6 +31,9 @@ import org.jhotdraw.app.action.CutAction;
 import org.jhotdraw.app.action.DeleteAction;
 import org.jhotdraw.app.action.DuplicateAction;
 import org.jhotdraw.app.action.FindAction;
+import org.jhotdraw.app.action.CopyDDLAction;
+import org.jhotdraw.app.action.GenerateAllDDLAction;
+import org.jhotdraw.app.action.GenerateMigrationAction;
 import org.jhotdraw.app.action.GenerateDDLAction;
 import org.jhotdraw.app.action.LoadAction;
 import org.jhotdraw.app.action.NewAction;
@@ -224,6 +227,12 @@ public class DefaultApplicationModel
         mi = m.add(getAction(GenerateDDLAction.ID));
         //mi.setIcon(new ImageIcon(this.getClass().getResource("/org/jhotdraw/draw/action/images/checkModel.png")));
         mi.setIcon(null);
+        mi = m.add(getAction(GenerateAllDDLAction.ID));
+        mi.setIcon(null);
+        mi = m.add(getAction(CopyDDLAction.ID));
+        mi.setIcon(null);
+        mi = m.add(getAction(GenerateMigrationAction.ID));
+        mi.setIcon(null);
         m.addSeparator();
         mi = m.add(getAction(SelectAllAction.ID));
         mi.setIcon(null);
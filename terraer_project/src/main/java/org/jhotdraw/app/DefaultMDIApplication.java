@@ -56,6 +56,9 @@ import org.jhotdraw.app.action.DuplicateAction;
 import org.jhotdraw.app.action.ExitAction;
 import org.jhotdraw.app.action.ExportAction;
 import org.jhotdraw.app.action.FocusAction;
+import org.jhotdraw.app.action.CopyDDLAction;
+import org.jhotdraw.app.action.GenerateAllDDLAction;
+import org.jhotdraw.app.action.GenerateMigrationAction;
 import org.jhotdraw.app.action.GenerateDDLAction;
 import org.jhotdraw.app.action.NewAction;
 import org.jhotdraw.app.action.OpenAction;
@@ -110,6 +113,9 @@ public class DefaultMDIApplication extends AbstractApplication {
         mo.putAction(PrintAction.ID, new PrintAction(this));
         mo.putAction(ValidateModelAction.ID, new ValidateModelAction(this));
         mo.putAction(GenerateDDLAction.ID, new GenerateDDLAction(this));
+        mo.putAction(GenerateAllDDLAction.ID, new GenerateAllDDLAction(this));
+        mo.putAction(CopyDDLAction.ID, new CopyDDLAction(this));
+        mo.putAction(GenerateMigrationAction.ID, new GenerateMigrationAction(this));
         
         mo.putAction(UndoAction.ID, new UndoAction(this));
         mo.putAction(RedoAction.ID, new RedoAction(this));
@@ -52,6 +52,9 @@ import org.jhotdraw.app.action.DuplicateAction;
 import org.jhotdraw.app.action.ExitAction;
 import org.jhotdraw.app.action.ExportAction;
 import org.jhotdraw.app.action.FocusAction;
+import org.jhotdraw.app.action.CopyDDLAction;
+import org.jhotdraw.app.action.GenerateAllDDLAction;
+import org.jhotdraw.app.action.GenerateMigrationAction;
 import org.jhotdraw.app.action.GenerateDDLAction;
 import org.jhotdraw.app.action.MaximizeAction;
 import org.jhotdraw.app.action.MinimizeAction;
@@ -211,6 +214,9 @@ public class DefaultOSXApplication extends AbstractApplication {
         mo.putAction(CloseAction.ID, new CloseAction(this));
         mo.putAction(ValidateModelAction.ID, new ValidateModelAction(this));
         mo.putAction(GenerateDDLAction.ID, new GenerateDDLAction(this));
+        mo.putAction(GenerateAllDDLAction.ID, new GenerateAllDDLAction(this));
+        mo.putAction(CopyDDLAction.ID, new CopyDDLAction(this));
+        mo.putAction(GenerateMigrationAction.ID, new GenerateMigrationAction(this));
         
         mo.putAction(UndoAction.ID, new UndoAction(this));
         mo.putAction(RedoAction.ID, new RedoAction(this));
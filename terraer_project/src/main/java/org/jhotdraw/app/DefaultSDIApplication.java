@@ -52,6 +52,9 @@ import org.jhotdraw.app.action.DeleteAction;
 import org.jhotdraw.app.action.DuplicateAction;
 import org.jhotdraw.app.action.ExitAction;
 import org.jhotdraw.app.action.ExportAction;
+import org.jhotdraw.app.action.CopyDDLAction;
+import org.jhotdraw.app.action.GenerateAllDDLAction;
+import org.jhotdraw.app.action.GenerateMigrationAction;
 import org.jhotdraw.app.action.GenerateDDLAction;
 import org.jhotdraw.app.action.LoadAction;
 import org.jhotdraw.app.action.LoadRecentAction;
@@ -154,6 +157,9 @@ public class DefaultSDIApplication extends AbstractApplication {
         m.putAction(PrintAction.ID, new PrintAction(this));
         m.putAction(ValidateModelAction.ID, new ValidateModelAction(this));
         m.putAction(GenerateDDLAction.ID, new GenerateDDLAction(this));        
+        m.putAction(GenerateAllDDLAction.ID, new GenerateAllDDLAction(this));
+        m.putAction(CopyDDLAction.ID, new CopyDDLAction(this));
+        m.putAction(GenerateMigrationAction.ID, new GenerateMigrationAction(this));
         
         m.putAction(UndoAction.ID, new UndoAction(this));
         m.putAction(RedoAction.ID, new RedoAction(this));
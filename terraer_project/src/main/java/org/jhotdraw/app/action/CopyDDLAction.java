@@ -0,0 +1,59 @@
+package org.jhotdraw.app.action;
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+
+import javax.swing.JOptionPane;
+import javax.swing.UIManager;
+
+import org.jhotdraw.app.Application;
+import org.jhotdraw.ddl.ClipboardWriter;
+import org.jhotdraw.ddl.DDLGenerator;
+import org.jhotdraw.ddl.ERModel;
+import org.jhotdraw.gui.JSheet;
+import org.jhotdraw.samples.draw.DrawProject;
+import org.jhotdraw.util.ResourceBundleUtil;
+
+/**
+ * Places the SQL DDL script of the drawing of the active view into the
+ * system clipboard.
+ */
+public class CopyDDLAction extends AbstractProjectAction {
+    private static final long serialVersionUID = 1L;
+    public final static String ID = "copyDDL";
+
+    /** Creates a new instance. */
+    public CopyDDLAction(Application app) {
+        super(app);
+        ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+        labels.configureAction(this, ID);
+    }
+
+    public void actionPerformed(ActionEvent evt) {
+        DrawProject project = (DrawProject) getCurrentProject();
+        if (project.isEnabled()) {
+            ERModel model = new ERModel(project.getEditor().getActiveView().getDrawing());
+            ClipboardWriter out = new ClipboardWriter(project.getComponent().getToolkit().getSystemClipboard());
+            try {
+                new DDLGenerator(model).write(out);
+                out.close();
+            } catch (IOException e) {
+                copyFailed(project, e);
+            } catch (IllegalStateException e) {
+                // the clipboard is not available
+                copyFailed(project, e);
+            }
+        }
+    }
+
+    protected void copyFailed(DrawProject project, Exception e) {
+        e.printStackTrace();
+        // FIXME localize this error messsage
+        JSheet.showMessageSheet(project.getComponent(),
+                "<html>"+UIManager.getString("OptionPane.css")+
+                "<b>Couldn't copy the DDL to the clipboard.<p>"+
+                "Reason: "+e,
+                JOptionPane.ERROR_MESSAGE
+                );
+    }
+}
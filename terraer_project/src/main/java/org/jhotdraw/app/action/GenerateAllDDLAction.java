@@ -0,0 +1,40 @@
+package org.jhotdraw.app.action;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.swing.JFileChooser;
+
+import org.jhotdraw.app.Application;
+import org.jhotdraw.ddl.DDLGenerator;
+import org.jhotdraw.ddl.ERModel;
+import org.jhotdraw.ddl.SQLDialect;
+import org.jhotdraw.io.ExtensionFileFilter;
+
+/**
+ * Presents a file chooser to the user and then writes the SQL DDL script of
+ * the drawing of the active view in every supported dialect. Each dialect
+ * is written to a file of its own next to the chosen file, and the dialects
+ * are rendered concurrently.
+ *
+ * @see DDLGenerator#writeAll
+ */
+public class GenerateAllDDLAction extends GenerateDDLAction {
+    private static final long serialVersionUID = 1L;
+    public final static String ID = "generateAllDDL";
+
+    /** Creates a new instance. */
+    public GenerateAllDDLAction(Application app) {
+        super(app, ID);
+    }
+
+    @Override protected JFileChooser createChooser() {
+        JFileChooser c = new JFileChooser();
+        c.setFileFilter(new ExtensionFileFilter("SQL DDL (sql)", "sql"));
+        return c;
+    }
+
+    @Override protected void generate(ERModel model, File file, SQLDialect dialect) throws IOException {
+        DDLGenerator.writeAll(model, DDLGenerator.getDialects(), file);
+    }
+}
@@ -0,0 +1,111 @@
+package org.jhotdraw.app.action;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.UIManager;
+
+import org.jhotdraw.app.Application;
+import org.jhotdraw.ddl.ERModel;
+import org.jhotdraw.ddl.MigrationGenerator;
+import org.jhotdraw.ddl.SQLDialect;
+import org.jhotdraw.draw.DOMStorableInputOutputFormat;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.QuadTreeDrawing;
+import org.jhotdraw.gui.JSheet;
+import org.jhotdraw.gui.Worker;
+import org.jhotdraw.gui.event.SheetEvent;
+import org.jhotdraw.gui.event.SheetListener;
+import org.jhotdraw.io.ExtensionFileFilter;
+import org.jhotdraw.samples.draw.DrawFigureFactory;
+import org.jhotdraw.samples.draw.DrawProject;
+import org.jhotdraw.util.ResourceBundleUtil;
+
+/**
+ * Presents a file chooser for an earlier version of the drawing of the
+ * active view, and then writes the SQL script which migrates a database
+ * from the schema of the earlier version to the schema of the drawing.
+ * <p>
+ * The file chooser proposes the file of the project, so that the drawing is
+ * compared with its last saved version unless another file is chosen. The
+ * earlier version is read on a worker thread.
+ *
+ * @see MigrationGenerator
+ */
+public class GenerateMigrationAction extends GenerateDDLAction {
+    private static final long serialVersionUID = 1L;
+    public final static String ID = "generateMigration";
+    private ERModel baseModel;
+
+    /** Creates a new instance. */
+    public GenerateMigrationAction(Application app) {
+        super(app, ID);
+    }
+
+    @Override public void actionPerformed(final ActionEvent evt) {
+        final DrawProject project = (DrawProject) getCurrentProject();
+        if (project.isEnabled()) {
+            ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+            project.setEnabled(false);
+
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setDialogTitle(labels.getString("generateMigration.base"));
+            fileChooser.setFileFilter(new ExtensionFileFilter("Drawing (xml)", "xml"));
+            if (project.getFile() != null) {
+                fileChooser.setCurrentDirectory(project.getFile().getParentFile());
+                fileChooser.setSelectedFile(project.getFile());
+            }
+
+            JSheet.showOpenSheet(fileChooser, project.getComponent(), new SheetListener() {
+                public void optionSelected(final SheetEvent sheetEvt) {
+                    if (sheetEvt.getOption() == JFileChooser.APPROVE_OPTION) {
+                        readBase(project, sheetEvt.getFileChooser().getSelectedFile(), evt);
+                    } else {
+                        project.setEnabled(true);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads the earlier version of the drawing and then lets the user choose
+     * the file of the script.
+     */
+    protected void readBase(final DrawProject project, final File file, final ActionEvent evt) {
+        project.execute(new Worker() {
+            public Object construct() {
+                try {
+                    Drawing drawing = new QuadTreeDrawing();
+                    new DOMStorableInputOutputFormat(new DrawFigureFactory()).read(file, drawing);
+                    return new ERModel(drawing);
+                } catch (Throwable e) {
+                    return e;
+                }
+            }
+            public void finished(Object value) {
+                project.setEnabled(true);
+                if (value instanceof Throwable) {
+                    ((Throwable) value).printStackTrace();
+                    // FIXME localize this error messsage
+                    JSheet.showMessageSheet(project.getComponent(),
+                            "<html>"+UIManager.getString("OptionPane.css")+
+                            "<b>Couldn't read the drawing \""+file+"\".<p>"+
+                            "Reason: "+value,
+                            JOptionPane.ERROR_MESSAGE
+                            );
+                } else {
+                    baseModel = (ERModel) value;
+                    GenerateMigrationAction.super.actionPerformed(evt);
+                }
+            }
+        });
+    }
+
+    @Override protected void generate(ERModel model, File file, SQLDialect dialect) throws IOException {
+        new MigrationGenerator(baseModel, model, dialect).write(file);
+    }
+}
@@ -14,26 +14,48 @@
 
 package org.jhotdraw.app.action;
 
+import java.awt.BorderLayout;
+import java.awt.Window;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 
 import org.jhotdraw.app.Application;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.DrawingView;
 import org.jhotdraw.draw.Figure;
 import org.jhotdraw.draw.LineConnectionFigure;
+import org.jhotdraw.draw.ModelValidator;
+import org.jhotdraw.draw.NameRegistry;
+import org.jhotdraw.gui.Worker;
 import org.jhotdraw.samples.draw.DrawProject;
 import org.jhotdraw.util.ResourceBundleUtil;
 /**
- * Cuts the selected region and places its contents into the system clipboard.
- * Acts on the EditableComponent or JTextComponent which had the focus when
- * the ActionEvent was generated.
+ * Enables or disables the model checking of the drawing of the active view.
+ * <p>
+ * When the model checking is enabled, the whole drawing is validated on a
+ * worker thread with a {@link ModelValidator}, while a progress monitor
+ * allows to cancel the validation. The invalid connections are then colored
+ * red in one batch, and the problems are listed in a window. Selecting a
+ * problem selects its figure in the view.
  *
- * @author Werner Randelshofer
- * @version 2.0 2007-04-13 Use javax.swing.TransferHandler instead of 
- * interface EditableComponent. 
- * <br>1.0 October 9, 2005 Created.
+ * @see ModelValidator
  */
 public class ValidateModelAction extends AbstractProjectAction {
+    private static final long serialVersionUID = 1L;
     public final static String ID = "validateModel";
     public final static String ID2 = "validateModel2";
+    private JDialog problemsDialog;
    
     /** Creates a new instance. */
     public ValidateModelAction(Application app) {
@@ -44,22 +66,104 @@ public class ValidateModelAction extends AbstractProjectAction {
     }
     
     public void actionPerformed(ActionEvent evt) {
-    	ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+    	final DrawProject project = (DrawProject) getCurrentProject();
+    	if (! project.isEnabled()) {
+    		return;
+    	}
+    	final DrawingView view = project.getEditor().getActiveView();
+    	final Drawing drawing = view.getDrawing();
+    	final ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
     	
     	if (LineConnectionFigure.validateEnabled){
-    		labels.configureAction(this, ID2);
-    		LineConnectionFigure.validateEnabled = false;
-    	}else{
-    		labels.configureAction(this, ID);
-    		LineConnectionFigure.validateEnabled = true;
-    	}    	
+    		setValidateEnabled(false, drawing, null);
+    		if (problemsDialog != null) {
+    			problemsDialog.dispose();
+    			problemsDialog = null;
+    		}
+    		return;
+    	}
     	
-    	DrawProject project = (DrawProject) getCurrentProject();
-    	for (Figure f : project.getEditor().getActiveView().getDrawing().getFigures()){
-    		if (f instanceof LineConnectionFigure){
-    			((LineConnectionFigure) f).updateConnection();
+    	final ModelValidator validator = new ModelValidator(drawing);
+    	final ProgressMonitor monitor = new ProgressMonitor(project.getComponent(),
+    			labels.getString("validateModel.progress"), null, 0, Math.max(1, validator.getCount()));
+    	final Timer timer = new Timer(100, new ActionListener() {
+    		public void actionPerformed(ActionEvent evt) {
+    			monitor.setProgress(validator.getProgress());
+    			if (monitor.isCanceled()) {
+    				validator.cancel();
+    			}
+    		}
+    	});
+    	project.setEnabled(false);
+    	timer.start();
+    	project.execute(new Worker() {
+    		public Object construct() {
+    			return validator.validate();
     		}
+    		public void finished(Object value) {
+    			timer.stop();
+    			monitor.close();
+    			project.setEnabled(true);
+    			if (value != null) {
+    				@SuppressWarnings("unchecked")
+    				List<ModelValidator.Problem> problems = (List<ModelValidator.Problem>) value;
+    				setValidateEnabled(true, drawing, problems);
+    				showProblems(project, view, problems);
+    			}
+    		}
+    	});
+    }
+    
+    /**
+     * Enables or disables the model checking and colors the connections and
+     * the duplicate names of the drawing accordingly.
+     */
+    private void setValidateEnabled(boolean b, Drawing drawing, List<ModelValidator.Problem> problems) {
+    	ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+    	labels.configureAction(this, b ? ID : ID2);
+    	LineConnectionFigure.validateEnabled = b;
+    	ModelValidator.applyColors(drawing, problems);
+    	NameRegistry registry = NameRegistry.getInstance(drawing);
+    	if (registry != null){
+    		registry.updateFlags();
+    	}
+    }
+    
+    /**
+     * Lists the problems in a window, or closes the window if there are no
+     * problems.
+     */
+    private void showProblems(DrawProject project, final DrawingView view, List<ModelValidator.Problem> problems) {
+    	if (problemsDialog != null) {
+    		problemsDialog.dispose();
+    		problemsDialog = null;
+    	}
+    	if (problems.isEmpty()) {
+    		return;
     	}
+    	ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+    	final JList<ModelValidator.Problem> list = new JList<ModelValidator.Problem>(problems.toArray(new ModelValidator.Problem[0]));
+    	list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    	list.addListSelectionListener(new ListSelectionListener() {
+    		public void valueChanged(ListSelectionEvent evt) {
+    			ModelValidator.Problem problem = list.getSelectedValue();
+    			if (! evt.getValueIsAdjusting() && problem != null) {
+    				Figure f = problem.getFigure();
+    				if (view.getDrawing().contains(f)) {
+    					view.clearSelection();
+    					view.addToSelection(f);
+    					view.getComponent().scrollRectToVisible(view.drawingToView(f.getDrawingArea()));
+    				}
+    			}
+    		}
+    	});
     	
+    	Window owner = SwingUtilities.getWindowAncestor(project.getComponent());
+    	problemsDialog = new JDialog(owner);
+    	problemsDialog.setTitle(labels.getString("validateModel.problems"));
+    	problemsDialog.getContentPane().add(new JScrollPane(list), BorderLayout.CENTER);
+    	problemsDialog.setSize(420, 300);
+    	problemsDialog.setLocationRelativeTo(owner);
+    	problemsDialog.setVisible(true);
     }
 }
@@ -0,0 +1,94 @@
+package org.jhotdraw.ddl;
+
+import java.text.Normalizer;
+
+/**
+ * This abstract class can be extended to implement a {@link SQLDialect}.
+ * It renders standard SQL and does not support triggers.
+ */
+public abstract class AbstractSQLDialect implements SQLDialect {
+
+	/**
+	 * Strips the accents from the letters of the name and replaces the
+	 * other characters which are not letters, digits or underscores by
+	 * underscores. For example, "numero-conta" becomes "numero_conta".
+	 */
+	public String identifier(String name) {
+		String s = Normalizer.normalize(name, Normalizer.Form.NFD);
+		StringBuilder buf = new StringBuilder(s.length() + 1);
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			boolean isValid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+			buf.append(isValid ? c : '_');
+		}
+		// An identifier must start with a letter
+		if (buf.length() == 0 || ! Character.isLetter(buf.charAt(0))) {
+			buf.insert(0, 'X');
+		}
+		return buf.toString();
+	}
+
+	public String addColumn(String table, String columnDefinition) {
+		return "ALTER TABLE " + table + " ADD COLUMN " + columnDefinition;
+	}
+
+	public String addConstraint(String table, String constraint) {
+		return "ALTER TABLE " + table + " ADD CONSTRAINT " + constraint;
+	}
+
+	public String modifyColumn(String table, String column, String type, boolean nullable) {
+		return "ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DATA TYPE " + type +
+				", ALTER COLUMN " + column + (nullable ? " DROP NOT NULL" : " SET NOT NULL");
+	}
+
+	public String dropColumn(String table, String column) {
+		return "ALTER TABLE " + table + " DROP COLUMN " + column;
+	}
+
+	public String dropConstraint(String table, String constraint) {
+		return "ALTER TABLE " + table + " DROP CONSTRAINT " + constraint;
+	}
+
+	public String renameTable(String table, String newName) {
+		return "ALTER TABLE " + table + " RENAME TO " + newName;
+	}
+
+	public String dropTable(String table) {
+		return "DROP TABLE " + table;
+	}
+
+	public String getDeferredClause() {
+		return " DEFERRABLE INITIALLY DEFERRED";
+	}
+
+	public String createView(String name, String query) {
+		return "CREATE OR REPLACE VIEW " + name + " AS (\n" + query + "\n);";
+	}
+
+	public String dropView(String name) {
+		return "DROP VIEW " + name + ";";
+	}
+
+	public String dropTrigger(String name) {
+		return "DROP TRIGGER " + name + ";";
+	}
+
+	public boolean supportsTriggers() {
+		return false;
+	}
+
+	public boolean supportsAlterConstraints() {
+		return true;
+	}
+
+	public String comment(String text) {
+		return "-- " + text;
+	}
+
+	public String toString() {
+		return getName();
+	}
+}
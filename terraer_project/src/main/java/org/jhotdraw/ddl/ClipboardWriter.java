@@ -0,0 +1,60 @@
+package org.jhotdraw.ddl;
+
+import java.awt.Toolkit;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.StringSelection;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer which buffers the characters written to it and places them as a
+ * string on a clipboard when it is closed.
+ */
+public class ClipboardWriter extends Writer {
+	private StringBuilder buf = new StringBuilder();
+	private Clipboard clipboard;
+	private boolean closed;
+
+	/**
+	 * Creates a writer for the system clipboard.
+	 */
+	public ClipboardWriter() {
+		this(Toolkit.getDefaultToolkit().getSystemClipboard());
+	}
+
+	/**
+	 * Creates a writer for the specified clipboard.
+	 */
+	public ClipboardWriter(Clipboard clipboard) {
+		this.clipboard = clipboard;
+	}
+
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Writer closed");
+		}
+		buf.append(cbuf, off, len);
+	}
+
+	public void write(String str, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Writer closed");
+		}
+		buf.append(str, off, off + len);
+	}
+
+	public void flush() {
+	}
+
+	/**
+	 * Places the characters written so far on the clipboard.
+	 */
+	public void close() {
+		if (! closed) {
+			closed = true;
+			StringSelection contents = new StringSelection(buf.toString());
+			clipboard.setContents(contents, contents);
+			buf = null;
+		}
+	}
+}
@@ -0,0 +1,807 @@
+package org.jhotdraw.ddl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jhotdraw.draw.*;
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * Generates the SQL DDL script of an {@link ERModel}.
+ * <p>
+ * The script is streamed to a single {@code Writer} in one pass: tables,
+ * primary keys, partial keys, entity relationships, generalizations,
+ * relationships, multivalued attributes and derived attributes. Separators
+ * are emitted as the statements are written, so the output never has to be
+ * read back and patched. The writer is not closed by the generator.
+ * <p>
+ * The engine specific parts of the script are rendered by a
+ * {@link SQLDialect}. A generator only reads its model, so several
+ * generators can render the same model in different dialects concurrently.
+ * If the dialect cannot add constraints to existing tables, the tables are
+ * collected while the script is written, and declared with all their
+ * columns and constraints at the beginning of the script.
+ */
+public class DDLGenerator {
+	/**
+	 * The sections of a script, in the order in which they are written.
+	 */
+	public enum Section {
+		TABLES, PRIMARY_KEYS, PARTIAL_KEYS, ENTITY_RELATIONSHIPS, GENERALIZATIONS,
+		RELATIONSHIPS, ENTITY_RELATIONSHIP_KEYS, MULTIVALUED_ATTRIBUTES, DERIVED_ATTRIBUTES
+	}
+
+	private ERModel model;
+	private SQLDialect dialect;
+	private Writer out;
+	/**
+	 * The tables of a dialect which cannot alter constraints, which are
+	 * collected while the script is written. Null for other dialects.
+	 */
+	private Schema schema;
+
+	/**
+	 * Creates a generator for the specified model, which renders the
+	 * Oracle dialect.
+	 */
+	public DDLGenerator(ERModel model) {
+		this(model, new OracleDialect());
+	}
+
+	/**
+	 * Creates a generator for the specified model and dialect.
+	 */
+	public DDLGenerator(ERModel model, SQLDialect dialect) {
+		this.model = model;
+		this.dialect = dialect;
+	}
+
+	/**
+	 * Returns the dialects which are supported by the generator.
+	 */
+	public static List<SQLDialect> getDialects() {
+		return Arrays.asList(new SQLDialect[] {
+			new OracleDialect(), new PostgreSQLDialect(), new MySQLDialect(), new SQLiteDialect()
+		});
+	}
+
+	public SQLDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * Writes the DDL script to the specified writer.
+	 */
+	public void write(Writer out) throws IOException {
+		if (dialect.supportsAlterConstraints()) {
+			for (Section section : Section.values()) {
+				for (Figure owner : getOwners(section)) {
+					write(out, section, owner);
+				}
+			}
+		} else {
+			// The tables are written with their columns and constraints
+			// before the statements which depend on them
+			Schema tables = new Schema();
+			StringWriter statements = new StringWriter();
+			schema = tables;
+			try {
+				for (Section section : Section.values()) {
+					for (Figure owner : getOwners(section)) {
+						write(statements, section, owner);
+					}
+				}
+			} finally {
+				schema = null;
+			}
+			for (Schema.Table t : tables.getTables()) {
+				out.write(t.getCreateStatement(true) + "\n\n");
+			}
+			out.write(statements.toString());
+		}
+		out.write("\n");
+		out.flush();
+	}
+
+	/**
+	 * Returns the figures which contribute statements to a section of the
+	 * script, in the order in which their statements are written.
+	 */
+	public List<Figure> getOwners(Section section) {
+		ArrayList<Figure> owners = new ArrayList<Figure>();
+		switch (section) {
+			case TABLES :
+				owners.addAll(model.getStrongEntities());
+				owners.addAll(model.getWeakEntities());
+				break;
+			case PRIMARY_KEYS :
+				owners.addAll(model.getStrongEntities());
+				break;
+			case PARTIAL_KEYS :
+				owners.addAll(model.getWeakRelationships());
+				break;
+			case ENTITY_RELATIONSHIPS :
+			case ENTITY_RELATIONSHIP_KEYS :
+				owners.addAll(model.getEntityRelationships());
+				break;
+			case GENERALIZATIONS :
+				owners.addAll(model.getGenspecOverlap());
+				owners.addAll(model.getGenspecDisjoint());
+				break;
+			case RELATIONSHIPS :
+				owners.addAll(model.getRelationships());
+				break;
+			case MULTIVALUED_ATTRIBUTES :
+				owners.addAll(model.getStrongEntities());
+				owners.addAll(model.getWeakRelationships());
+				owners.addAll(model.getEntityRelationships());
+				break;
+			case DERIVED_ATTRIBUTES :
+				owners.addAll(model.getStrongEntities());
+				owners.addAll(model.getWeakEntities());
+				owners.addAll(model.getEntityRelationships());
+				break;
+		}
+		return owners;
+	}
+
+	/**
+	 * Writes the statements which a figure contributes to a section of the
+	 * script. The statements of a figure only depend on the figure and its
+	 * neighbours in the model, so they can be cached and regenerated
+	 * independently of the rest of the script. The tables of a dialect which
+	 * cannot alter constraints are only declared completely by
+	 * {@link #write(Writer)}.
+	 */
+	public void write(Writer out, Section section, Figure owner) throws IOException {
+		this.out = out;
+		try {
+			switch (section) {
+				case TABLES :
+					writeTable(owner);
+					break;
+				case PRIMARY_KEYS :
+					writePrimaryKey(owner);
+					break;
+				case PARTIAL_KEYS :
+					writePartialKey(owner);
+					break;
+				case ENTITY_RELATIONSHIPS :
+					writeEntityRelationshipTable(owner);
+					break;
+				case GENERALIZATIONS :
+					writeGenSpec(owner);
+					break;
+				case RELATIONSHIPS :
+					writeRelationship(owner);
+					break;
+				case ENTITY_RELATIONSHIP_KEYS :
+					writeEntityRelationshipKeys(owner);
+					break;
+				case MULTIVALUED_ATTRIBUTES :
+					writeMultivaluedAttributes(owner);
+					break;
+				case DERIVED_ATTRIBUTES :
+					writeDerivedAttributes(owner);
+					break;
+			}
+		} finally {
+			this.out = null;
+		}
+	}
+
+	/**
+	 * Returns the DDL script as a string.
+	 */
+	public String generate() {
+		StringWriter w = new StringWriter();
+		try {
+			write(w);
+		} catch (IOException e) {
+			// a StringWriter does not throw IOExceptions
+			throw new InternalError(e.getMessage());
+		}
+		return w.toString();
+	}
+
+	/**
+	 * Writes the DDL script to the specified file, using the UTF-8 encoding.
+	 */
+	public void write(File file) throws IOException {
+		Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+		try {
+			write(w);
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Writes the DDL script of the model in each of the specified dialects
+	 * to a file of its own. The files are placed next to the specified file
+	 * and named after it and the dialect, for example "model_oracle.sql".
+	 * <p>
+	 * The dialects are rendered concurrently on a thread pool. The model
+	 * must not change until this method returns.
+	 *
+	 * @return The files which have been written, in the order of the
+	 * dialects.
+	 */
+	public static List<File> writeAll(final ERModel model, List<SQLDialect> dialects, File file) throws IOException {
+		String name = file.getName();
+		int p = name.lastIndexOf('.');
+		String baseName = (p == -1) ? name : name.substring(0, p);
+		String extension = (p == -1) ? ".sql" : name.substring(p);
+
+		int nThreads = Math.max(1, Math.min(dialects.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+		try {
+			ArrayList<Future<File>> results = new ArrayList<Future<File>>(dialects.size());
+			for (final SQLDialect dialect : dialects) {
+				final File target = new File(file.getParentFile(), baseName + "_" + dialect.getName().toLowerCase() + extension);
+				results.add(executor.submit(new Callable<File>() {
+					public File call() throws IOException {
+						new DDLGenerator(model, dialect).write(target);
+						return target;
+					}
+				}));
+			}
+			ArrayList<File> files = new ArrayList<File>(dialects.size());
+			for (Future<File> result : results) {
+				try {
+					files.add(result.get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new IOException(cause.toString());
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+			}
+			return files;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** Returns the identifier of a figure in the dialect. */
+	private String identifier(Figure f) {
+		return dialect.identifier(model.getIdentifier(f));
+	}
+
+	/** Returns the SQL table name of an entity or relationship figure. */
+	private String name(Figure f) {
+		return (f == null) ? "" : identifier(f).toUpperCase();
+	}
+
+	/** Returns the SQL column name of an attribute figure. */
+	private String column(Figure f) {
+		return identifier(f).toLowerCase();
+	}
+
+	/** Returns the column type of an attribute figure. */
+	private String type(Figure a) {
+		AttributeTypeEnum type = model.getAttributeType(a);
+		// Models which have been saved before attributes had types
+		return dialect.getColumnType((type == null) ? AttributeTypeEnum.TEXT : type);
+	}
+
+	/** Returns the column of an attribute of an entity table. */
+	private Schema.Column columnOf(Figure a) {
+		return new Schema.Column(identifier(a), type(a), model.isNullable(a));
+	}
+
+	private String keyName(Figure entity) {
+		AtributoChaveFigure key = (entity == null) ? null : model.getKey(entity);
+		return (key == null) ? "" : identifier(key);
+	}
+
+	private String keyType(Figure entity) {
+		AtributoChaveFigure key = (entity == null) ? null : model.getKey(entity);
+		return (key == null) ? "" : type(key);
+	}
+
+	private boolean isKeyNullable(Figure entity) {
+		AtributoChaveFigure key = (entity == null) ? null : model.getKey(entity);
+		return key != null && model.isNullable(key);
+	}
+
+	/** Returns the name of the foreign key column which references the key of the entity. */
+	private String foreignKey(Figure entity) {
+		return keyName(entity) + "_" + name(entity).toLowerCase();
+	}
+
+	private static Figure last(List<Figure> list) {
+		return list.isEmpty() ? null : list.get(list.size() - 1);
+	}
+
+	/**
+	 * Writes a CREATE TABLE statement, preceded by the specified prefix, or
+	 * adds the table to the collected tables.
+	 */
+	private void createTable(String prefix, String table, List<Schema.Column> columns) throws IOException {
+		Schema.Table t = (schema == null) ? new Schema.Table(table) : schema.createTable(table);
+		for (Schema.Column c : columns) {
+			t.addColumn(c);
+		}
+		if (schema == null) {
+			out.write(prefix + t.getCreateStatement(false) + "\n");
+		}
+	}
+
+	/**
+	 * Writes a statement which adds a column to a table, preceded by the
+	 * specified prefix, or adds the column to the collected table.
+	 */
+	private void addColumn(String prefix, String table, Schema.Column column) throws IOException {
+		if (schema == null) {
+			out.write(prefix + dialect.addColumn(table, column.getDefinition()) + ";\n");
+		} else {
+			schema.createTable(table).addColumn(column);
+		}
+	}
+
+	/**
+	 * Writes a statement which adds a constraint to a table, preceded by the
+	 * specified prefix, or adds the constraint to the collected table.
+	 */
+	private void addConstraint(String prefix, String table, String name, String definition) throws IOException {
+		if (schema == null) {
+			out.write(prefix + dialect.addConstraint(table, name + " " + definition) + ";\n");
+		} else {
+			schema.createTable(table).addConstraint(new Schema.Constraint(name, definition));
+		}
+	}
+
+	/**
+	 * Writes the CREATE TABLE statement of a table with the columns of the
+	 * attributes of the owner which are of one of the specified types.
+	 */
+	private void writeTable(String prefix, String table, Figure owner, Class<?> type1, Class<?> type2) throws IOException {
+		ArrayList<Schema.Column> columns = new ArrayList<Schema.Column>();
+		for (Figure a : model.getAttributes(owner)) {
+			if (type1.isInstance(a) || type2.isInstance(a)) {
+				columns.add(columnOf(a));
+			}
+		}
+		createTable(prefix, table, columns);
+	}
+
+	/**
+	 * Writes the sum of the count variables {@code X<from>} to
+	 * {@code X<to - 1>} of a trigger, followed by a space.
+	 */
+	private void writeSum(int from, int to) throws IOException {
+		for (int i = from; i < to; i++) {
+			out.write("X" + i + (i < to - 1 ? " + " : " "));
+		}
+	}
+
+	private void writeTable(Figure entity) throws IOException {
+		if (entity instanceof EntidadeFracaFigure) {
+			writeTable("\n", name(entity), entity, AtributoFigure.class, AtributoChaveParcialFigure.class);
+		} else {
+			writeTable("\n", name(entity), entity, AtributoFigure.class, AtributoChaveFigure.class);
+		}
+	}
+
+	private void writePrimaryKey(Figure i) throws IOException {
+		String keys = "";
+		for (AtributoChaveFigure k : model.getAttributes(i, AtributoChaveFigure.class)) {
+			keys += (keys.length() == 0 ? "" : ", ") + identifier(k);
+		}
+		if (keys.length() > 0) {
+			addConstraint("\n", name(i), "PK_" + name(i), "PRIMARY KEY (" + keys + ")");
+		}
+	}
+
+	/**
+	 * Returns the comma separated partial key columns of a weak entity, or
+	 * an empty string if it has none.
+	 */
+	private String partialKeys(Figure weakEntity) {
+		String keys = "";
+		for (AtributoChaveParcialFigure k : model.getAttributes(weakEntity, AtributoChaveParcialFigure.class)) {
+			keys += (keys.length() == 0 ? "" : ", ") + identifier(k);
+		}
+		return keys;
+	}
+
+	private void writePartialKey(Figure f) throws IOException {
+		Figure owner = model.getIdentifyingOwner(f);
+		if (owner == null) {
+			return;
+		}
+		owner = model.getKeyOwner(owner);
+		String ownerEntity = name(owner);
+		String keyAtt = keyName(owner);
+		String fk = foreignKey(owner);
+		for (Figure h : model.getWeakEntities(f)) {
+			String partialKeys = partialKeys(h);
+			if (partialKeys.length() > 0) {
+				addColumn("\n", name(h), new Schema.Column(fk, keyType(owner), isKeyNullable(owner)));
+				addConstraint("", name(h), "FK_" + name(h) + "_" + ownerEntity, "FOREIGN KEY (" + fk + ") REFERENCES " + ownerEntity + " (" + keyAtt + ")");
+				addConstraint("", name(h), "PK_" + name(h), "PRIMARY KEY (" + partialKeys + ", " + fk + ")");
+			}
+		}
+	}
+
+	private void writeEntityRelationshipTable(Figure i) throws IOException {
+		writeTable("\n", name(i), i, AtributoFigure.class, AtributoChaveFigure.class);
+	}
+
+	private void writeGenSpec(Figure a) throws IOException {
+		Figure owner = model.getSupertype(a);
+		if (owner == null) {
+			return;
+		}
+		ArrayList<String> specName = writeSpecializations(a, owner);
+		if (a instanceof SobreposicaoFigure) {
+			if (model.isTotal(a)) {
+				if (dialect.supportsTriggers()) {
+					writeOverlapTriggers(owner, specName);
+				} else {
+					writeTriggersOmitted(owner);
+				}
+			}
+		} else if (! dialect.supportsTriggers()) {
+			writeTriggersOmitted(owner);
+		} else if (model.isTotal(a)) {
+			writeTotalDisjointTriggers(owner, specName);
+		} else {
+			writePartialDisjointTriggers(owner, specName);
+		}
+	}
+
+	/**
+	 * Adds the key of the supertype to each subtype table of a generalization
+	 * and returns the table names of the subtypes.
+	 */
+	private ArrayList<String> writeSpecializations(Figure genspec, Figure owner) throws IOException {
+		ArrayList<String> specName = new ArrayList<String>();
+		String ownerEntity = name(owner);
+		String ownerKey = keyName(owner);
+		String specKey = foreignKey(owner);
+		for (Figure g : model.getSubtypes(genspec)) {
+			specName.add(name(g));
+			addColumn("", name(g), new Schema.Column(specKey, keyType(owner), false));
+			addConstraint("", name(g), "FK_" + name(g) + "_" + ownerEntity, "FOREIGN KEY (" + specKey + ") REFERENCES " + ownerEntity + " (" + ownerKey + ") ON DELETE CASCADE");
+			addConstraint("", name(g), "PK_" + name(g), "PRIMARY KEY (" + specKey + ")");
+		}
+		return specName;
+	}
+
+	/**
+	 * Notes in the script that the constraints of a generalization or
+	 * relationship are not enforced, because the dialect has no triggers.
+	 */
+	private void writeTriggersOmitted(Figure owner) throws IOException {
+		out.write("\n" + dialect.comment("The participation constraints of " + name(owner) + " are not enforced by the " + dialect.getName() + " script.") + "\n");
+	}
+
+	/**
+	 * Writes the trigger which checks that every row of the supertype of a
+	 * total generalization has a row in one of the subtypes.
+	 */
+	private void writeSupertypeTrigger(Figure owner, ArrayList<String> specName) throws IOException {
+		String ownerEntity = name(owner);
+		String ownerKey = keyName(owner);
+		String specKey = foreignKey(owner);
+		out.write("\nCREATE OR REPLACE TRIGGER genspecTrigger_" + ownerEntity + " AFTER INSERT OR DELETE OR UPDATE ON " + ownerEntity + "\nREFERENCING NEW AS n OLD as o FOR EACH ROW\nDECLARE ");
+		for (int i = 0; i < specName.size(); i++) {
+			out.write("X" + i + " number; ");
+		}
+		out.write("\nBEGIN\n\tIF INSERTING THEN\n");
+		for (int i = 0; i < specName.size(); i++) {
+			out.write("\t\tSELECT COUNT(*) INTO X" + i + " FROM " + specName.get(i) + " c WHERE c." + specKey + " = :n." + ownerKey + ";\n");
+		}
+		out.write("\t\tIF(");
+		writeSum(0, specName.size());
+		out.write("< 1) THEN RAISE_APPLICATION_ERROR(-20000, 'Viola\u00e7\u00e3o detectada!'); END IF;\n\tEND IF;\nEND;\n");
+	}
+
+	private void writeOverlapTriggers(Figure owner, ArrayList<String> specName) throws IOException {
+		String specKey = foreignKey(owner);
+		writeSupertypeTrigger(owner, specName);
+
+		int errcount = 20001;
+		for (int i = 0; i < specName.size(); i++) {
+			out.write("\nCREATE OR REPLACE TRIGGER genspecTrigger_" + specName.get(i) + " AFTER INSERT OR DELETE OR UPDATE ON " + specName.get(i) + "\nREFERENCING NEW AS n OLD as o FOR EACH ROW\nDECLARE ");
+			for (int j = 0; j < specName.size() - 1; j++) {
+				out.write("X" + j + " number; ");
+			}
+			out.write("\nBEGIN\n\tIF DELETING THEN\n");
+			int aux = 0;
+			for (int l = 0; l < specName.size(); l++) {
+				if (i != l) {
+					out.write("\t\tSELECT COUNT(*) INTO X" + aux + " FROM " + specName.get(l) + " c WHERE c." + specKey + " = :n." + specKey + ";\n");
+					aux++;
+				}
+			}
+			out.write("\t\tIF(");
+			writeSum(0, specName.size() - 1);
+			out.write("< 1) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n\tEND IF;\nEND;\n");
+			errcount++;
+		}
+	}
+
+	private void writePartialDisjointTriggers(Figure owner, ArrayList<String> specName) throws IOException {
+		String specKey = foreignKey(owner);
+		int errcount = 20000;
+		for (int i = 0; i < specName.size(); i++) {
+			out.write("\nCREATE OR REPLACE TRIGGER genspecTrigger_" + specName.get(i) + " AFTER INSERT OR DELETE OR UPDATE ON " + specName.get(i) + "\nREFERENCING NEW AS n OLD as o FOR EACH ROW\nDECLARE ");
+			for (int j = 0; j < specName.size() - 1; j++) {
+				out.write("X" + j + " number; ");
+			}
+			out.write("\nBEGIN\n\tIF INSERTING THEN\n");
+			int aux = 0;
+			for (int l = 0; l < specName.size(); l++) {
+				if (i != l) {
+					out.write("\t\tSELECT COUNT(*) INTO X" + aux + " FROM " + specName.get(l) + " c WHERE c." + specKey + " = :n." + specKey + ";\n");
+					aux++;
+				}
+			}
+			out.write("\t\tIF(");
+			writeSum(0, specName.size() - 1);
+			out.write("!= 0) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n\tEND IF;\nEND;\n");
+			errcount++;
+		}
+	}
+
+	private void writeTotalDisjointTriggers(Figure owner, ArrayList<String> specName) throws IOException {
+		String ownerEntity = name(owner);
+		String ownerKey = keyName(owner);
+		String specKey = foreignKey(owner);
+		writeSupertypeTrigger(owner, specName);
+
+		int errcount = 20000;
+		for (int i = 0; i < specName.size(); i++) {
+			out.write("\nCREATE OR REPLACE TRIGGER genspecTrigger_" + specName.get(i) + " AFTER INSERT OR DELETE OR UPDATE ON " + specName.get(i) + "\nREFERENCING NEW AS n OLD as o FOR EACH ROW\nDECLARE ");
+			for (int j = 0; j < specName.size(); j++) {
+				out.write("X" + j + " number; ");
+			}
+			out.write("\nBEGIN\n\tIF INSERTING THEN\n");
+			int aux = 1;
+			for (int l = 0; l < specName.size(); l++) {
+				if (i != l) {
+					out.write("\t\tSELECT COUNT(*) INTO X" + aux + " FROM " + specName.get(l) + " c WHERE c." + specKey + " = :n." + specKey + ";\n");
+					aux++;
+				}
+			}
+			out.write("\t\tIF(");
+			writeSum(1, specName.size());
+			out.write("!= 0) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n\tEND IF;\n");
+			errcount++;
+
+			out.write("\tIF DELETING THEN\n\t\tSELECT COUNT(*) INTO X0 FROM " + ownerEntity + " c WHERE c." + ownerKey + " = :o." + specKey + ";\n");
+			out.write("\t\tIF(X0 != 0) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n\tEND IF;\n");
+			errcount++;
+
+			out.write("\tIF UPDATING THEN\n\t\tIF(:n." + specKey + " != :o." + specKey + ") THEN\n");
+			out.write("\t\t\tSELECT COUNT(*) INTO X0 FROM " + ownerEntity + " c WHERE c." + ownerKey + " = :o." + specKey + ";\n");
+			out.write("\t\t\tIF(X0 != 0) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n");
+			errcount++;
+
+			int aux2 = 1;
+			for (int l = 0; l < specName.size(); l++) {
+				if (i != l) {
+					out.write("\t\t\tSELECT COUNT(*) INTO X" + aux2 + " FROM " + specName.get(l) + " c WHERE c." + specKey + " = :n." + specKey + ";\n");
+					out.write("\t\t\tIF(X" + aux2 + " != 0) THEN RAISE_APPLICATION_ERROR(-" + errcount + ", 'Viola\u00e7\u00e3o detectada!'); END IF;\n");
+					aux2++;
+					errcount++;
+				}
+			}
+			out.write("\t\tEND IF;\n\tEND IF;\nEND;\n");
+		}
+	}
+
+	private void writeRelationship(Figure a) throws IOException {
+		// The kinds of the connections determine the mapping of the relationship
+		List<Figure> slcUm = model.getParticipants(a, LabeledLineConnectionUmFigure.class);
+		List<Figure> slcN = model.getParticipants(a, LabeledLineConnectionMuitosFigure.class);
+		List<Figure> dlcUm = model.getParticipants(a, LabeledDoubleLineConnectionUmFigure.class);
+		List<Figure> dlcN = model.getParticipants(a, LabeledDoubleLineConnectionMuitosFigure.class);
+		if (slcUm.size() == 2) {
+			// 1-1 relationship, both participations partial
+			writeForeignKey(slcUm.get(1), slcUm.get(0), true);
+		} else if (slcUm.size() == 1) {
+			Figure owner = slcUm.get(0);
+			if (dlcUm.size() > 0) {
+				for (Figure f : dlcUm) {
+					writeForeignKey(f, owner, false);
+				}
+			} else if (slcN.size() > 0) {
+				for (Figure f : slcN) {
+					writeForeignKey(f, owner, true);
+				}
+			} else if (dlcN.size() > 0) {
+				for (Figure f : dlcN) {
+					writeForeignKey(f, owner, false);
+				}
+			}
+		} else if (dlcUm.size() > 0) {
+			if (dlcUm.size() == 2) {
+				writeRelationshipTable(dlcUm.get(0), dlcUm.get(1));
+			} else if (dlcUm.size() == 1) {
+				writeTotalOneToOne(dlcUm.get(0), last(dlcN));
+			}
+		} else if (slcN.size() == 2) {
+			writeRelationshipTable(slcN.get(0), slcN.get(1));
+		} else if (slcN.size() == 1 && dlcN.size() == 1) {
+			writeRelationshipTable(slcN.get(0), dlcN.get(0));
+		} else if (dlcN.size() == 2) {
+			writeRelationshipTable(dlcN.get(0), dlcN.get(1));
+		}
+	}
+
+	private void writeEntityRelationshipKeys(Figure a) throws IOException {
+		Figure[] owners = getEntityRelationshipOwners(a);
+		if (owners == null) {
+			return;
+		}
+		String entRel = name(a);
+		String fk = foreignKey(owners[0]);
+		String fk2 = foreignKey(owners[1]);
+		addColumn("\n", entRel, new Schema.Column(fk, keyType(owners[0]), false));
+		addColumn("\n", entRel, new Schema.Column(fk2, keyType(owners[1]), false));
+		addConstraint("\n", entRel, "FK_" + entRel, "FOREIGN KEY (" + fk + ") REFERENCES " + name(owners[0]) + " (" + keyName(owners[0]) + ")");
+		addConstraint("\n", entRel, "FK2_" + entRel, "FOREIGN KEY (" + fk2 + ") REFERENCES " + name(owners[1]) + " (" + keyName(owners[1]) + ")");
+		addConstraint("\n", entRel, "PK_" + entRel, "PRIMARY KEY (" + fk + ", " + fk2 + ")");
+	}
+
+	/**
+	 * Returns the two entities whose keys identify an entity relationship, or
+	 * null if it is not linked to two entities on its N sides.
+	 */
+	private Figure[] getEntityRelationshipOwners(Figure entityRelationship) {
+		List<Figure> slcN = model.getParticipants(entityRelationship, LabeledLineConnectionMuitosFigure.class);
+		List<Figure> dlcN = model.getParticipants(entityRelationship, LabeledDoubleLineConnectionMuitosFigure.class);
+		if (slcN.size() == 2) {
+			return new Figure[] {slcN.get(0), slcN.get(1)};
+		} else if (slcN.size() == 1 && dlcN.size() == 1) {
+			return new Figure[] {slcN.get(0), dlcN.get(0)};
+		} else if (dlcN.size() == 2) {
+			return new Figure[] {dlcN.get(0), dlcN.get(1)};
+		}
+		return null;
+	}
+
+	/** Adds a column referencing the key of the owner to the table of the entity. */
+	private void writeForeignKey(Figure entity, Figure owner, boolean nullable) throws IOException {
+		String fk = foreignKey(owner);
+		addColumn("\n", name(entity), new Schema.Column(fk, keyType(owner), nullable));
+		addConstraint("", name(entity), "FK_" + name(entity) + "_" + name(owner), "FOREIGN KEY (" + fk + ") REFERENCES " + name(owner) + " (" + keyName(owner) + ")");
+	}
+
+	/** Creates the table of a relationship between the two entities. */
+	private void writeRelationshipTable(Figure owner, Figure owner2) throws IOException {
+		String table = name(owner) + "_" + name(owner2);
+		String fk = foreignKey(owner);
+		String fk2 = foreignKey(owner2);
+		createTable("\n", table, Arrays.asList(
+				new Schema.Column(fk, keyType(owner), false),
+				new Schema.Column(fk2, keyType(owner2), false)));
+		addConstraint("\n", table, "FK_" + table, "FOREIGN KEY (" + fk + ") REFERENCES " + name(owner) + " (" + keyName(owner) + ")");
+		addConstraint("\n", table, "FK2_" + table, "FOREIGN KEY (" + fk2 + ") REFERENCES " + name(owner2) + " (" + keyName(owner2) + ")");
+		addConstraint("\n", table, "PK_" + table, "PRIMARY KEY (" + fk + ", " + fk2 + ")");
+	}
+
+	/** Links the two entities of a 1-1 relationship with total participation on both sides. */
+	private void writeTotalOneToOne(Figure owner, Figure owner2) throws IOException {
+		String ownerEntity = name(owner);
+		String ownerEntity2 = name(owner2);
+		String fk = foreignKey(owner);
+		addColumn("\n", ownerEntity2, new Schema.Column(fk, keyType(owner), false));
+		addConstraint("\n", ownerEntity2, "FK_" + ownerEntity2 + "_" + ownerEntity, "FOREIGN KEY (" + fk + ") REFERENCES " + ownerEntity + " (" + keyName(owner) + ")" + dialect.getDeferredClause());
+		if (! dialect.supportsTriggers()) {
+			writeTriggersOmitted(owner);
+			return;
+		}
+		out.write("\nCREATE OR REPLACE TRIGGER relTrigger_" + ownerEntity + " AFTER INSERT OR DELETE OR UPDATE ON " + ownerEntity + "\nREFERENCING NEW AS n OLD AS o FOR EACH ROW\nDECLARE X number;\nBEGIN\n\tIF INSERTING THEN");
+		out.write("\n\t\tSELECT COUNT (*) INTO X FROM " + ownerEntity2 + " c WHERE c." + fk + " = :n." + fk + ";\n\t\tIF (X = 0) THEN RAISE_APPLICATION_ERROR(-20000, 'Violacao detectada!'); END IF;\n\tELSIF UPDATING THEN\n\t\tIF(:n." + fk + " != :o." + fk + ") THEN");
+		out.write("\n\t\t\tSELECT COUNT (*) INTO X FROM " + ownerEntity2 + " c WHERE c." + fk + " = :o." + fk + ";\n\t\t\tIF (X != 0) THEN RAISE_APPLICATION_ERROR(-20001, 'Violacao detectada!'); END IF;");
+		out.write("\n\t\t\tSELECT COUNT (*) INTO X FROM " + ownerEntity2 + " c WHERE c." + fk + " = :n." + fk + ";\n\t\t\tIF (X = 0) THEN RAISE_APPLICATION_ERROR(-20002, 'Violacao detectada!'); END IF;\n\t\tEND IF;\n\tELSIF DELETING THEN");
+		out.write("\n\t\t\tSELECT COUNT (*) INTO X FROM " + ownerEntity2 + " c WHERE c." + fk + " = :o." + fk + ";\n\t\tIF (X != 0) THEN RAISE_APPLICATION_ERROR(-20003, 'Violacao detectada!'); END IF;\n\tEND IF;\nEND;\n");
+		out.write("\nCREATE OR REPLACE TRIGGER relTrigger_" + ownerEntity2 + " AFTER INSERT OR DELETE OR UPDATE ON " + ownerEntity2 + "\nREFERENCING NEW AS n OLD AS o FOR EACH ROW\nDECLARE Y number; PRAGMA AUTONOMOUS_TRANSACTION;\nBEGIN\n\tIF DELETING THEN");
+		out.write("\n\t\tSELECT COUNT (*) INTO Y FROM " + ownerEntity2 + " c WHERE c." + fk + " = :o." + fk + ";\n\t\tIF (Y != 0) THEN RAISE_APPLICATION_ERROR(-20004, 'Violacao detectada!'); END IF;\n\tELSIF UPDATING THEN\n\t\tIF(:o." + fk + " != :n." + fk + ") THEN");
+		out.write("\n\t\t\tSELECT COUNT (*) INTO Y FROM " + ownerEntity2 + " c WHERE c." + fk + " = :o." + fk + ";\n\t\t\tIF (Y != 0) THEN RAISE_APPLICATION_ERROR(-20005, 'Violacao detectada!'); END IF;\n\t\tEND IF;\n\tEND IF;\nEND;");
+	}
+
+
+	private void writeMultivaluedAttributes(Figure a) throws IOException {
+		if (a instanceof RelacionamentoFracoFigure) {
+			writeWeakMultivaluedAttributes(a);
+		} else if (a instanceof EntidadeRelacionamentoFigure) {
+			writeEntityRelationshipMultivaluedAttributes(a);
+		} else {
+			String ownerEntity = name(a);
+			String ownerKey = keyName(a);
+			for (AtributoMultivaloradoFigure d : model.getAttributes(a, AtributoMultivaloradoFigure.class)) {
+				String table = ownerEntity + "_" + name(d);
+				createTable("\n", table, Arrays.asList(
+						new Schema.Column(ownerKey, keyType(a), false),
+						new Schema.Column("pk_" + column(d), dialect.getColumnType(AttributeTypeEnum.INTEGER), false),
+						new Schema.Column(column(d), type(d), model.isNullable(d))));
+				addConstraint("\n", table, "PK_" + table, "PRIMARY KEY (pk_" + column(d) + ")");
+				addConstraint("", table, "FK_" + table, "FOREIGN KEY (" + ownerKey + ") REFERENCES " + ownerEntity + " (" + ownerKey + ")");
+			}
+		}
+	}
+
+	private void writeWeakMultivaluedAttributes(Figure e) throws IOException {
+		Figure owner = model.getIdentifyingOwner(e);
+		if (owner == null) {
+			return;
+		}
+		owner = model.getKeyOwner(owner);
+		// The multivalued attribute references the primary key of the weak
+		// entity, that is its partial keys and its foreign key to the owner
+		String fk = foreignKey(owner);
+		for (Figure h : model.getWeakEntities(e)) {
+			List<AtributoChaveParcialFigure> partialKeys = model.getAttributes(h, AtributoChaveParcialFigure.class);
+			if (partialKeys.isEmpty()) {
+				continue;
+			}
+			String keys = partialKeys(h) + ", " + fk;
+			for (AtributoMultivaloradoFigure k : model.getAttributes(h, AtributoMultivaloradoFigure.class)) {
+				String table = name(h) + "_" + name(k);
+				ArrayList<Schema.Column> columns = new ArrayList<Schema.Column>();
+				for (AtributoChaveParcialFigure j : partialKeys) {
+					columns.add(new Schema.Column(identifier(j), type(j), false));
+				}
+				columns.add(new Schema.Column(fk, keyType(owner), false));
+				columns.add(new Schema.Column("pk_" + column(k), dialect.getColumnType(AttributeTypeEnum.INTEGER), false));
+				columns.add(new Schema.Column(column(k), type(k), model.isNullable(k)));
+				createTable("\n", table, columns);
+				addConstraint("", table, "PK_" + table, "PRIMARY KEY (pk_" + column(k) + ")");
+				addConstraint("", table, "FK_" + table, "FOREIGN KEY (" + keys + ") REFERENCES " + name(h) + " (" + keys + ")");
+			}
+		}
+	}
+
+	private void writeEntityRelationshipMultivaluedAttributes(Figure a) throws IOException {
+		Figure[] owners = getEntityRelationshipOwners(a);
+		if (owners == null) {
+			return;
+		}
+		// The multivalued attribute references the primary key of the entity
+		// relationship, that is its foreign keys to the two owners
+		String entRel = name(a);
+		String fk = foreignKey(owners[0]);
+		String fk2 = foreignKey(owners[1]);
+		for (AtributoMultivaloradoFigure l : model.getAttributes(a, AtributoMultivaloradoFigure.class)) {
+			String table = entRel + "_" + name(l);
+			createTable("\n", table, Arrays.asList(
+					new Schema.Column(fk, keyType(owners[0]), false),
+					new Schema.Column(fk2, keyType(owners[1]), false),
+					new Schema.Column("pk_" + column(l), dialect.getColumnType(AttributeTypeEnum.INTEGER), false),
+					new Schema.Column(column(l), type(l), model.isNullable(l))));
+			addConstraint("\n", table, "PK_" + table, "PRIMARY KEY (pk_" + column(l) + ")");
+			addConstraint("", table, "FK_" + table, "FOREIGN KEY (" + fk + ", " + fk2 + ") REFERENCES " + entRel + " (" + fk + ", " + fk2 + ")");
+		}
+	}
+
+	private void writeDerivedAttributes(Figure a) throws IOException {
+		for (AtributoDerivadoFigure c : model.getAttributes(a, AtributoDerivadoFigure.class)) {
+			String sql = model.getSql(c);
+			if (sql == null || sql.trim().length() == 0) {
+				out.write("\n" + dialect.comment("The derived attribute " + identifier(c) + " of " + name(a) + " has no query.") + "\n");
+			} else {
+				out.write("\n" + dialect.createView("VW_" + name(a) + "_" + name(c), sql));
+			}
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package org.jhotdraw.ddl;
+
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.jhotdraw.draw.*;
+import org.jhotdraw.util.ResourceBundleUtil;
+
+/**
+ * Shows the DDL script of the drawing of a view and keeps it up to date
+ * while the drawing is edited.
+ * <p>
+ * Changes are collected from {@code DrawingListener} and
+ * {@code FigureListener} events on the event dispatcher thread and applied
+ * after the drawing has been quiet for {@link #DELAY} milliseconds. The
+ * script is rendered on a background thread from a cache which holds the
+ * statements of each figure section by section (see
+ * {@link DDLGenerator#write(java.io.Writer, DDLGenerator.Section, Figure)}).
+ * Only the statements of the changed figures and of the figures within
+ * {@link #RADIUS} connections of them are regenerated, because no statement
+ * of a figure reads further into the model than that. The script of a
+ * dialect which cannot alter constraints is always generated as a whole.
+ * <p>
+ * The panel does no work while it is not showing, for example while it is
+ * collapsed in a split pane.
+ */
+public class DDLPreviewPanel extends JPanel {
+	private static final long serialVersionUID = 1L;
+	/** The debounce delay in milliseconds. */
+	public final static int DELAY = 400;
+	/**
+	 * The number of connections between a changed figure and the farthest
+	 * figure whose statements depend on it: key attribute, supertype,
+	 * generalization, subtype, weak relationship.
+	 */
+	public final static int RADIUS = 4;
+
+	private JTextArea textArea;
+	private JLabel statusLabel;
+	private JComboBox<SQLDialect> dialectBox;
+
+	private DrawingView view;
+	private Drawing drawing;
+	private Timer timer;
+	private EventHandler eventHandler = new EventHandler();
+
+	// State of the event dispatcher thread
+	private HashSet<Figure> changedFigures = new HashSet<Figure>();
+	private boolean isInvalid = true;
+	private ERModel previousModel;
+
+	// State of the worker thread
+	private HashMap<Figure, String[]> cache = new HashMap<Figure, String[]>();
+	private SQLDialect cachedDialect;
+
+	private static ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "DDL Preview");
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			return t;
+		}
+	});
+
+	private class EventHandler extends FigureAdapter implements DrawingListener, PropertyChangeListener, ActionListener, HierarchyListener {
+		public void areaInvalidated(DrawingEvent e) {
+		}
+
+		public void figureAdded(DrawingEvent e) {
+			e.getFigure().addFigureListener(this);
+			figureChanged(e.getFigure());
+		}
+
+		public void figureRemoved(DrawingEvent e) {
+			e.getFigure().removeFigureListener(this);
+			figureChanged(e.getFigure());
+		}
+
+		@Override public void figureChanged(FigureEvent e) {
+			figureChanged(e.getFigure());
+		}
+
+		@Override public void figureAttributeChanged(FigureEvent e) {
+			figureChanged(e.getFigure());
+		}
+
+		private void figureChanged(Figure f) {
+			changedFigures.add(f);
+			timer.restart();
+		}
+
+		public void propertyChange(PropertyChangeEvent evt) {
+			if ("drawing".equals(evt.getPropertyName())) {
+				setDrawing((Drawing) evt.getNewValue());
+			}
+		}
+
+		public void actionPerformed(ActionEvent e) {
+			if (e.getSource() == dialectBox) {
+				isInvalid = true;
+			}
+			refresh();
+		}
+
+		public void hierarchyChanged(HierarchyEvent e) {
+			if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+				timer.restart();
+			}
+		}
+	}
+
+	/** Creates a new instance. */
+	public DDLPreviewPanel() {
+		super(new BorderLayout());
+		ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+		setBorder(new javax.swing.border.TitledBorder(labels.getString("ddlPreview")));
+		textArea = new JTextArea();
+		textArea.setEditable(false);
+		textArea.setFont(new Font("Monospaced", Font.PLAIN, textArea.getFont().getSize()));
+		add(new JScrollPane(textArea), BorderLayout.CENTER);
+
+		JPanel statusPanel = new JPanel(new BorderLayout());
+		dialectBox = new JComboBox<SQLDialect>(DDLGenerator.getDialects().toArray(new SQLDialect[0]));
+		dialectBox.addActionListener(eventHandler);
+		statusPanel.add(dialectBox, BorderLayout.WEST);
+		statusLabel = new JLabel(" ");
+		statusPanel.add(statusLabel, BorderLayout.CENTER);
+		add(statusPanel, BorderLayout.SOUTH);
+
+		timer = new Timer(DELAY, eventHandler);
+		timer.setRepeats(false);
+		addHierarchyListener(eventHandler);
+		addComponentListener(new ComponentAdapter() {
+			@Override public void componentResized(ComponentEvent e) {
+				timer.restart();
+			}
+		});
+	}
+
+	/**
+	 * Sets the view whose drawing is previewed. The panel follows the view
+	 * when its drawing is replaced.
+	 */
+	public void setView(DrawingView newValue) {
+		if (view != null) {
+			view.removePropertyChangeListener(eventHandler);
+		}
+		view = newValue;
+		if (view != null) {
+			view.addPropertyChangeListener(eventHandler);
+		}
+		setDrawing((view == null) ? null : view.getDrawing());
+	}
+
+	public DrawingView getView() {
+		return view;
+	}
+
+	private void setDrawing(Drawing newValue) {
+		if (drawing != null) {
+			drawing.removeDrawingListener(eventHandler);
+			for (Figure f : drawing.getFigures()) {
+				f.removeFigureListener(eventHandler);
+			}
+		}
+		drawing = newValue;
+		if (drawing != null) {
+			drawing.addDrawingListener(eventHandler);
+			for (Figure f : drawing.getFigures()) {
+				f.addFigureListener(eventHandler);
+			}
+		}
+		changedFigures.clear();
+		isInvalid = true;
+		previousModel = null;
+		timer.restart();
+	}
+
+	/**
+	 * Hands the pending changes to the worker thread. This method is invoked
+	 * on the event dispatcher thread.
+	 */
+	private void refresh() {
+		if (! isShowing() || getHeight() == 0) {
+			return;
+		}
+		if (drawing == null) {
+			textArea.setText("");
+			return;
+		}
+		final ERModel model = new ERModel(drawing);
+		final HashSet<Figure> dirtyFigures = new HashSet<Figure>();
+		if (previousModel != null) {
+			addNeighbourhood(previousModel, changedFigures, dirtyFigures);
+		}
+		addNeighbourhood(model, changedFigures, dirtyFigures);
+		final boolean isInvalidated = isInvalid;
+		final SQLDialect dialect = (SQLDialect) dialectBox.getSelectedItem();
+		changedFigures.clear();
+		isInvalid = false;
+		previousModel = model;
+
+		executor.execute(new Runnable() {
+			public void run() {
+				render(model, dialect, isInvalidated, dirtyFigures);
+			}
+		});
+	}
+
+	/**
+	 * Adds the figures which are at most {@link #RADIUS} connections away
+	 * from the changed figures to the dirty figures.
+	 */
+	private static void addNeighbourhood(ERModel model, Collection<Figure> changedFigures, Set<Figure> dirtyFigures) {
+		LinkedList<Figure> front = new LinkedList<Figure>();
+		for (Figure f : changedFigures) {
+			if (f instanceof ConnectionFigure) {
+				ConnectionFigure c = (ConnectionFigure) f;
+				if (c.getStartFigure() != null && dirtyFigures.add(c.getStartFigure())) {
+					front.add(c.getStartFigure());
+				}
+				if (c.getEndFigure() != null && dirtyFigures.add(c.getEndFigure())) {
+					front.add(c.getEndFigure());
+				}
+			} else if (dirtyFigures.add(f)) {
+				front.add(f);
+			}
+		}
+		for (int i = 0; i < RADIUS && ! front.isEmpty(); i++) {
+			LinkedList<Figure> next = new LinkedList<Figure>();
+			for (Figure f : front) {
+				for (ConnectionFigure c : model.getIncidentConnections(f)) {
+					Figure opposite = ERModel.getOpposite(c, f);
+					if (opposite != null && dirtyFigures.add(opposite)) {
+						next.add(opposite);
+					}
+				}
+			}
+			front = next;
+		}
+	}
+
+	/**
+	 * Renders the script from the cache, regenerating the statements of the
+	 * dirty figures. This method is invoked on the worker thread.
+	 */
+	private void render(ERModel model, SQLDialect dialect, boolean isInvalidated, Set<Figure> dirtyFigures) {
+		if (isInvalidated || dialect != cachedDialect) {
+			cache.clear();
+			cachedDialect = dialect;
+		} else {
+			cache.keySet().removeAll(dirtyFigures);
+		}
+
+		DDLGenerator generator = new DDLGenerator(model, dialect);
+		HashMap<Figure, String[]> newCache = new HashMap<Figure, String[]>();
+		StringBuilder buf = new StringBuilder();
+		int generated = 0, total = 0;
+		if (! dialect.supportsAlterConstraints()) {
+			// The tables are declared with the constraints which the figures
+			// contribute to later sections, so the script is generated as a
+			// whole
+			cache.clear();
+			cachedDialect = null;
+			for (DDLGenerator.Section section : DDLGenerator.Section.values()) {
+				total += generator.getOwners(section).size();
+			}
+			generated = total;
+			buf.append(generator.generate());
+		} else {
+			try {
+				for (DDLGenerator.Section section : DDLGenerator.Section.values()) {
+					for (Figure owner : generator.getOwners(section)) {
+						String[] fragments = newCache.get(owner);
+						if (fragments == null) {
+							fragments = cache.get(owner);
+							if (fragments == null) {
+								fragments = new String[DDLGenerator.Section.values().length];
+							}
+							newCache.put(owner, fragments);
+						}
+						String fragment = fragments[section.ordinal()];
+						if (fragment == null) {
+							StringWriter w = new StringWriter();
+							generator.write(w, section, owner);
+							fragment = fragments[section.ordinal()] = w.toString();
+							generated++;
+						}
+						total++;
+						buf.append(fragment);
+					}
+				}
+			} catch (IOException e) {
+				// a StringWriter does not throw IOExceptions
+				throw new InternalError(e.getMessage());
+			}
+		}
+		cache = newCache;
+
+		final String text = buf.toString();
+		ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
+		final String status = labels.getFormatted("ddlPreview.status", generated, total);
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				int caret = textArea.getCaretPosition();
+				textArea.setText(text);
+				textArea.setCaretPosition(Math.min(caret, text.length()));
+				statusLabel.setText(" " + status);
+			}
+		});
+	}
+}
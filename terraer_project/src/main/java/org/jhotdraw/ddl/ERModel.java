@@ -0,0 +1,407 @@
+package org.jhotdraw.ddl;
+
+import java.util.*;
+
+import org.jhotdraw.draw.*;
+import org.jhotdraw.enums.AttributeTypeEnum;
+import org.jhotdraw.interfaces.AttributeTypeElement;
+
+/**
+ * Intermediate representation of an ER drawing used by the DDL generator.
+ * <p>
+ * The model is built in a single pass over the figures of a drawing. It
+ * buckets the ER figures by kind and indexes every connection by both of its
+ * end figures, so that the attributes, keys, relationship participants,
+ * weak-entity owners and generalization links of a figure can be looked up
+ * in time proportional to the number of connections of that figure instead
+ * of scanning all figures of the drawing. The generalization links are
+ * looked up in a {@link GenSpecHierarchy} of the figures.
+ * <p>
+ * The SQL identifiers of the figures are captured when the model is built,
+ * from the {@link NameRegistry} of the drawing if there is one, so that the
+ * names do not have to be normalized for every statement. The ends of the
+ * connections, the types and nullability of the attributes and the queries
+ * of the derived attributes are captured as well, so that the model can be
+ * rendered on other threads while the figures are being edited.
+ * <p>
+ * All lists preserve the drawing order of the figures.
+ */
+public class ERModel {
+	private ArrayList<Figure> strongEntities = new ArrayList<Figure>();
+	private ArrayList<Figure> weakEntities = new ArrayList<Figure>();
+	private ArrayList<Figure> entityRelationships = new ArrayList<Figure>();
+	private ArrayList<Figure> relationships = new ArrayList<Figure>();
+	private ArrayList<Figure> weakRelationships = new ArrayList<Figure>();
+	private ArrayList<Figure> genspecDisjoint = new ArrayList<Figure>();
+	private ArrayList<Figure> genspecOverlap = new ArrayList<Figure>();
+
+	/** Connections incident to a figure, in drawing order. */
+	private HashMap<Figure, ArrayList<ConnectionFigure>> incidentConnections = new HashMap<Figure, ArrayList<ConnectionFigure>>();
+	/** Figures attached to a figure through a plain attribute connection. */
+	private HashMap<Figure, ArrayList<Figure>> attributes = new HashMap<Figure, ArrayList<Figure>>();
+	/** Supertypes and subtypes of the generalization figures and entities. */
+	private GenSpecHierarchy hierarchy = new GenSpecHierarchy();
+	/** SQL identifiers of the named figures. */
+	private HashMap<Figure, String> identifiers = new HashMap<Figure, String>();
+	/** Start and end figures of the connections. */
+	private HashMap<ConnectionFigure, Figure[]> ends = new HashMap<ConnectionFigure, Figure[]>();
+	/** Types of the attributes. */
+	private HashMap<Figure, AttributeTypeEnum> attributeTypes = new HashMap<Figure, AttributeTypeEnum>();
+	/** Attributes whose column is nullable. */
+	private HashSet<Figure> nullableAttributes = new HashSet<Figure>();
+	/** Queries of the derived attributes. */
+	private HashMap<Figure, String> queries = new HashMap<Figure, String>();
+
+	/**
+	 * Creates the model of the specified figures.
+	 */
+	public ERModel(Collection<Figure> figures) {
+		this(figures, null);
+	}
+
+	/**
+	 * Creates the model of the figures of the specified drawing.
+	 */
+	public ERModel(Drawing drawing) {
+		this(drawing.getFigures(), NameRegistry.getInstance(drawing));
+	}
+
+	private ERModel(Collection<Figure> figures, NameRegistry registry) {
+		for (Figure f : figures) {
+			if (! (f instanceof ConnectionFigure)) {
+				TextFigure tf = NameRegistry.getTextFigure(f);
+				if (tf != null) {
+					identifiers.put(f, (registry == null) ? NameRegistry.toIdentifier(tf.getText()) : registry.getIdentifier(f));
+				}
+			}
+			if (f instanceof AttributeTypeElement) {
+				AttributeTypeElement a = (AttributeTypeElement) f;
+				attributeTypes.put(f, a.getAttributeType());
+				if (a.isNullable()) {
+					nullableAttributes.add(f);
+				}
+			} else if (f instanceof AtributoDerivadoFigure) {
+				queries.put(f, ((AtributoDerivadoFigure) f).getSql());
+			}
+			if (f instanceof ConnectionFigure) {
+				addConnection((ConnectionFigure) f);
+			} else if (f instanceof EntidadeFigure) {
+				strongEntities.add(f);
+			} else if (f instanceof EntidadeFracaFigure) {
+				weakEntities.add(f);
+			} else if (f instanceof EntidadeRelacionamentoFigure) {
+				entityRelationships.add(f);
+			} else if (f instanceof RelacionamentoFigure) {
+				relationships.add(f);
+			} else if (f instanceof RelacionamentoFracoFigure) {
+				weakRelationships.add(f);
+			} else if (f instanceof DisjuncaoFigure) {
+				genspecDisjoint.add(f);
+			} else if (f instanceof SobreposicaoFigure) {
+				genspecOverlap.add(f);
+			}
+		}
+	}
+
+	private void addConnection(ConnectionFigure c) {
+		Figure start = c.getStartFigure();
+		Figure end = c.getEndFigure();
+		if (start == null || end == null) {
+			return;
+		}
+		ends.put(c, new Figure[] {start, end});
+		incident(start).add(c);
+		if (end != start) {
+			incident(end).add(c);
+		}
+		if (c.getClass() == LineConnectionFigure.class) {
+			attached(start).add(end);
+			attached(end).add(start);
+		}
+		hierarchy.connect(c);
+	}
+
+	private ArrayList<ConnectionFigure> incident(Figure f) {
+		ArrayList<ConnectionFigure> list = incidentConnections.get(f);
+		if (list == null) {
+			list = new ArrayList<ConnectionFigure>(4);
+			incidentConnections.put(f, list);
+		}
+		return list;
+	}
+
+	private ArrayList<Figure> attached(Figure f) {
+		ArrayList<Figure> list = attributes.get(f);
+		if (list == null) {
+			list = new ArrayList<Figure>(4);
+			attributes.put(f, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the SQL identifier of a figure, that is, its name with white
+	 * space replaced by underscores.
+	 */
+	public String getIdentifier(Figure f) {
+		String identifier = identifiers.get(f);
+		return (identifier == null) ? NameRegistry.toIdentifier(f.toString()) : identifier;
+	}
+
+	public List<Figure> getStrongEntities() {
+		return Collections.unmodifiableList(strongEntities);
+	}
+
+	public List<Figure> getWeakEntities() {
+		return Collections.unmodifiableList(weakEntities);
+	}
+
+	public List<Figure> getEntityRelationships() {
+		return Collections.unmodifiableList(entityRelationships);
+	}
+
+	public List<Figure> getRelationships() {
+		return Collections.unmodifiableList(relationships);
+	}
+
+	public List<Figure> getWeakRelationships() {
+		return Collections.unmodifiableList(weakRelationships);
+	}
+
+	public List<Figure> getGenspecDisjoint() {
+		return Collections.unmodifiableList(genspecDisjoint);
+	}
+
+	public List<Figure> getGenspecOverlap() {
+		return Collections.unmodifiableList(genspecOverlap);
+	}
+
+	/**
+	 * Returns the connections which start or end at the specified figure.
+	 */
+	public List<ConnectionFigure> getIncidentConnections(Figure f) {
+		List<ConnectionFigure> list = incidentConnections.get(f);
+		return (list == null) ? Collections.<ConnectionFigure>emptyList() : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns the figure at the other end of the connection.
+	 */
+	public static Figure getOpposite(ConnectionFigure c, Figure f) {
+		return (c.getStartFigure() == f) ? c.getEndFigure() : c.getStartFigure();
+	}
+
+	/**
+	 * Returns the figure at the other end of a connection of the model, as
+	 * it was when the model was built.
+	 */
+	private Figure opposite(ConnectionFigure c, Figure f) {
+		Figure[] e = ends.get(c);
+		return (e[0] == f) ? e[1] : e[0];
+	}
+
+	/**
+	 * Returns the type of an attribute, or null if it has none.
+	 */
+	public AttributeTypeEnum getAttributeType(Figure attribute) {
+		return attributeTypes.get(attribute);
+	}
+
+	/**
+	 * Returns true if the column of an attribute is nullable.
+	 */
+	public boolean isNullable(Figure attribute) {
+		return nullableAttributes.contains(attribute);
+	}
+
+	/**
+	 * Returns the query of a derived attribute, or null if it has none.
+	 */
+	public String getSql(Figure derivedAttribute) {
+		return queries.get(derivedAttribute);
+	}
+
+	/**
+	 * Returns all figures attached to the owner through a plain attribute
+	 * connection, in the order of the connections.
+	 */
+	public List<Figure> getAttributes(Figure owner) {
+		List<Figure> list = attributes.get(owner);
+		return (list == null) ? Collections.<Figure>emptyList() : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns the attributes of the specified type attached to the owner.
+	 */
+	public <T extends Figure> List<T> getAttributes(Figure owner, Class<T> type) {
+		ArrayList<T> list = new ArrayList<T>();
+		for (Figure a : getAttributes(owner)) {
+			if (type.isInstance(a)) {
+				list.add(type.cast(a));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the key attribute of an entity, or null if it has none.
+	 * When an entity has several key attributes, the last one is its key.
+	 */
+	public AtributoChaveFigure getKey(Figure entity) {
+		return last(entity, AtributoChaveFigure.class);
+	}
+
+	/**
+	 * Returns the partial key attribute of a weak entity, or null if it has
+	 * none.
+	 */
+	public AtributoChaveParcialFigure getPartialKey(Figure weakEntity) {
+		return last(weakEntity, AtributoChaveParcialFigure.class);
+	}
+
+	private <T extends Figure> T last(Figure owner, Class<T> type) {
+		List<Figure> list = getAttributes(owner);
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (type.isInstance(list.get(i))) {
+				return type.cast(list.get(i));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the figures linked to a relationship through connections of
+	 * the specified class, in the order of the connections.
+	 */
+	public List<Figure> getParticipants(Figure relationship, Class<? extends ConnectionFigure> type) {
+		ArrayList<Figure> list = new ArrayList<Figure>();
+		for (ConnectionFigure c : getIncidentConnections(relationship)) {
+			if (c.getClass() == type) {
+				list.add(opposite(c, relationship));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns true if the connection links an entity to a relationship, that
+	 * is, if it is one of the labeled cardinality connections.
+	 */
+	public static boolean isParticipation(ConnectionFigure c) {
+		Class<?> type = c.getClass();
+		return type == LabeledLineConnectionUmFigure.class ||
+				type == LabeledLineConnectionMuitosFigure.class ||
+				type == LabeledDoubleLineConnectionUmFigure.class ||
+				type == LabeledDoubleLineConnectionMuitosFigure.class;
+	}
+
+	/**
+	 * Returns the strong entity which identifies the weak entities of a weak
+	 * relationship, or null if there is none.
+	 */
+	public Figure getIdentifyingOwner(Figure weakRelationship) {
+		for (ConnectionFigure c : getIncidentConnections(weakRelationship)) {
+			Figure f = opposite(c, weakRelationship);
+			if (isParticipation(c) && f instanceof EntidadeFigure) {
+				return f;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the weak entities taking part in a weak relationship.
+	 */
+	public List<Figure> getWeakEntities(Figure weakRelationship) {
+		ArrayList<Figure> list = new ArrayList<Figure>();
+		for (ConnectionFigure c : getIncidentConnections(weakRelationship)) {
+			Figure f = opposite(c, weakRelationship);
+			if (isParticipation(c) && f instanceof EntidadeFracaFigure && !list.contains(f)) {
+				list.add(f);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the generalization hierarchy of the figures of the model.
+	 */
+	public GenSpecHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Returns the connection linking a generalization figure to its
+	 * supertype, or null if there is none.
+	 */
+	public ConnectionFigure getSupertypeConnection(Figure genspec) {
+		for (ConnectionFigure c : hierarchy.getSupertypeConnections(genspec)) {
+			if (opposite(c, genspec) instanceof EntidadeFigure) {
+				return c;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the supertype of a generalization figure, or null if there is
+	 * none.
+	 */
+	public Figure getSupertype(Figure genspec) {
+		ConnectionFigure c = getSupertypeConnection(genspec);
+		return (c == null) ? null : opposite(c, genspec);
+	}
+
+	/**
+	 * Returns true if the supertype of the generalization figure takes part
+	 * in it totally, that is, through a double line.
+	 */
+	public boolean isTotal(Figure genspec) {
+		ConnectionFigure c = getSupertypeConnection(genspec);
+		return c != null && c.getClass() == DoubleLineConnectionGeneralizacaoFigure.class;
+	}
+
+	/**
+	 * Returns the subtypes of a generalization figure, in the order of the
+	 * connections.
+	 */
+	public List<Figure> getSubtypes(Figure genspec) {
+		ArrayList<Figure> list = new ArrayList<Figure>();
+		for (Figure f : hierarchy.getSubtypes(genspec)) {
+			if (f instanceof EntidadeFigure) {
+				list.add(f);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the supertype of an entity, or null if the entity is not the
+	 * subtype of a disjoint or overlapping generalization.
+	 */
+	public Figure getSupertypeOf(Figure entity) {
+		for (Figure f : hierarchy.getSupertypes(entity)) {
+			if (f instanceof DisjuncaoFigure || f instanceof SobreposicaoFigure) {
+				Figure supertype = getSupertype(f);
+				if (supertype != null) {
+					return supertype;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the entity whose key identifies the specified entity. This is
+	 * the entity itself if it has a key attribute, otherwise its supertype.
+	 */
+	public Figure getKeyOwner(Figure entity) {
+		if (getKey(entity) == null) {
+			Figure supertype = getSupertypeOf(entity);
+			if (supertype != null && getKey(supertype) != null) {
+				return supertype;
+			}
+		}
+		return entity;
+	}
+}
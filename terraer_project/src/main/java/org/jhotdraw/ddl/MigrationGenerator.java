@@ -0,0 +1,286 @@
+package org.jhotdraw.ddl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates the SQL script which migrates a database from one version of a
+ * schema to another, instead of recreating it.
+ * <p>
+ * Tables, columns, constraints, views and triggers are matched by name with
+ * hash lookups. A table which has disappeared from the old schema and
+ * appeared in the new one with the same structural signature (see
+ * {@link Schema.Table#getSignature()}) is renamed instead of being dropped
+ * and created, and a table whose signature has changed is known to be
+ * changed without comparing its columns. The work is therefore
+ * proportional to the size of the schemas.
+ * <p>
+ * The statements are written in an order which keeps the database
+ * consistent: objects are dropped before tables and columns are changed,
+ * and constraints are added after all tables exist. Primary keys are added
+ * before and dropped after the foreign keys which reference them.
+ */
+public class MigrationGenerator {
+	private Schema from;
+	private Schema to;
+	private SQLDialect dialect;
+	private Writer out;
+
+	/** Tables of the old schema by the tables of the new schema they become. */
+	private LinkedHashMap<Schema.Table, Schema.Table> matched;
+	private ArrayList<Schema.Table> dropped;
+	private ArrayList<Schema.Table> created;
+	private int statementCount;
+
+	/**
+	 * Creates a generator which migrates a database from the schema
+	 * {@code from} to the schema {@code to} with the statements of the
+	 * specified dialect.
+	 */
+	public MigrationGenerator(Schema from, Schema to, SQLDialect dialect) {
+		this.from = from;
+		this.to = to;
+		this.dialect = dialect;
+	}
+
+	/**
+	 * Creates a generator which migrates a database from the schema of the
+	 * model {@code from} to the schema of the model {@code to}.
+	 */
+	public MigrationGenerator(ERModel from, ERModel to, SQLDialect dialect) {
+		this(new Schema(from, dialect), new Schema(to, dialect), dialect);
+	}
+
+	/**
+	 * Writes the migration script to the specified writer.
+	 */
+	public void write(Writer out) throws IOException {
+		this.out = out;
+		statementCount = 0;
+		match();
+
+		for (Schema.Definition t : from.getTriggers()) {
+			if (to.getTrigger(t.getName()) == null) {
+				write(dialect.dropTrigger(t.getName()));
+			}
+		}
+		for (Schema.Definition v : from.getViews()) {
+			Schema.Definition w = to.getView(v.getName());
+			if (w == null || ! w.getStatement().equals(v.getStatement())) {
+				write(dialect.dropView(v.getName()));
+			}
+		}
+		dropConstraints(true);
+		dropConstraints(false);
+		for (Schema.Table t : dropped) {
+			write(dialect.dropTable(t.getName()) + ";");
+		}
+		for (Map.Entry<Schema.Table, Schema.Table> entry : matched.entrySet()) {
+			if (! entry.getKey().getName().equals(entry.getValue().getName())) {
+				write(dialect.renameTable(entry.getKey().getName(), entry.getValue().getName()) + ";");
+			}
+		}
+		for (Map.Entry<Schema.Table, Schema.Table> entry : matched.entrySet()) {
+			alterColumns(entry.getKey(), entry.getValue());
+		}
+		for (Schema.Table t : created) {
+			writeCreateTable(t);
+		}
+		addConstraints(false);
+		addConstraints(true);
+		for (Schema.Definition v : to.getViews()) {
+			Schema.Definition w = from.getView(v.getName());
+			if (w == null || ! w.getStatement().equals(v.getStatement())) {
+				write(v.getStatement() + ";");
+			}
+		}
+		for (Schema.Definition t : to.getTriggers()) {
+			Schema.Definition u = from.getTrigger(t.getName());
+			if (u == null || ! u.getStatement().equals(t.getStatement())) {
+				write(t.getStatement() + ";");
+			}
+		}
+
+		if (statementCount == 0) {
+			out.write(dialect.comment("The schemas are equal.") + "\n");
+		}
+		out.flush();
+		this.out = null;
+	}
+
+	/**
+	 * Returns the migration script.
+	 */
+	public String generate() {
+		StringWriter w = new StringWriter();
+		try {
+			write(w);
+		} catch (IOException e) {
+			// a StringWriter does not throw IOExceptions
+			throw new InternalError(e.getMessage());
+		}
+		return w.toString();
+	}
+
+	/**
+	 * Writes the migration script to the specified file in the UTF-8
+	 * encoding.
+	 */
+	public void write(File file) throws IOException {
+		Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+		try {
+			write(w);
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Matches the tables of the old schema with the tables of the new
+	 * schema, first by name and then, among the remaining tables, by
+	 * structural signature.
+	 */
+	private void match() {
+		matched = new LinkedHashMap<Schema.Table, Schema.Table>();
+		dropped = new ArrayList<Schema.Table>();
+		created = new ArrayList<Schema.Table>();
+
+		HashMap<Integer, ArrayList<Schema.Table>> unmatched = new HashMap<Integer, ArrayList<Schema.Table>>();
+		for (Schema.Table t : from.getTables()) {
+			if (to.getTable(t.getName()) == null) {
+				ArrayList<Schema.Table> list = unmatched.get(t.getSignature());
+				if (list == null) {
+					list = new ArrayList<Schema.Table>(1);
+					unmatched.put(t.getSignature(), list);
+				}
+				list.add(t);
+			}
+		}
+		HashMap<Schema.Table, Schema.Table> renamed = new HashMap<Schema.Table, Schema.Table>();
+		for (Schema.Table t : to.getTables()) {
+			if (from.getTable(t.getName()) == null) {
+				ArrayList<Schema.Table> list = unmatched.get(t.getSignature());
+				Schema.Table u = null;
+				if (list != null) {
+					for (Iterator<Schema.Table> i = list.iterator(); i.hasNext(); ) {
+						Schema.Table candidate = i.next();
+						if (candidate.getColumns().size() > 0 && candidate.isStructurallyEqual(t)) {
+							u = candidate;
+							i.remove();
+							break;
+						}
+					}
+				}
+				if (u == null) {
+					created.add(t);
+				} else {
+					renamed.put(u, t);
+				}
+			}
+		}
+		for (Schema.Table t : from.getTables()) {
+			Schema.Table u = to.getTable(t.getName());
+			if (u == null) {
+				u = renamed.get(t);
+			}
+			if (u == null) {
+				dropped.add(t);
+			} else {
+				matched.put(t, u);
+			}
+		}
+	}
+
+	private static boolean isEqual(Schema.Constraint c, Schema.Constraint d) {
+		return d != null && c.getDefinition().equalsIgnoreCase(d.getDefinition());
+	}
+
+	/**
+	 * Drops the foreign keys or the other constraints of the old schema
+	 * which the new schema does not have or has changed. The constraints of
+	 * dropped tables are dropped with the tables.
+	 */
+	private void dropConstraints(boolean isForeignKey) throws IOException {
+		for (Map.Entry<Schema.Table, Schema.Table> entry : matched.entrySet()) {
+			Schema.Table t = entry.getKey();
+			for (Schema.Constraint c : t.getConstraints()) {
+				if (c.isForeignKey() == isForeignKey && ! isEqual(c, entry.getValue().getConstraint(c))) {
+					if (c.getName() == null) {
+						write(dialect.comment("Drop the constraint " + c.getDefinition() + " of " + t.getName() + "."));
+					} else {
+						writeAlterConstraint(dialect.dropConstraint(t.getName(), c.getName()) + ";");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the foreign keys or the other constraints of the new schema
+	 * which the old schema does not have or has changed.
+	 */
+	private void addConstraints(boolean isForeignKey) throws IOException {
+		HashMap<Schema.Table, Schema.Table> inverse = new HashMap<Schema.Table, Schema.Table>();
+		for (Map.Entry<Schema.Table, Schema.Table> entry : matched.entrySet()) {
+			inverse.put(entry.getValue(), entry.getKey());
+		}
+		for (Schema.Table t : to.getTables()) {
+			Schema.Table u = inverse.get(t);
+			if (u == null && ! dialect.supportsAlterConstraints()) {
+				// the constraints have been declared with the table
+				continue;
+			}
+			for (Schema.Constraint c : t.getConstraints()) {
+				if (c.isForeignKey() == isForeignKey && (u == null || ! isEqual(c, u.getConstraint(c)))) {
+					writeAlterConstraint(dialect.addConstraint(t.getName(), c.toString()) + ";");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a statement which adds or drops a constraint, or writes it as
+	 * a comment if the dialect cannot alter the constraints of a table.
+	 */
+	private void writeAlterConstraint(String statement) throws IOException {
+		write(dialect.supportsAlterConstraints() ? statement : dialect.comment(statement));
+	}
+
+	/**
+	 * Adds, drops and modifies the columns of a table. The table has
+	 * already been renamed.
+	 */
+	private void alterColumns(Schema.Table from, Schema.Table to) throws IOException {
+		if (from.isStructurallyEqual(to)) {
+			return;
+		}
+		for (Schema.Column c : from.getColumns()) {
+			if (to.getColumn(c.getName()) == null) {
+				write(dialect.dropColumn(to.getName(), c.getName()) + ";");
+			}
+		}
+		for (Schema.Column c : to.getColumns()) {
+			Schema.Column d = from.getColumn(c.getName());
+			if (d == null) {
+				write(dialect.addColumn(to.getName(), c.getDefinition()) + ";");
+			} else if (! c.isStructurallyEqual(d)) {
+				write(dialect.modifyColumn(to.getName(), c.getName(), c.getType(), c.isNullable()) + ";");
+			}
+		}
+	}
+
+	private void writeCreateTable(Schema.Table t) throws IOException {
+		write(t.getCreateStatement(! dialect.supportsAlterConstraints()));
+	}
+
+	private void write(String statement) throws IOException {
+		out.write("\n" + statement + "\n");
+		statementCount++;
+	}
+}
@@ -0,0 +1,42 @@
+package org.jhotdraw.ddl;
+
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * The MySQL dialect. MySQL has neither deferred constraints nor views
+ * defined by a parenthesized query.
+ */
+public class MySQLDialect extends AbstractSQLDialect {
+
+	public String getName() {
+		return "MySQL";
+	}
+
+	public String getColumnType(AttributeTypeEnum type) {
+		switch (type) {
+			case CHAR :
+				return "CHAR(128)";
+			case TEXT :
+				return "VARCHAR(128)";
+			case INTEGER :
+				return "INT";
+			case NUMBER :
+				return "DECIMAL(9,2)";
+			case DATE :
+			default :
+				return "DATE";
+		}
+	}
+
+	public String modifyColumn(String table, String column, String type, boolean nullable) {
+		return "ALTER TABLE " + table + " MODIFY COLUMN " + column + " " + type + (nullable ? " NULL" : " NOT NULL");
+	}
+
+	public String getDeferredClause() {
+		return "";
+	}
+
+	public String createView(String name, String query) {
+		return "CREATE OR REPLACE VIEW " + name + " AS\n" + query + ";";
+	}
+}
@@ -0,0 +1,39 @@
+package org.jhotdraw.ddl;
+
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * The Oracle dialect. This is the dialect TerraER has always generated: the
+ * column types are the SQL types stored with the attributes, and the
+ * participation constraints are enforced by PL/SQL triggers.
+ */
+public class OracleDialect extends AbstractSQLDialect {
+
+	public String getName() {
+		return "Oracle";
+	}
+
+	public String getColumnType(AttributeTypeEnum type) {
+		return type.getSqlType();
+	}
+
+	public String addColumn(String table, String columnDefinition) {
+		return "ALTER TABLE " + table + " ADD " + columnDefinition;
+	}
+
+	public String modifyColumn(String table, String column, String type, boolean nullable) {
+		return "ALTER TABLE " + table + " MODIFY (" + column + " " + type + (nullable ? " NULL" : " NOT NULL") + ")";
+	}
+
+	public String dropTable(String table) {
+		return "DROP TABLE " + table + " CASCADE CONSTRAINTS";
+	}
+
+	public String getDeferredClause() {
+		return " INITIALLY DEFERRED DEFERRABLE";
+	}
+
+	public boolean supportsTriggers() {
+		return true;
+	}
+}
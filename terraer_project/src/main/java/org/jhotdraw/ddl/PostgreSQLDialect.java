@@ -0,0 +1,29 @@
+package org.jhotdraw.ddl;
+
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * The PostgreSQL dialect.
+ */
+public class PostgreSQLDialect extends AbstractSQLDialect {
+
+	public String getName() {
+		return "PostgreSQL";
+	}
+
+	public String getColumnType(AttributeTypeEnum type) {
+		switch (type) {
+			case CHAR :
+				return "CHAR(128)";
+			case TEXT :
+				return "VARCHAR(128)";
+			case INTEGER :
+				return "INTEGER";
+			case NUMBER :
+				return "NUMERIC(9,2)";
+			case DATE :
+			default :
+				return "DATE";
+		}
+	}
+}
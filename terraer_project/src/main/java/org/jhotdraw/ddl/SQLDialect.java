@@ -0,0 +1,116 @@
+package org.jhotdraw.ddl;
+
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * A SQL dialect renders the parts of a DDL script which differ between
+ * database engines.
+ * <p>
+ * The {@link DDLGenerator} decides which tables, columns, constraints and
+ * views a model maps to; the dialect decides how each of them is spelled.
+ * Dialects are stateless and can be shared between threads.
+ *
+ * @see AbstractSQLDialect
+ */
+public interface SQLDialect {
+	/**
+	 * Returns the name of the dialect, for example "Oracle".
+	 */
+	public String getName();
+
+	/**
+	 * Returns the column type of an attribute type.
+	 */
+	public String getColumnType(AttributeTypeEnum type);
+
+	/**
+	 * Returns the name of a table, column or constraint as an identifier
+	 * which the dialect accepts without quotes.
+	 */
+	public String identifier(String name);
+
+	/**
+	 * Returns the statement which adds a column to a table, without the
+	 * terminating semicolon.
+	 */
+	public String addColumn(String table, String columnDefinition);
+
+	/**
+	 * Returns the statement which adds a constraint to a table, without the
+	 * terminating semicolon.
+	 */
+	public String addConstraint(String table, String constraint);
+
+	/**
+	 * Returns the statement which changes the type and nullability of a
+	 * column, without the terminating semicolon.
+	 */
+	public String modifyColumn(String table, String column, String type, boolean nullable);
+
+	/**
+	 * Returns the statement which drops a column from a table, without the
+	 * terminating semicolon.
+	 */
+	public String dropColumn(String table, String column);
+
+	/**
+	 * Returns the statement which drops a constraint from a table, without
+	 * the terminating semicolon.
+	 */
+	public String dropConstraint(String table, String constraint);
+
+	/**
+	 * Returns the statement which renames a table, without the terminating
+	 * semicolon.
+	 */
+	public String renameTable(String table, String newName);
+
+	/**
+	 * Returns the statement which drops a table, without the terminating
+	 * semicolon.
+	 */
+	public String dropTable(String table);
+
+	/**
+	 * Returns the clause which defers the check of a foreign key to the end
+	 * of the transaction, including a leading space, or an empty string if
+	 * the dialect does not support deferred constraints.
+	 */
+	public String getDeferredClause();
+
+	/**
+	 * Returns the statement which creates a view, including the terminating
+	 * semicolon.
+	 */
+	public String createView(String name, String query);
+
+	/**
+	 * Returns the statement which drops a view, including the terminating
+	 * semicolon.
+	 */
+	public String dropView(String name);
+
+	/**
+	 * Returns the statement which drops a trigger, including the terminating
+	 * semicolon.
+	 */
+	public String dropTrigger(String name);
+
+	/**
+	 * Returns true if the dialect supports the PL/SQL triggers which enforce
+	 * the participation constraints of generalizations and relationships.
+	 */
+	public boolean supportsTriggers();
+
+	/**
+	 * Returns true if the dialect can add constraints to an existing table
+	 * and drop them. Otherwise the constraints of a table are declared in
+	 * its CREATE TABLE statement.
+	 */
+	public boolean supportsAlterConstraints();
+
+	/**
+	 * Returns a single line comment.
+	 */
+	public String comment(String text);
+}
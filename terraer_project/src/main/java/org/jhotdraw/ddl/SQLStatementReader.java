@@ -0,0 +1,264 @@
+package org.jhotdraw.ddl;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a SQL script into statements and the statements into tokens.
+ * <p>
+ * The reader reads one statement at a time, so that scripts of any size can
+ * be processed without holding them in memory. Comments are skipped. The
+ * tokens of a statement are words, quoted strings and identifiers, and the
+ * punctuation characters {@code (}, {@code )} and {@code ,}. Words extend to
+ * the next white space or punctuation character, so that the generated
+ * names of TerraER, such as {@code key-entity}, are single tokens.
+ * <p>
+ * Statements end with a semicolon, except for PL/SQL blocks and the
+ * triggers, procedures and functions which contain them: these end with an
+ * {@code END;} and may be followed by a line with a slash.
+ */
+public class SQLStatementReader {
+	private PushbackReader in;
+	private ArrayList<String> tokens;
+	private StringBuilder text = new StringBuilder();
+	private boolean isRecording;
+	private int lineNumber = 1;
+	private int statementLineNumber;
+
+	/** Creates a new instance which reads from the specified reader. */
+	public SQLStatementReader(Reader in) {
+		this.in = new PushbackReader(in, 2);
+	}
+
+	/**
+	 * Reads the next statement and returns its tokens, without the
+	 * terminating semicolon. Returns null at the end of the script.
+	 */
+	public List<String> readStatement() throws IOException {
+		tokens = new ArrayList<String>();
+		isRecording = false;
+		boolean isBlock = false;
+		for (;;) {
+			int c = skipWhitespace();
+			if (c == -1) {
+				return tokens.isEmpty() ? null : tokens;
+			}
+			if (tokens.isEmpty()) {
+				text.setLength(0);
+				isRecording = true;
+				statementLineNumber = lineNumber;
+			}
+			append(c);
+			switch (c) {
+				case ';' :
+					if (isBlock && ! "END".equalsIgnoreCase(tokens.get(tokens.size() - 1))) {
+						tokens.add(";");
+						break;
+					}
+					text.setLength(text.length() - 1);
+					if (! tokens.isEmpty()) {
+						return tokens;
+					}
+					isRecording = false;
+					break;
+				case '(' :
+				case ')' :
+				case ',' :
+					tokens.add(String.valueOf((char) c));
+					break;
+				case '\'' :
+				case '"' :
+				case '`' :
+					tokens.add(readQuoted(c));
+					break;
+				default :
+					String word = readWord(c);
+					if (tokens.isEmpty() && word.equals("/")) {
+						isRecording = false;
+					} else {
+						tokens.add(word);
+						isBlock = isBlock || isBlock(tokens);
+					}
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the text of the statement returned last, without the
+	 * terminating semicolon. Unlike the tokens, the text preserves the
+	 * layout and the comments inside of the statement.
+	 */
+	public String getText() {
+		return text.toString().trim();
+	}
+
+	/**
+	 * Returns the line on which the statement returned last begins.
+	 */
+	public int getLineNumber() {
+		return statementLineNumber;
+	}
+
+	/**
+	 * Returns true if the statement with the specified leading tokens is a
+	 * PL/SQL block.
+	 */
+	private static boolean isBlock(List<String> tokens) {
+		String first = tokens.get(0);
+		if (tokens.size() == 1) {
+			return first.equalsIgnoreCase("BEGIN") || first.equalsIgnoreCase("DECLARE");
+		}
+		if (tokens.size() > 4 || ! first.equalsIgnoreCase("CREATE")) {
+			return false;
+		}
+		String kind = tokens.get(tokens.size() - 1);
+		return kind.equalsIgnoreCase("TRIGGER") || kind.equalsIgnoreCase("PROCEDURE") ||
+				kind.equalsIgnoreCase("FUNCTION") || kind.equalsIgnoreCase("PACKAGE");
+	}
+
+	/**
+	 * Joins tokens into a string with a space between two tokens, except
+	 * after an opening and before a closing parenthesis and before a comma.
+	 */
+	public static String join(List<String> tokens, int from, int to) {
+		StringBuilder buf = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			String t = tokens.get(i);
+			if (i > from && ! t.equals(")") && ! t.equals(",") && ! tokens.get(i - 1).equals("(")) {
+				buf.append(' ');
+			}
+			buf.append(t);
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Joins tokens into a string with a space only between two words, as in
+	 * {@code NUMBER(9,2)} or {@code DOUBLE PRECISION}.
+	 */
+	public static String joinCompact(List<String> tokens, int from, int to) {
+		StringBuilder buf = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			String t = tokens.get(i);
+			if (i > from && isWord(t) && isWord(tokens.get(i - 1))) {
+				buf.append(' ');
+			}
+			buf.append(t);
+		}
+		return buf.toString();
+	}
+
+	private static boolean isWord(String token) {
+		return ! (token.equals("(") || token.equals(")") || token.equals(","));
+	}
+
+	private int read() throws IOException {
+		int c = in.read();
+		if (c == '\n') {
+			lineNumber++;
+		}
+		return c;
+	}
+
+	private void unread(int c) throws IOException {
+		if (c != -1) {
+			if (c == '\n') {
+				lineNumber--;
+			}
+			in.unread(c);
+		}
+	}
+
+	private void append(int c) {
+		if (isRecording && c != -1) {
+			text.append((char) c);
+		}
+	}
+
+	/**
+	 * Skips white space and comments and returns the next character, or -1
+	 * at the end of the script.
+	 */
+	private int skipWhitespace() throws IOException {
+		for (;;) {
+			int c = read();
+			if (c == '-' || c == '/') {
+				int next = read();
+				if (c == '-' && next == '-') {
+					append(c);
+					append(next);
+					while ((c = read()) != -1 && c != '\n') {
+						append(c);
+					}
+					append(c);
+					continue;
+				} else if (c == '/' && next == '*') {
+					append(c);
+					append(next);
+					int previous = 0;
+					while ((c = read()) != -1 && ! (previous == '*' && c == '/')) {
+						append(c);
+						previous = c;
+					}
+					append(c);
+					continue;
+				}
+				unread(next);
+				return c;
+			} else if (c == -1 || ! Character.isWhitespace(c)) {
+				return c;
+			}
+			append(c);
+		}
+	}
+
+	private String readQuoted(int quote) throws IOException {
+		StringBuilder buf = new StringBuilder();
+		buf.append((char) quote);
+		for (;;) {
+			int c = read();
+			if (c == -1) {
+				throw new IOException("Unterminated " + (char) quote + " in line " + statementLineNumber);
+			}
+			append(c);
+			buf.append((char) c);
+			if (c == quote) {
+				int next = read();
+				if (next != quote) {
+					unread(next);
+					return buf.toString();
+				}
+				append(next);
+				buf.append((char) next);
+			}
+		}
+	}
+
+	private String readWord(int first) throws IOException {
+		StringBuilder buf = new StringBuilder();
+		buf.append((char) first);
+		for (;;) {
+			int c = read();
+			if (c == -1 || Character.isWhitespace(c) ||
+					c == '(' || c == ')' || c == ',' || c == ';' ||
+					c == '\'' || c == '"' || c == '`') {
+				unread(c);
+				return buf.toString();
+			}
+			if (c == '-' || c == '/') {
+				int next = read();
+				unread(next);
+				if ((c == '-' && next == '-') || (c == '/' && next == '*')) {
+					unread(c);
+					return buf.toString();
+				}
+			}
+			append(c);
+			buf.append((char) c);
+		}
+	}
+}
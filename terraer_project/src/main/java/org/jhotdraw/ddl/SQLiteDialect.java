@@ -0,0 +1,46 @@
+package org.jhotdraw.ddl;
+
+import org.jhotdraw.enums.AttributeTypeEnum;
+
+/**
+ * The SQLite dialect.
+ * <p>
+ * SQLite can add, drop and rename columns of an existing table but neither
+ * change their types nor add or drop constraints. The constraints of a
+ * table are therefore declared in its CREATE TABLE statement, and a
+ * migration writes the changes it cannot make as comments, so that the
+ * script still documents the changes of the schema.
+ */
+public class SQLiteDialect extends AbstractSQLDialect {
+
+	public String getName() {
+		return "SQLite";
+	}
+
+	public String getColumnType(AttributeTypeEnum type) {
+		switch (type) {
+			case CHAR :
+			case TEXT :
+				return "TEXT";
+			case INTEGER :
+				return "INTEGER";
+			case NUMBER :
+				return "NUMERIC";
+			case DATE :
+			default :
+				return "DATE";
+		}
+	}
+
+	public String modifyColumn(String table, String column, String type, boolean nullable) {
+		return comment(super.modifyColumn(table, column, type, nullable));
+	}
+
+	public boolean supportsAlterConstraints() {
+		return false;
+	}
+
+	public String createView(String name, String query) {
+		return "DROP VIEW IF EXISTS " + name + ";\nCREATE VIEW " + name + " AS\n" + query + ";";
+	}
+}
@@ -0,0 +1,519 @@
+package org.jhotdraw.ddl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * The relational schema of a SQL script: its tables with their columns and
+ * constraints, its views and its triggers.
+ * <p>
+ * A schema is read from the statements of a script; statements which do not
+ * define any of these objects are ignored. It is the representation on which
+ * two versions of a model are compared, see {@link MigrationGenerator}.
+ * <p>
+ * Names are matched regardless of case, as SQL matches unquoted identifiers.
+ * All maps preserve the order of the script.
+ */
+public class Schema {
+	/** A column of a table. */
+	public static class Column {
+		private String name;
+		private String type;
+		private boolean nullable;
+
+		public Column(String name, String type, boolean nullable) {
+			this.name = name;
+			this.type = type;
+			this.nullable = nullable;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public boolean isNullable() {
+			return nullable;
+		}
+
+		/** Returns the column definition, as used in a CREATE TABLE statement. */
+		public String getDefinition() {
+			return name + (type.length() == 0 ? "" : " " + type) + (nullable ? "" : " NOT NULL");
+		}
+
+		/**
+		 * Returns the structural signature of the column: a hash of its type
+		 * and nullability, which does not depend on its name.
+		 */
+		public int getSignature() {
+			return type.toUpperCase().hashCode() * 31 + (nullable ? 1 : 0);
+		}
+
+		/** Returns true if the column has the same type and nullability. */
+		public boolean isStructurallyEqual(Column that) {
+			return nullable == that.nullable && type.equalsIgnoreCase(that.type);
+		}
+
+		public String toString() {
+			return getDefinition();
+		}
+	}
+
+	/** A table constraint, such as a primary or foreign key. */
+	public static class Constraint {
+		private String name;
+		private String definition;
+		private List<String> columns;
+		private String referencedTable;
+
+		public Constraint(String name, String definition) {
+			this(name, definition, Collections.<String>emptyList(), null);
+		}
+
+		/**
+		 * Creates a constraint on the specified columns, which references
+		 * the specified table if it is a foreign key.
+		 */
+		public Constraint(String name, String definition, List<String> columns, String referencedTable) {
+			this.name = name;
+			this.definition = definition;
+			this.columns = columns;
+			this.referencedTable = referencedTable;
+		}
+
+		/** Returns the name of the constraint, or null if it is unnamed. */
+		public String getName() {
+			return name;
+		}
+
+		/** Returns the definition of the constraint, without its name. */
+		public String getDefinition() {
+			return definition;
+		}
+
+		/**
+		 * Returns the columns of a primary key, foreign key or unique
+		 * constraint.
+		 */
+		public List<String> getColumns() {
+			return Collections.unmodifiableList(columns);
+		}
+
+		/**
+		 * Returns the table referenced by a foreign key, or null if the
+		 * constraint is not a foreign key.
+		 */
+		public String getReferencedTable() {
+			return referencedTable;
+		}
+
+		public boolean isPrimaryKey() {
+			return definition.toUpperCase().startsWith("PRIMARY KEY");
+		}
+
+		public boolean isForeignKey() {
+			return definition.toUpperCase().startsWith("FOREIGN KEY");
+		}
+
+		public String toString() {
+			return (name == null) ? definition : name + " " + definition;
+		}
+	}
+
+	/** A table with its columns and constraints. */
+	public static class Table {
+		private String name;
+		private LinkedHashMap<String, Column> columns = new LinkedHashMap<String, Column>();
+		private LinkedHashMap<String, Constraint> constraints = new LinkedHashMap<String, Constraint>();
+		private int signature;
+		private boolean isSignatureValid;
+
+		public Table(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Collection<Column> getColumns() {
+			return Collections.unmodifiableCollection(columns.values());
+		}
+
+		public Column getColumn(String name) {
+			return columns.get(key(name));
+		}
+
+		public void addColumn(Column column) {
+			columns.put(key(column.getName()), column);
+			isSignatureValid = false;
+		}
+
+		public Collection<Constraint> getConstraints() {
+			return Collections.unmodifiableCollection(constraints.values());
+		}
+
+		/**
+		 * Returns the primary key of the table, or null if it has none.
+		 */
+		public Constraint getPrimaryKey() {
+			for (Constraint c : constraints.values()) {
+				if (c.isPrimaryKey()) {
+					return c;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the constraint with the same name as the specified
+		 * constraint or, if it is unnamed, with the same definition.
+		 */
+		public Constraint getConstraint(Constraint c) {
+			return constraints.get(constraintKey(c));
+		}
+
+		public void addConstraint(Constraint c) {
+			constraints.put(constraintKey(c), c);
+		}
+
+		private static String constraintKey(Constraint c) {
+			return (c.getName() == null) ? c.getDefinition().toUpperCase() : Schema.key(c.getName());
+		}
+
+		/**
+		 * Returns the structural signature of the table: a hash of the names
+		 * and signatures of its columns which does not depend on the name of
+		 * the table nor on the order of the columns. Tables which are equal
+		 * up to their name have the same signature.
+		 */
+		public int getSignature() {
+			if (! isSignatureValid) {
+				int h = 0;
+				for (Map.Entry<String, Column> entry : columns.entrySet()) {
+					h += mix(entry.getKey().hashCode() * 31 + entry.getValue().getSignature());
+				}
+				signature = h;
+				isSignatureValid = true;
+			}
+			return signature;
+		}
+
+		/** Returns true if the tables have the same columns. */
+		public boolean isStructurallyEqual(Table that) {
+			if (getSignature() != that.getSignature() || columns.size() != that.columns.size()) {
+				return false;
+			}
+			for (Map.Entry<String, Column> entry : columns.entrySet()) {
+				Column c = that.columns.get(entry.getKey());
+				if (c == null || ! c.isStructurallyEqual(entry.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the CREATE TABLE statement of the table, including the
+		 * terminating semicolon. The constraints of the table are declared
+		 * in the statement if isWithConstraints is true.
+		 */
+		public String getCreateStatement(boolean isWithConstraints) {
+			StringBuilder buf = new StringBuilder("CREATE TABLE " + name + "(");
+			boolean first = true;
+			for (Column c : columns.values()) {
+				buf.append(first ? "\n\t" : ",\n\t").append(c.getDefinition());
+				first = false;
+			}
+			if (isWithConstraints) {
+				for (Constraint c : constraints.values()) {
+					buf.append(first ? "\n\t" : ",\n\t");
+					if (c.getName() != null) {
+						buf.append("CONSTRAINT ");
+					}
+					buf.append(c);
+					first = false;
+				}
+			}
+			return buf.append("\n);").toString();
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
+	/** A named object which is defined by a single statement. */
+	public static class Definition {
+		private String name;
+		private String statement;
+
+		public Definition(String name, String statement) {
+			this.name = name;
+			this.statement = statement;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/** Returns the defining statement, without the terminating semicolon. */
+		public String getStatement() {
+			return statement;
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
+	private LinkedHashMap<String, Table> tables = new LinkedHashMap<String, Table>();
+	private LinkedHashMap<String, Definition> views = new LinkedHashMap<String, Definition>();
+	private LinkedHashMap<String, Definition> triggers = new LinkedHashMap<String, Definition>();
+
+	/** Creates an empty schema. */
+	public Schema() {
+	}
+
+	/**
+	 * Creates the schema which the DDL script of a model defines in the
+	 * specified dialect.
+	 */
+	public Schema(ERModel model, SQLDialect dialect) {
+		try {
+			read(new StringReader(new DDLGenerator(model, dialect).generate()));
+		} catch (IOException e) {
+			// a StringReader does not throw IOExceptions
+			throw new InternalError(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the key under which an object with the specified name is
+	 * stored.
+	 */
+	static String key(String name) {
+		return name.toUpperCase();
+	}
+
+	/** Mixes the bits of a hash code, so that sums of hash codes spread well. */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+	public Collection<Table> getTables() {
+		return Collections.unmodifiableCollection(tables.values());
+	}
+
+	public Table getTable(String name) {
+		return tables.get(key(name));
+	}
+
+	/**
+	 * Returns the table with the specified name, creating it if the schema
+	 * does not contain it yet.
+	 */
+	public Table createTable(String name) {
+		Table t = tables.get(key(name));
+		if (t == null) {
+			t = new Table(name);
+			tables.put(key(name), t);
+		}
+		return t;
+	}
+
+	public Collection<Definition> getViews() {
+		return Collections.unmodifiableCollection(views.values());
+	}
+
+	public Definition getView(String name) {
+		return views.get(key(name));
+	}
+
+	public Collection<Definition> getTriggers() {
+		return Collections.unmodifiableCollection(triggers.values());
+	}
+
+	public Definition getTrigger(String name) {
+		return triggers.get(key(name));
+	}
+
+	/**
+	 * Reads the statements of a script into the schema.
+	 */
+	public void read(Reader in) throws IOException {
+		SQLStatementReader r = new SQLStatementReader(in);
+		List<String> t;
+		while ((t = r.readStatement()) != null) {
+			read(t, r.getText());
+		}
+	}
+
+	/**
+	 * Reads a statement into the schema.
+	 *
+	 * @param t The tokens of the statement.
+	 * @param text The text of the statement.
+	 */
+	private void read(List<String> t, String text) {
+		if (is(t, 0, "CREATE")) {
+			int i = 1;
+			if (is(t, 1, "OR") && is(t, 2, "REPLACE")) {
+				i = 3;
+			}
+			if (is(t, i, "TABLE") && t.size() > i + 1) {
+				i++;
+				if (is(t, i, "IF") && is(t, i + 1, "NOT") && is(t, i + 2, "EXISTS")) {
+					i += 3;
+				}
+				if (is(t, i + 1, "(")) {
+					Table table = createTable(t.get(i));
+					for (int[] e : split(t, i + 2)) {
+						readElement(table, t, e[0], e[1]);
+					}
+				}
+			} else if (is(t, i, "VIEW") && t.size() > i + 1) {
+				views.put(key(t.get(i + 1)), new Definition(t.get(i + 1), text));
+			} else if (is(t, i, "TRIGGER") && t.size() > i + 1) {
+				triggers.put(key(t.get(i + 1)), new Definition(t.get(i + 1), text));
+			}
+		} else if (is(t, 0, "ALTER") && is(t, 1, "TABLE") && is(t, 3, "ADD") && t.size() > 4) {
+			Table table = createTable(t.get(2));
+			if (is(t, 4, "(")) {
+				for (int[] e : split(t, 5)) {
+					readElement(table, t, e[0], e[1]);
+				}
+			} else if (is(t, 4, "COLUMN")) {
+				readColumn(table, t, 5, t.size());
+			} else {
+				readElement(table, t, 4, t.size());
+			}
+		}
+	}
+
+	/**
+	 * Returns the bounds of the elements of a parenthesized list whose first
+	 * element starts at the specified index.
+	 */
+	private static List<int[]> split(List<String> t, int from) {
+		ArrayList<int[]> elements = new ArrayList<int[]>();
+		int depth = 0;
+		int start = from;
+		for (int i = from; i < t.size(); i++) {
+			String token = t.get(i);
+			if (token.equals("(")) {
+				depth++;
+			} else if (token.equals(")") && depth-- == 0) {
+				if (i > start) {
+					elements.add(new int[] {start, i});
+				}
+				break;
+			} else if (token.equals(",") && depth == 0) {
+				elements.add(new int[] {start, i});
+				start = i + 1;
+			}
+		}
+		return elements;
+	}
+
+	/** Reads a column or constraint definition. */
+	private static void readElement(Table table, List<String> t, int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		if (is(t, from, "CONSTRAINT") && to - from > 2) {
+			table.addConstraint(readConstraint(t.get(from + 1), t, from + 2, to));
+		} else if (is(t, from, "PRIMARY") || is(t, from, "FOREIGN") ||
+				is(t, from, "UNIQUE") || is(t, from, "CHECK")) {
+			table.addConstraint(readConstraint(null, t, from, to));
+		} else {
+			readColumn(table, t, from, to);
+		}
+	}
+
+	/** Reads a column definition. */
+	private static void readColumn(Table table, List<String> t, int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		int typeEnd = from + 1;
+		while (typeEnd < to && ! isColumnConstraint(t.get(typeEnd))) {
+			typeEnd++;
+		}
+		String name = t.get(from);
+		boolean nullable = true;
+		for (int i = typeEnd; i < to; i++) {
+			if (is(t, i, "NOT") && is(t, i + 1, "NULL")) {
+				nullable = false;
+			} else if (is(t, i, "PRIMARY") && is(t, i + 1, "KEY")) {
+				nullable = false;
+				table.addConstraint(new Constraint(null, "PRIMARY KEY (" + name + ")",
+						Collections.singletonList(name), null));
+			} else if (is(t, i, "REFERENCES") && i + 1 < to) {
+				ArrayList<String> referencedColumns = new ArrayList<String>();
+				int end = readColumnList(t, i + 2, referencedColumns);
+				table.addConstraint(new Constraint(null,
+						"FOREIGN KEY (" + name + ") " + SQLStatementReader.join(t, i, Math.min(end, to)),
+						Collections.singletonList(name), t.get(i + 1)));
+			}
+		}
+		table.addColumn(new Column(name, SQLStatementReader.joinCompact(t, from + 1, typeEnd), nullable));
+	}
+
+	/**
+	 * Reads the definition of a table constraint.
+	 *
+	 * @param name The name of the constraint or null.
+	 */
+	private static Constraint readConstraint(String name, List<String> t, int from, int to) {
+		ArrayList<String> columns = new ArrayList<String>();
+		String referencedTable = null;
+		if (is(t, from, "PRIMARY") || is(t, from, "FOREIGN")) {
+			int i = readColumnList(t, from + 2, columns);
+			if (is(t, i, "REFERENCES") && i + 1 < to) {
+				referencedTable = t.get(i + 1);
+			}
+		} else if (is(t, from, "UNIQUE")) {
+			readColumnList(t, from + 1, columns);
+		}
+		return new Constraint(name, SQLStatementReader.join(t, from, to), columns, referencedTable);
+	}
+
+	/**
+	 * Reads a parenthesized list of column names into the specified list,
+	 * if the token at the specified index opens one, and returns the index
+	 * of the token after the list.
+	 */
+	private static int readColumnList(List<String> t, int from, List<String> columns) {
+		if (! is(t, from, "(")) {
+			return from;
+		}
+		int i = from + 1;
+		for (; i < t.size() && ! t.get(i).equals(")"); i++) {
+			if (! t.get(i).equals(",")) {
+				columns.add(t.get(i));
+			}
+		}
+		return i + 1;
+	}
+
+	private static boolean isColumnConstraint(String token) {
+		String s = token.toUpperCase();
+		return s.equals("NOT") || s.equals("NULL") || s.equals("DEFAULT") ||
+				s.equals("PRIMARY") || s.equals("REFERENCES") || s.equals("UNIQUE") ||
+				s.equals("CHECK") || s.equals("CONSTRAINT") || s.equals("COLLATE");
+	}
+
+	private static boolean is(List<String> t, int i, String keyword) {
+		return i < t.size() && t.get(i).equalsIgnoreCase(keyword);
+	}
+}
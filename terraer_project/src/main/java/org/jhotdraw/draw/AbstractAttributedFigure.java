@@ -14,10 +14,13 @@
 
 package org.jhotdraw.draw;
 
+import static org.jhotdraw.draw.AttributeKeys.FONT_SIZE;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_CAP;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_COLOR;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_INNER_WIDTH_FACTOR;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_JOIN;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_MITER_LIMIT;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_TYPE;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_WIDTH;
 import static org.jhotdraw.draw.AttributeKeys.TEXT_COLOR;
 import static org.jhotdraw.draw.AttributeKeys.TEXT_SHADOW_COLOR;
@@ -116,17 +119,22 @@ public abstract class AbstractAttributedFigure extends AbstractFigure {
     
     
     public void draw(Graphics2D g) {
+        if (isSimplified(g)) {
+            drawSimplified(g);
+            return;
+        }
         if (AttributeKeys.FILL_COLOR.get(this) != null) {
             g.setColor(AttributeKeys.FILL_COLOR.get(this));
             drawFill(g);
         }
         if (STROKE_COLOR.get(this) != null && STROKE_WIDTH.get(this) > 0d) {
-            g.setStroke(AttributeKeys.getStroke(this));
+            g.setStroke(getStroke(g));
             g.setColor(STROKE_COLOR.get(this));
             
             drawStroke(g);
         }
-        if (TEXT_COLOR.get(this) != null) {
+        if (TEXT_COLOR.get(this) != null &&
+                ! LevelOfDetail.isTextOmitted(g, FONT_SIZE.get(this))) {
             if (TEXT_SHADOW_COLOR.get(this) != null &&
                     TEXT_SHADOW_OFFSET.get(this) != null) {
                 Dimension2DDouble d = TEXT_SHADOW_OFFSET.get(this);
@@ -140,10 +148,52 @@ public abstract class AbstractAttributedFigure extends AbstractFigure {
         }
     }
     
+    /**
+     * Returns true if the figure is too small in the specified graphics to
+     * see its details, see {@link LevelOfDetail}.
+     */
+    protected boolean isSimplified(Graphics2D g) {
+        return LevelOfDetail.isShapeSimplified(g, getBounds());
+    }
+    
+    /**
+     * Draws the figure when it is too small to see its details. This
+     * implementation fills the bounds of the figure with its fill color and
+     * outlines them with a hairline in its stroke color.
+     */
+    protected void drawSimplified(Graphics2D g) {
+        Rectangle2D.Double r = getBounds();
+        if (AttributeKeys.FILL_COLOR.get(this) != null) {
+            g.setColor(AttributeKeys.FILL_COLOR.get(this));
+            g.fill(r);
+        }
+        if (STROKE_COLOR.get(this) != null && STROKE_WIDTH.get(this) > 0d) {
+            g.setStroke(LevelOfDetail.HAIRLINE);
+            g.setColor(STROKE_COLOR.get(this));
+            g.draw(r);
+        }
+    }
+    
     public Stroke getStroke() {
         return AttributeKeys.getStroke(this);
     }
     
+    /**
+     * Returns the stroke for drawing into the specified graphics. A double
+     * stroke whose lines would merge is replaced by a single line of the
+     * same total width, see {@link LevelOfDetail}.
+     */
+    @SuppressWarnings("deprecation") // the double stroke attributes have no replacement
+    protected Stroke getStroke(Graphics2D g) {
+        if (STROKE_TYPE.get(this) == AttributeKeys.StrokeType.DOUBLE &&
+                LevelOfDetail.isDoubleStrokeSimplified(g, STROKE_INNER_WIDTH_FACTOR.get(this) * STROKE_WIDTH.get(this))) {
+            return new BasicStroke((float) AttributeKeys.getStrokeTotalWidth(this),
+                    STROKE_CAP.get(this), STROKE_JOIN.get(this),
+                    (float) AttributeKeys.getStrokeTotalMiterLimit(this));
+        }
+        return AttributeKeys.getStroke(this);
+    }
+    
     public double getStrokeMiterLimitFactor() {
         Number value = (Number) getAttribute(AttributeKeys.STROKE_MITER_LIMIT);
         return (value != null) ? value.doubleValue() : 10f;
@@ -151,6 +201,17 @@ public abstract class AbstractAttributedFigure extends AbstractFigure {
     
     
     public Rectangle2D.Double getDrawingArea() {
+        double width = getDrawingAreaGrowth();
+        Rectangle2D.Double r = getBounds();
+        Geom.grow(r, width, width);
+        return r;
+    }
+    
+    /**
+     * Returns by how much the drawing area extends beyond the bounds of the
+     * figure, to make room for the stroke.
+     */
+    protected double getDrawingAreaGrowth() {
         double strokeTotalWidth = AttributeKeys.getStrokeTotalWidth(this);
         double width = strokeTotalWidth / 2d;
         if (STROKE_JOIN.get(this) == BasicStroke.JOIN_MITER) {
@@ -159,9 +220,7 @@ public abstract class AbstractAttributedFigure extends AbstractFigure {
             width += strokeTotalWidth * 2;
         }
         width++;
-        Rectangle2D.Double r = getBounds();
-        Geom.grow(r, width, width);
-        return r;
+        return width;
     }
     
     /**
@@ -480,7 +480,14 @@ public abstract class AbstractCompositeFigure
     }
     public void draw(Graphics2D g) {
         Rectangle2D clipBounds = g.getClipBounds();
-        if (clipBounds != null) {
+        if (LevelOfDetail.isShapeSimplified(g, getBounds())) {
+            // Too small to see the text and to be worth clipping
+            for (Figure child : children) {
+                if (child.isVisible() && ! (child instanceof TextHolderFigure)) {
+                    child.draw(g);
+                }
+            }
+        } else if (clipBounds != null) {
             for (Figure child : children) {
                 if (child.isVisible() && child.getDrawingArea().intersects(clipBounds)) {
                     child.draw(g);
@@ -227,12 +227,7 @@ public abstract class AbstractConnectionHandle extends AbstractHandle {
     }
     
     private Figure findConnectableFigure(Point2D.Double p, Drawing drawing) {
-        for (Figure f : drawing.getFiguresFrontToBack()) {
-            if (! f.includes(getOwner()) && f.canConnect() && f.contains(p)) {
-                return f;
-            }
-        }
-        return null;
+        return drawing.findConnectableFigure(p, 0, getOwner());
     }
     
     protected void setPotentialTarget(Connector newTarget) {
@@ -16,6 +16,7 @@
 package org.jhotdraw.draw;
 
 import java.awt.font.FontRenderContext;
+import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -29,6 +30,7 @@ import javax.swing.event.UndoableEditListener;
 import javax.swing.undo.UndoableEdit;
 
 import org.jhotdraw.beans.AbstractBean;
+import org.jhotdraw.geom.Geom;
 import org.jhotdraw.samples.draw.DrawFigureFactory;
 import org.jhotdraw.undo.CompositeEdit;
 import org.jhotdraw.xml.DOMInput;
@@ -53,6 +55,8 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     private FontRenderContext fontRenderContext;
     private java.util.List<InputFormat> inputFormats = new java.util.LinkedList<InputFormat>();
     private java.util.List<OutputFormat> outputFormats = new java.util.LinkedList<OutputFormat>();
+    private GenSpecHierarchy genSpecHierarchy = new GenSpecHierarchy();
+    private NameRegistry nameRegistry = new NameRegistry();
     
     /** Creates a new instance. */
     public AbstractDrawing() {
@@ -66,7 +70,24 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
         outputFormats.add(ioFormat);
         outputFormats.add(new ImageOutputFormat("JPG","Joint Photographics Experts Group (JPEG)", "jpg", BufferedImage.TYPE_INT_RGB));
         outputFormats.add(new ImageOutputFormat("GIF","Graphics Interchange Format (GIF)", "gif", BufferedImage.TYPE_INT_ARGB));
-        
+        addDrawingListener(nameRegistry);
+    }
+    
+    /**
+     * Returns the generalization hierarchy of the figures of this drawing.
+     * The generalization connections keep it up to date when they are
+     * connected and disconnected.
+     */
+    public GenSpecHierarchy getGenSpecHierarchy() {
+        return genSpecHierarchy;
+    }
+    
+    /**
+     * Returns the registry of the SQL identifiers of the figures of this
+     * drawing.
+     */
+    public NameRegistry getNameRegistry() {
+        return nameRegistry;
     }
     
     public void addDrawingListener(DrawingListener listener) {
@@ -85,9 +106,34 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     public final void addAll(Collection<Figure> figures) {
         addAll(getFigureCount(), figures);
     }
+    /**
+     * Adds the figures in bulk. Listeners receive a figureAdded event for
+     * each figure, but only a single areaInvalidated event for all of them,
+     * and the object inspector is updated once.
+     * <p>
+     * The figures are notified before they are added, so that connections
+     * update their end points before the drawing indexes their bounds.
+     */
     public final void addAll(int index, Collection<Figure> figures) {
         for (Figure f : figures) {
-            add(index++, f);
+            f.addNotify(this);
+        }
+        basicAddAll(index, figures);
+        Rectangle2D.Double invalidatedArea = null;
+        for (Figure f : figures) {
+            fireFigureAdded(f, index++);
+            if (invalidatedArea == null) {
+                invalidatedArea = f.getDrawingArea();
+            } else {
+                invalidatedArea.add(f.getDrawingArea());
+            }
+        }
+        if (invalidatedArea != null) {
+            fireAreaInvalidated(invalidatedArea);
+        }
+        TerraFigureTree inspector = TerraFigureTree.getInspector();
+        if (inspector != null) {
+            inspector.addAll(figures);
         }
     }
     
@@ -106,6 +152,26 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
         return getFigures().size();
     }
     
+    public Figure findConnectableFigure(Point2D.Double p, double snapRadius, Figure ignore) {
+        Figure nearest = null;
+        double nearestDistance = snapRadius;
+        for (Figure f : getFiguresFrontToBack()) {
+            if (f.isVisible() && f.canConnect() && ! f.includes(ignore)) {
+                if (f.contains(p)) {
+                    return f;
+                }
+                if (snapRadius > 0) {
+                    double distance = Geom.distance(f.getDrawingArea(), p);
+                    if (distance <= nearestDistance && (nearest == null || distance < nearestDistance)) {
+                        nearest = f;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+    
     public void removeAll(Collection<Figure> toBeRemoved) {
         CompositeEdit edit = new CompositeEdit("Figuren entfernen");
         for (Figure f : new ArrayList<Figure>(toBeRemoved)) {
@@ -137,7 +203,10 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
         figure.addNotify(this);
         fireFigureAdded(figure, index);
         fireAreaInvalidated(figure.getDrawingArea());
-        TerraFigureTree.getInstance().add(figure);
+        TerraFigureTree inspector = TerraFigureTree.getInspector();
+        if (inspector != null) {
+            inspector.add(figure);
+        }
     }
     
     
@@ -157,7 +226,10 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
             basicRemove(figure);
             figure.removeNotify(this);
             fireFigureRemoved(figure, index);
-            TerraFigureTree.getInstance().remove(figure);
+            TerraFigureTree inspector = TerraFigureTree.getInspector();
+            if (inspector != null) {
+                inspector.remove(figure);
+            }
         } else {
             fireAreaInvalidated(figure.getDrawingArea());
         }
@@ -167,6 +239,14 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
      * notification on this event type.
      */
     protected void fireAreaInvalidated(Rectangle2D.Double dirtyRegion) {
+        fireAreaInvalidated(null, dirtyRegion);
+    }
+    /**
+     *  Notify all listenerList that have registered interest for
+     * notification on this event type. The event carries the figure whose
+     * area has been invalidated.
+     */
+    protected void fireAreaInvalidated(Figure figure, Rectangle2D.Double dirtyRegion) {
         DrawingEvent event = null;
         // Notify all listeners that have registered interest for
         // Guaranteed to return a non-null array
@@ -177,7 +257,7 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
             if (listeners[i] == DrawingListener.class) {
                 // Lazily create the event:
                 if (event == null)
-                    event = new DrawingEvent(this, null, dirtyRegion);
+                    event = new DrawingEvent(this, figure, dirtyRegion);
                 ((DrawingListener)listeners[i+1]).areaInvalidated(event);
             }
         }
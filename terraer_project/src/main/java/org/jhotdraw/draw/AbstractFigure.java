@@ -24,6 +24,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 
@@ -51,6 +52,8 @@ public abstract class AbstractFigure
         implements Figure {
     protected EventListenerList listenerList = new EventListenerList();
     private Drawing drawing;
+    /** The connections attached to this figure. Created on demand. */
+    private transient LinkedHashSet<ConnectionFigure> connections;
     private boolean isInteractive;
     private boolean isVisible = true;
     /**
@@ -295,6 +298,7 @@ public abstract class AbstractFigure
         try {
             AbstractFigure that = (AbstractFigure) super.clone();
             that.listenerList = new EventListenerList();
+            that.connections = null;
             that.drawing = null; // Clones need to be explictly added to a drawing
             return that;
         } catch (CloneNotSupportedException e) {
@@ -516,4 +520,24 @@ public abstract class AbstractFigure
         connectors.add(new ChopRectangleConnector(this));
         return connectors;
     }
+    
+    public Collection<ConnectionFigure> getConnections() {
+        if (connections == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(connections);
+    }
+    
+    public void addConnection(ConnectionFigure connection) {
+        if (connections == null) {
+            connections = new LinkedHashSet<ConnectionFigure>();
+        }
+        connections.add(connection);
+    }
+    
+    public void removeConnection(ConnectionFigure connection) {
+        if (connections != null) {
+            connections.remove(connection);
+        }
+    }
 }
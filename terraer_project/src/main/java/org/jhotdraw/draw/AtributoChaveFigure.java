@@ -91,7 +91,8 @@ public class AtributoChaveFigure extends GroupFigure implements AttributeTypeEle
 	}
 
 	public String toString() {
-		return tf.getText().replaceAll("\\s+", "_");
+		NameRegistry registry = NameRegistry.getInstance(getDrawing());
+		return (registry == null) ? NameRegistry.toIdentifier(tf.getText()) : registry.getIdentifier(this);
 	}
 
 	public void read(DOMInput in) throws IOException {
@@ -90,7 +90,8 @@ public class AtributoChaveParcialFigure extends GroupFigure implements Attribute
     }
 	
 	public String toString(){
-		return tf.getText().replaceAll("\\s+", "_");
+		NameRegistry registry = NameRegistry.getInstance(getDrawing());
+		return (registry == null) ? NameRegistry.toIdentifier(tf.getText()) : registry.getIdentifier(this);
 	}
 	
 	 public void read(DOMInput in) throws IOException {
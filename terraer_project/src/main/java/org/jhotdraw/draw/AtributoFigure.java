@@ -69,6 +69,10 @@ public class AtributoFigure extends GroupFigure implements AttributeTypeElement
     	});
     	return this;
 	}
+
+	public TextFigure getTextFigure() {
+		return tf;
+	}
     
     @Override
 	public String getToolTipText(Double p) {
@@ -87,7 +91,8 @@ public class AtributoFigure extends GroupFigure implements AttributeTypeElement
     }
 	
 	public String toString(){
-		return tf.getText().replaceAll("\\s+", "_") + ( this.attributeType != null ? " " + this.getAttributeType() : "");
+		NameRegistry registry = NameRegistry.getInstance(getDrawing());
+		return ((registry == null) ? NameRegistry.toIdentifier(tf.getText()) : registry.getIdentifier(this)) + ( this.attributeType != null ? " " + this.getAttributeType() : "");
 	}
 	
     public void read(DOMInput in) throws IOException {
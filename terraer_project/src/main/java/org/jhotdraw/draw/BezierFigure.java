@@ -19,7 +19,9 @@ import static org.jhotdraw.draw.AttributeKeys.END_DECORATION;
 import static org.jhotdraw.draw.AttributeKeys.FILL_COLOR;
 import static org.jhotdraw.draw.AttributeKeys.FILL_OPEN_PATH;
 import static org.jhotdraw.draw.AttributeKeys.START_DECORATION;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_COLOR;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_MITER_LIMIT;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_WIDTH;
 import static org.jhotdraw.draw.AttributeKeys.WINDING_RULE;
 
 import java.awt.Graphics2D;
@@ -136,7 +138,8 @@ public class BezierFigure extends AbstractAttributedFigure {
     
     protected void drawCaps(Graphics2D g) {
         if (getNodeCount() > 1) {
-            if (START_DECORATION.get(this) != null) {
+            if (START_DECORATION.get(this) != null &&
+                    ! LevelOfDetail.isDecorationOmitted(g, START_DECORATION.get(this).getDecorationRadius(this))) {
                 BezierPath cp = getCappedPath();
                 Point2D.Double p1 = path.get(0,0);
                 Point2D.Double p2 = cp.get(0,0);
@@ -145,7 +148,8 @@ public class BezierFigure extends AbstractAttributedFigure {
                 }
                 START_DECORATION.get(this).draw(g, this, p1, p2);
             }
-            if (END_DECORATION.get(this) != null) {
+            if (END_DECORATION.get(this) != null &&
+                    ! LevelOfDetail.isDecorationOmitted(g, END_DECORATION.get(this).getDecorationRadius(this))) {
                 BezierPath cp = getCappedPath();
                 Point2D.Double p1 = path.get(path.size()-1,0);
                 Point2D.Double p2 = cp.get(path.size()-1,0);
@@ -157,6 +161,21 @@ public class BezierFigure extends AbstractAttributedFigure {
         }
     }
     
+    /**
+     * Draws the path with a hairline, without decorations.
+     */
+    protected void drawSimplified(Graphics2D g) {
+        if (FILL_COLOR.get(this) != null && (isClosed() || FILL_OPEN_PATH.get(this))) {
+            g.setColor(FILL_COLOR.get(this));
+            g.fill(path);
+        }
+        if (STROKE_COLOR.get(this) != null && STROKE_WIDTH.get(this) > 0d) {
+            g.setStroke(LevelOfDetail.HAIRLINE);
+            g.setColor(STROKE_COLOR.get(this));
+            g.draw(path);
+        }
+    }
+    
     protected void drawFill(Graphics2D g) {
         if (isClosed() || FILL_OPEN_PATH.get(this)) {
             double grow = AttributeKeys.getPerpendicularFillGrowth(this);
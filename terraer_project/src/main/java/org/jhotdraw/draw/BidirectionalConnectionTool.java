@@ -18,9 +18,11 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.Map;
 
 import org.jhotdraw.undo.CompositeEdit;
+import org.jhotdraw.util.ReversedList;
 /**
  * A tool that can be used to connect figures, to split
  * connections, and to join two segments of a connection.
@@ -37,6 +39,11 @@ import org.jhotdraw.undo.CompositeEdit;
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public class BidirectionalConnectionTool extends AbstractTool implements FigureListener {
+    /**
+     * The distance in pixels within which the tool snaps to the nearest
+     * figure which can be connected.
+     */
+    private final static int SNAP_RADIUS = 8;
     private Map<AttributeKey, Object> attributes;
     /**
      * the anchor point of the interaction
@@ -216,7 +223,9 @@ public class BidirectionalConnectionTool extends AbstractTool implements FigureL
      * Finds an existing connection figure.
      */
     protected ConnectionFigure findConnection(Point2D.Double p, Drawing drawing) {
-        for (Figure f : drawing.getFiguresFrontToBack()) {
+        // Only the figures whose drawing area is at the point can contain it
+        java.util.List<Figure> candidates = drawing.findFigures(new Rectangle2D.Double(p.x - 1, p.y - 1, 2, 2));
+        for (Figure f : new ReversedList<Figure>(candidates)) {
             Figure fInside = f.findFigureInside(p);
             if (fInside != null && (fInside instanceof ConnectionFigure)) {
                 return (ConnectionFigure) fInside;
@@ -282,7 +291,14 @@ public class BidirectionalConnectionTool extends AbstractTool implements FigureL
     }
     
     private Figure findConnectableFigure(Point2D.Double p, Drawing drawing) {
-        return drawing.findFigureExcept(p, createdFigure);
+        return drawing.findConnectableFigure(p, getSnapRadius(), createdFigure);
+    }
+    
+    /**
+     * Returns the snap radius in drawing coordinates.
+     */
+    protected double getSnapRadius() {
+        return SNAP_RADIUS / getView().getScaleFactor();
     }
     
     private void setStartConnector(Connector newStartConnector) {
@@ -62,6 +62,11 @@ import org.jhotdraw.util.ResourceBundleUtil;
  */
 public class ConnectionTool extends AbstractTool {
     private final static int ANCHOR_WIDTH = 6;
+    /**
+     * The distance in pixels within which the tool snaps to the nearest
+     * figure which can be connected.
+     */
+    private final static int SNAP_RADIUS = 8;
     
     /**
      * Attributes to be applied to the created ConnectionFigure.
@@ -152,8 +157,7 @@ public class ConnectionTool extends AbstractTool {
     public void repaintConnectors(MouseEvent evt) {
         Rectangle2D.Double invalidArea = null;
         Point2D.Double targetPoint = viewToDrawing(new Point(evt.getX(), evt.getY()));
-        Figure aFigure = getDrawing().findFigureExcept(targetPoint, createdFigure);
-        if (aFigure != null && ! aFigure.canConnect()) aFigure = null;
+        Figure aFigure = getDrawing().findConnectableFigure(targetPoint, getSnapRadius(), createdFigure);
         if (targetFigure != aFigure) {
             for (Connector c : connectors) {
                 if (invalidArea == null) {
@@ -181,6 +185,13 @@ public class ConnectionTool extends AbstractTool {
         }
     }
     
+    /**
+     * Returns the snap radius in drawing coordinates.
+     */
+    protected double getSnapRadius() {
+        return SNAP_RADIUS / getView().getScaleFactor();
+    }
+    
     /**
      * Manipulates connections in a context dependent way. If the
      * mouse down hits a figure start a new connection. If the mousedown
@@ -223,7 +234,7 @@ public class ConnectionTool extends AbstractTool {
             Point2D.Double endPoint = viewToDrawing(new Point(e.getX(), e.getY()));
             getView().getConstrainer().constrainPoint(endPoint);
             
-            Figure endFigure = getDrawing().findFigureExcept(endPoint, createdFigure);
+            Figure endFigure = getDrawing().findConnectableFigure(endPoint, getSnapRadius(), createdFigure);
             endConnector = (endFigure == null) ?
                 null :
                 endFigure.findConnector(endPoint, prototype);
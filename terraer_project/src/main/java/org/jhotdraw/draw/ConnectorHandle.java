@@ -201,15 +201,7 @@ public class ConnectorHandle extends AbstractHandle {
         connectableFigure = newTargetFigure;
     }
     private Figure findConnectableFigure(Point2D.Double p, Drawing drawing) {
-        for (Figure figure : drawing.getFiguresFrontToBack()) {
-            if (!figure.includes(getConnection()) &&
-                    figure.canConnect() &&
-                    figure.contains(p)) {
-                return figure;
-            }
-            
-        }
-        return null;
+        return drawing.findConnectableFigure(p, 0, getConnection());
     }
     
     /**
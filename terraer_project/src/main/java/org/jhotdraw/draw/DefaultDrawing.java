@@ -277,11 +277,11 @@ public class DefaultDrawing
         }
         
         @Override public void figureAreaInvalidated(FigureEvent e) {
-            fireAreaInvalidated(e.getInvalidatedArea());
+            fireAreaInvalidated(e.getFigure(), e.getInvalidatedArea());
         }
         @Override public void figureChanged(FigureEvent e) {
             invalidateSortOrder();
-            fireAreaInvalidated(e.getInvalidatedArea());
+            fireAreaInvalidated(e.getFigure(), e.getInvalidatedArea());
         }
         
         @Override public void figureRequestRemove(FigureEvent e) {
@@ -22,28 +22,35 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 
 import org.jhotdraw.app.EditableComponent;
+import org.jhotdraw.geom.AABBTree;
 import org.jhotdraw.geom.Dimension2DDouble;
 import org.jhotdraw.util.ResourceBundleUtil;
 import org.jhotdraw.util.ReversedList;
@@ -98,8 +105,72 @@ public class DefaultDrawingView
         @Override public void figureHandlesChanged(FigureEvent e) {
             invalidateHandles();
         }
+        @Override public void figureChanged(FigureEvent e) {
+            // Create the handles of a figure which has moved into the area
+            if (handlesAreValid && handleRect != null &&
+                    ! handleOwners.contains(e.getFigure()) &&
+                    handleRect.intersects(drawingToView(e.getFigure().getDrawingArea()))) {
+                invalidateHandles();
+            }
+        }
     };
+    /**
+     * The selection handles are only created for the selected figures in
+     * this area of the view. It is larger than the visible area, so that
+     * the handles need not be created again on each scroll step. The area
+     * is null, when the selection is outlined by a single handle.
+     */
+    private Rectangle handleRect;
+    /** The selected figures which have handles. */
+    private Set<Figure> handleOwners = new HashSet<Figure>();
+    /**
+     * Index of the selection handles for findHandle. Created on demand, and
+     * updated when a handle moves.
+     */
+    private AABBTree<Handle> handleIndex;
+    private HashMap<Handle,Integer> handleOrder = new HashMap<Handle,Integer>();
+    /**
+     * A selection with more figures than this is outlined by a single
+     * handle.
+     */
+    private final static int OUTLINE_SELECTION_THRESHOLD = 1000;
     private Rectangle2D.Double cachedDrawingArea;
+    /** The rendered background, grid and drawing. */
+    private TileCache tileCache = new TileCache();
+    private boolean isTileCacheEnabled = true;
+    /**
+     * The view renders with speed hints while the user drags or zooms, and
+     * once more with quality hints when the idle timer fires.
+     */
+    private boolean isDraftQuality;
+    /**
+     * True if the view has painted in draft quality without the tile
+     * cache, which does not know which areas have to be painted again.
+     */
+    private boolean isDraftPainted;
+    private Timer idleTimer;
+    private final static int IDLE_DELAY = 250;
+    /**
+     * The figures which the user is moving, and the connections attached to
+     * them. While they move, the other figures are drawn from a snapshot of
+     * the visible area.
+     */
+    private Set<Figure> dynamicFigures;
+    private List<Figure> dynamicFigureList;
+    private BufferedImage staticImage;
+    private Rectangle staticRect;
+    /**
+     * The areas which have changed since the last event dispatch cycle.
+     * They are repainted together, when the events of the cycle have been
+     * processed.
+     */
+    private DirtyRegion dirtyRegion = new DirtyRegion();
+    private boolean isRepaintPending;
+    private Runnable dirtyRegionPainter = new Runnable() {
+        public void run() {
+            paintDirtyRegion();
+        }
+    };
     
     /** Creates new instance. */
     public DefaultDrawingView() {
@@ -115,6 +186,23 @@ public class DefaultDrawingView
             }
         });
         setTransferHandler(new DefaultDrawingViewTransferHandler());
+        idleTimer = new Timer(IDLE_DELAY, new ActionListener() {
+            public void actionPerformed(ActionEvent evt) {
+                // Replace what has been rendered in draft quality
+                isDraftQuality = false;
+                if (isDraftPainted) {
+                    isDraftPainted = false;
+                    tileCache.invalidateDraftTiles();
+                    staticImage = null;
+                    repaint();
+                } else {
+                    for (Rectangle r : tileCache.invalidateDraftTiles()) {
+                        addDirtyArea(r);
+                    }
+                }
+            }
+        });
+        idleTimer.setRepeats(false);
     }
     
     /** This method is called from within the constructor to
@@ -164,13 +252,52 @@ public class DefaultDrawingView
     /**
      * Paints the drawing view.
      * Uses rendering hints for fast painting. Paints the background, the
-     * grid, the drawing, the handles and the current tool.
+     * grid, the drawing, the handles and the current tool. The background,
+     * the grid and the drawing are copied from the tile cache, unless the
+     * cache is disabled or the graphics is scaled.
      */
     public void paintComponent(Graphics gr) {
         
         Graphics2D g = (Graphics2D) gr;
         
-        // Set rendering hints for speed
+        setRenderingHints(g);
+        
+        if (dynamicFigures != null &&
+                (g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+            isDraftPainted |= isDraftQuality;
+            drawLayers(g);
+        } else if (isTileCacheEnabled &&
+                (g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0 &&
+                drawing != null &&
+                (drawing.getFigureCount() != 0 || emptyDrawingLabel == null)) {
+            drawTiles(g);
+        } else {
+            isDraftPainted |= isDraftQuality;
+            drawBackground(g);
+            drawGrid(g);
+            drawDrawing(g);
+        }
+        
+        drawHandles(g);
+        drawTool(g);
+    }
+    
+    /**
+     * Sets the rendering hints for fast painting. While the user drags or
+     * zooms, antialiasing is turned off. The hints which affect the font
+     * render context are kept, so that the text layouts stay the same.
+     */
+    protected void setRenderingHints(Graphics2D g) {
+        if (isDraftQuality) {
+            g.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_DEFAULT);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            return;
+        }
         g.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
@@ -179,13 +306,178 @@ public class DefaultDrawingView
         g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
         g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
         g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, (Options.isTextAntialiased()) ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+    }
+    
+    /**
+     * Paints the background, the grid and the drawing from the tile cache,
+     * and renders the tiles in the clip which are not in the cache.
+     */
+    protected void drawTiles(Graphics2D g) {
+        tileCache.validate(scaleFactor, translate.x, translate.y, getWidth(), getHeight());
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int size = TileCache.TILE_SIZE;
+        int col1 = TileCache.floorDiv(clip.x);
+        int col2 = TileCache.floorDiv(clip.x + clip.width - 1);
+        int row1 = TileCache.floorDiv(clip.y);
+        int row2 = TileCache.floorDiv(clip.y + clip.height - 1);
+        int columns = col2 - col1 + 1;
+        BufferedImage[] images = new BufferedImage[columns * (row2 - row1 + 1)];
+        ArrayList<Point> missing = new ArrayList<Point>();
+        for (int row = row1; row <= row2; row++) {
+            for (int col = col1; col <= col2; col++) {
+                BufferedImage image = tileCache.get(col, row);
+                if (image == null) {
+                    missing.add(new Point(col, row));
+                } else {
+                    images[(row - row1) * columns + col - col1] = image;
+                }
+            }
+        }
+        
+        // Render all missing tiles before putting them into the cache, so
+        // that no tile of this paint is dropped and reused while rendering
+        if (! missing.isEmpty()) {
+            BufferedImage[] rendered = new BufferedImage[missing.size()];
+            for (int i = 0; i < rendered.length; i++) {
+                rendered[i] = renderTile(missing.get(i).x, missing.get(i).y);
+            }
+            for (int i = 0; i < rendered.length; i++) {
+                Point tile = missing.get(i);
+                tileCache.put(tile.x, tile.y, rendered[i], isDraftQuality);
+                images[(tile.y - row1) * columns + tile.x - col1] = rendered[i];
+            }
+        }
         
+        for (int row = row1; row <= row2; row++) {
+            for (int col = col1; col <= col2; col++) {
+                g.drawImage(images[(row - row1) * columns + col - col1], col * size, row * size, null);
+            }
+        }
+    }
+    
+    /**
+     * Renders the background, the grid and the drawing under a tile.
+     */
+    protected BufferedImage renderTile(int col, int row) {
+        int size = TileCache.TILE_SIZE;
+        BufferedImage image = tileCache.createImage();
+        Graphics2D g = image.createGraphics();
+        setRenderingHints(g);
+        g.translate(-col * size, -row * size);
+        g.clipRect(col * size, row * size, size, size);
         drawBackground(g);
         drawGrid(g);
         drawDrawing(g);
+        g.dispose();
+        return image;
+    }
+    
+    /**
+     * Paints the snapshot of the static figures, and draws the dynamic
+     * figures over it. The snapshot is rendered again when it does not
+     * cover the visible area or when a static figure has changed.
+     */
+    protected void drawLayers(Graphics2D g) {
+        Rectangle vr = getVisibleRect();
+        if (staticImage == null || ! staticRect.contains(vr)) {
+            staticImage = null;
+            staticRect = vr;
+            if (vr.isEmpty()) {
+                return;
+            }
+            staticImage = new BufferedImage(vr.width, vr.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D sg = staticImage.createGraphics();
+            setRenderingHints(sg);
+            sg.translate(-vr.x, -vr.y);
+            sg.setClip(vr);
+            drawBackground(sg);
+            drawGrid(sg);
+            transformToDrawing(sg);
+            if (! isDraftQuality) {
+                drawing.setFontRenderContext(sg.getFontRenderContext());
+            }
+            // The drawing finds the figures in the visible area with its
+            // index, in z-order from back to front
+            for (Figure f : drawing.findFigures(viewToDrawing(vr))) {
+                if (! dynamicFigures.contains(f) && f.isVisible()) {
+                    f.draw(sg);
+                }
+            }
+            sg.dispose();
+        }
+        g.drawImage(staticImage, staticRect.x, staticRect.y, this);
         
-        drawHandles(g);
-        drawTool(g);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = vr;
+        }
+        Graphics2D dg = (Graphics2D) g.create();
+        transformToDrawing(dg);
+        for (Figure f : dynamicFigureList) {
+            if (f.isVisible() &&
+                    drawingToView(f.getDrawingArea()).intersects(clip)) {
+                f.draw(dg);
+            }
+        }
+        dg.dispose();
+    }
+    
+    /**
+     * Transforms a graphics from view coordinates to drawing coordinates.
+     */
+    private void transformToDrawing(Graphics2D g) {
+        AffineTransform tx = g.getTransform();
+        tx.translate(-translate.x * scaleFactor, -translate.y * scaleFactor);
+        tx.scale(scaleFactor, scaleFactor);
+        g.setTransform(tx);
+    }
+    
+    /**
+     * Drops the cached tiles under an area of the drawing.
+     */
+    protected void invalidateTiles(Rectangle2D.Double r) {
+        Rectangle vr = drawingToView(r);
+        vr.grow(2, 2);
+        tileCache.invalidate(vr);
+    }
+    
+    /**
+     * Enables or disables the tile cache. When it is disabled, the view
+     * renders the drawing on each repaint.
+     */
+    public void setTileCacheEnabled(boolean newValue) {
+        isTileCacheEnabled = newValue;
+        tileCache.invalidate();
+        repaint();
+    }
+    
+    public boolean isTileCacheEnabled() {
+        return isTileCacheEnabled;
+    }
+    
+    /**
+     * Returns the dirty region, for example to read its counts of coalesced
+     * and issued repaints.
+     */
+    public DirtyRegion getDirtyRegion() {
+        return dirtyRegion;
+    }
+    
+    /**
+     * Returns the tile cache, for example to read its hit and render counts.
+     */
+    public TileCache getTileCache() {
+        return tileCache;
+    }
+    
+    public void setBackground(Color newValue) {
+        super.setBackground(newValue);
+        if (tileCache != null) {
+            tileCache.invalidate();
+        }
     }
     /**
      * Prints the drawing view.
@@ -275,12 +567,11 @@ public class DefaultDrawingView
                 emptyDrawingLabel.paint(gr);
             } else {
                 Graphics2D g = (Graphics2D) gr.create();
-                AffineTransform tx = g.getTransform();
-                tx.translate(-translate.x * scaleFactor, -translate.y * scaleFactor);
-                tx.scale(scaleFactor, scaleFactor);
-                g.setTransform(tx);
+                transformToDrawing(g);
                 
-                drawing.setFontRenderContext(g.getFontRenderContext());
+                if (! isDraftQuality) {
+                    drawing.setFontRenderContext(g.getFontRenderContext());
+                }
                 drawing.draw(g);
                 
                 g.dispose();
@@ -307,6 +598,7 @@ public class DefaultDrawingView
     }
     
     public void setDrawing(Drawing d) {
+        Drawing oldValue = this.drawing;
         if (this.drawing != null) {
             this.drawing.removeDrawingListener(this);
             clearSelection();
@@ -315,6 +607,10 @@ public class DefaultDrawingView
         if (this.drawing != null) {
             this.drawing.addDrawingListener(this);
         }
+        tileCache.invalidate();
+        dynamicFigures = null;
+        dynamicFigureList = null;
+        staticImage = null;
         invalidateDimension();
         invalidate();
         if (getParent() != null) {
@@ -327,40 +623,99 @@ public class DefaultDrawingView
             }
         }
         repaint();
+        firePropertyChange("drawing", oldValue, d);
     }
     
     protected void repaint(Rectangle2D.Double r) {
         Rectangle vr = drawingToView(r);
         vr.grow(1, 1);
-        repaint(vr);
+        addDirtyArea(vr);
+    }
+    
+    /**
+     * Adds an area of the view to the dirty region. The dirty region is
+     * repainted once, after all events of the current event dispatch
+     * cycle have been processed.
+     */
+    protected void addDirtyArea(Rectangle vr) {
+        synchronized (dirtyRegion) {
+            dirtyRegion.add(vr);
+            if (isRepaintPending) {
+                return;
+            }
+            isRepaintPending = true;
+        }
+        SwingUtilities.invokeLater(dirtyRegionPainter);
+    }
+    
+    /**
+     * Repaints the rectangles of the dirty region.
+     */
+    protected void paintDirtyRegion() {
+        List<Rectangle> rectangles;
+        synchronized (dirtyRegion) {
+            isRepaintPending = false;
+            rectangles = dirtyRegion.takeRectangles();
+        }
+        if (rectangles.size() == 1) {
+            repaint(rectangles.get(0));
+        } else {
+            // The repaint manager would merge the rectangles into their
+            // union, so each of them is painted on its own
+            for (Rectangle r : rectangles) {
+                paintImmediately(r);
+            }
+        }
     }
     
     public void areaInvalidated(DrawingEvent evt) {
+        if (dynamicFigures != null &&
+                ! dynamicFigures.contains(evt.getFigure())) {
+            staticImage = null;
+        }
+        invalidateTiles(evt.getInvalidatedArea());
         repaint(evt.getInvalidatedArea());
-        invalidateDimension();
+        invalidateDimension(evt.getInvalidatedArea());
     }
     public void areaInvalidated(HandleEvent evt) {
-        repaint(evt.getInvalidatedArea());
-        invalidateDimension();
+        // A handle invalidates its area when its bounds change
+        Handle handle = evt.getHandle();
+        if (handleIndex != null && handleOrder.containsKey(handle)) {
+            handleIndex.update(handle, getHandleArea(handle));
+        }
+        addDirtyArea(evt.getInvalidatedArea());
     }
     public void figureAdded(DrawingEvent evt) {
+        staticImage = null;
         // Repaint the whole drawing to remove the message label
         if (evt.getDrawing().getFigureCount() == 1) {
+            tileCache.invalidate();
             repaint();
         } else {
+            invalidateTiles(evt.getInvalidatedArea());
             repaint(evt.getInvalidatedArea());
         }
-        invalidateDimension();
+        if (cachedDrawingArea != null) {
+            // The drawing area can only grow by the added figure
+            Rectangle2D.Double r = evt.getInvalidatedArea();
+            if (! cachedDrawingArea.contains(r)) {
+                cachedDrawingArea.add(r);
+                cachedPreferredSize = null;
+            }
+        }
     }
     public void figureRemoved(DrawingEvent evt) {
+        staticImage = null;
         // Repaint the whole drawing to draw the message label
         if (evt.getDrawing().getFigureCount() == 0) {
+            tileCache.invalidate();
             repaint();
         } else {
+            invalidateTiles(evt.getInvalidatedArea());
             repaint(evt.getInvalidatedArea());
         }
         removeFromSelection(evt.getFigure());
-        invalidateDimension();
+        invalidateDimension(evt.getInvalidatedArea());
     }
     public void invalidate() {
         invalidateDimension();
@@ -378,7 +733,7 @@ public class DefaultDrawingView
             Set<Figure> newSelection = new HashSet<Figure>(selectedFigures);
             invalidateHandles();
             fireSelectionChanged(oldSelection, newSelection);
-            repaint();
+            validateHandles();
         }
     }
     /**
@@ -393,7 +748,7 @@ public class DefaultDrawingView
             }
             invalidateHandles();
             fireSelectionChanged(oldSelection, newSelection);
-            repaint();
+            validateHandles();
         }
     }
     
@@ -407,7 +762,7 @@ public class DefaultDrawingView
             invalidateHandles();
             figure.removeFigureListener(handleInvalidator);
             fireSelectionChanged(oldSelection, newSelection);
-            repaint();
+            validateHandles();
         }
     }
     
@@ -425,7 +780,7 @@ public class DefaultDrawingView
         Set<Figure> newSelection = new HashSet<Figure>(selectedFigures);
         fireSelectionChanged(oldSelection, newSelection);
         invalidateHandles();
-        repaint();
+        validateHandles();
     }
     
     public void setEnabled(boolean b) {
@@ -444,7 +799,7 @@ public class DefaultDrawingView
         Set<Figure> newSelection = new HashSet<Figure>(selectedFigures);
         invalidateHandles();
         fireSelectionChanged(oldSelection, newSelection);
-        repaint();
+        validateHandles();
     }
     /**
      * Clears the current selection.
@@ -457,7 +812,6 @@ public class DefaultDrawingView
             invalidateHandles();
             fireSelectionChanged(oldSelection, newSelection);
         }
-        repaint();
     }
     /**
      * Test whether a given figure is selected.
@@ -512,51 +866,75 @@ public class DefaultDrawingView
                 }
                 handle.dispose();
             }
+            for (Handle handle : secondaryHandles) {
+                if (invalidatedArea == null) {
+                    invalidatedArea = handle.getDrawingArea();
+                } else {
+                    invalidatedArea.add(handle.getDrawingArea());
+                }
+            }
             selectionHandles.clear();
             secondaryHandles.clear();
+            handleOwners.clear();
+            handleIndex = null;
+            handleOrder.clear();
             
-            switch (selectedFigures.size()) {
-                case 0 :
-                    if (invalidatedArea != null) {
-                        repaint(invalidatedArea);
-                    }
-                    break;
-                case 1 :
-                    if (invalidatedArea != null) {
-                        repaint(invalidatedArea);
-                    }
-                    //validateHandles();
-                    break;
-                default :
-                    repaint();
-                    break;
+            // Only the area of the handles is repainted. The figures under
+            // it are copied from the tile cache.
+            if (invalidatedArea != null) {
+                repaint(invalidatedArea);
             }
         }
     }
     /**
-     * Validates the handles.
+     * Validates the handles, and repaints the area of the new handles.
+     * Only the selected figures near the visible area get handles, and
+     * a very large selection gets a single outline handle.
      */
     private void validateHandles() {
+        if (handlesAreValid && handleRect != null &&
+                ! handleRect.contains(getVisibleRect())) {
+            invalidateHandles();
+        }
         if (! handlesAreValid) {
             handlesAreValid = true;
             
             Rectangle invalidatedArea = null;
-            int level = detailLevel;
-            do {
-                for (Figure figure : getSelectedFigures()) {
-                    for (Handle handle : figure.createHandles(level)) {
-                        handle.setView(this);
-                        selectionHandles.add(handle);
-                        handle.addHandleListener(this);
-                        if (invalidatedArea == null) {
-                            invalidatedArea = handle.getDrawingArea();
-                        } else {
-                            invalidatedArea.add(handle.getDrawingArea());
-                        }
+            if (selectedFigures.size() > OUTLINE_SELECTION_THRESHOLD) {
+                handleRect = null;
+                Handle handle = new SelectionOutlineHandle(selectedFigures);
+                handle.setView(this);
+                selectionHandles.add(handle);
+                handle.addHandleListener(this);
+                invalidatedArea = handle.getDrawingArea();
+            } else {
+                handleRect = getVisibleRect();
+                handleRect.grow(handleRect.width / 2, handleRect.height / 2);
+                ArrayList<Figure> owners = new ArrayList<Figure>();
+                for (Figure figure : selectedFigures) {
+                    if (handleRect.intersects(drawingToView(figure.getDrawingArea()))) {
+                        owners.add(figure);
                     }
                 }
-            } while (level-- > 0 && selectionHandles.size() == 0);
-            detailLevel = level + 1;
+                
+                int level = detailLevel;
+                do {
+                    for (Figure figure : owners) {
+                        for (Handle handle : figure.createHandles(level)) {
+                            handle.setView(this);
+                            selectionHandles.add(handle);
+                            handle.addHandleListener(this);
+                            if (invalidatedArea == null) {
+                                invalidatedArea = handle.getDrawingArea();
+                            } else {
+                                invalidatedArea.add(handle.getDrawingArea());
+                            }
+                        }
+                    }
+                } while (level-- > 0 && selectionHandles.size() == 0 && ! owners.isEmpty());
+                detailLevel = level + 1;
+                handleOwners.addAll(owners);
+            }
             
             if (invalidatedArea != null) {
                 repaint(invalidatedArea);
@@ -576,12 +954,33 @@ public class DefaultDrawingView
                 return handle;
             }
         }
-        for (Handle handle : new ReversedList<Handle>(getSelectionHandles())) {
-            if (handle.contains(p)) {
-                return handle;
+        if (handleIndex == null) {
+            handleIndex = new AABBTree<Handle>();
+            handleOrder.clear();
+            for (Handle handle : selectionHandles) {
+                addToHandleIndex(handle);
             }
         }
-        return null;
+        // Return the topmost handle, that is the last one in the list
+        Handle found = null;
+        for (Handle handle : handleIndex.findContains(new Point2D.Double(p.x, p.y))) {
+            if (handle.contains(p) &&
+                    (found == null || handleOrder.get(handle) > handleOrder.get(found))) {
+                found = handle;
+            }
+        }
+        return found;
+    }
+    /**
+     * Adds a selection handle to the index. It is the topmost handle so far.
+     */
+    private void addToHandleIndex(Handle handle) {
+        handleOrder.put(handle, handleOrder.size());
+        handleIndex.add(handle, getHandleArea(handle));
+    }
+    private Rectangle2D.Double getHandleArea(Handle handle) {
+        Rectangle r = handle.getDrawingArea();
+        return new Rectangle2D.Double(r.x, r.y, r.width, r.height);
     }
     /**
      * Gets compatible handles.
@@ -590,6 +989,23 @@ public class DefaultDrawingView
     public Collection<Handle> getCompatibleHandles(Handle master) {
         validateHandles();
         
+        // Create the handles of the selected figures outside of the handle
+        // area, so that all of them follow the master
+        if (handleRect != null && handleOwners.size() < selectedFigures.size()) {
+            for (Figure figure : selectedFigures) {
+                if (handleOwners.add(figure)) {
+                    for (Handle handle : figure.createHandles(detailLevel)) {
+                        handle.setView(this);
+                        selectionHandles.add(handle);
+                        handle.addHandleListener(this);
+                        if (handleIndex != null) {
+                            addToHandleIndex(handle);
+                        }
+                    }
+                }
+            }
+        }
+        
         HashSet<Figure> owners = new HashSet<Figure>();
         LinkedList<Handle> compatibleHandles = new LinkedList<Handle>();
         owners.add(master.getOwner());
@@ -683,6 +1099,21 @@ public class DefaultDrawingView
         cachedPreferredSize = null;
         cachedDrawingArea = null;
     }
+    /**
+     * Invalidates the dimension after an area of the drawing has changed.
+     * When the area lies inside of the drawing area without touching its
+     * border, the figures in it do not determine the drawing area, and the
+     * dimension stays valid.
+     */
+    protected void invalidateDimension(Rectangle2D.Double r) {
+        if (cachedDrawingArea == null ||
+                r.x <= cachedDrawingArea.x ||
+                r.y <= cachedDrawingArea.y ||
+                r.x + r.width >= cachedDrawingArea.x + cachedDrawingArea.width ||
+                r.y + r.height >= cachedDrawingArea.y + cachedDrawingArea.height) {
+            invalidateDimension();
+        }
+    }
     
     public Constrainer getConstrainer() {
         return constrainer;
@@ -691,6 +1122,7 @@ public class DefaultDrawingView
     public void setConstrainer(Constrainer newValue) {
         Constrainer oldValue = constrainer;
         constrainer = newValue;
+        tileCache.invalidate();
         repaint();
         firePropertyChange("constrainer", oldValue, newValue);
     }
@@ -789,10 +1221,16 @@ public class DefaultDrawingView
         invalidateDimension();
         invalidate();
         if (getParent() != null) getParent().validate();
+        interactionHappened();
         repaint();
     }
     
     protected void fireViewTransformChanged() {
+        // Other figures are near the visible area at the new scale
+        if (handleRect != null) {
+            invalidateHandles();
+        }
+        handleIndex = null;
         for (Handle handle : selectionHandles) {
             handle.viewTransformChanged();
         }
@@ -804,8 +1242,54 @@ public class DefaultDrawingView
     public void setHandleDetailLevel(int newValue) {
         detailLevel = newValue;
         invalidateHandles();
+        validateHandles();
+    }
+    public void setDynamicFigures(Collection<Figure> figures) {
+        staticImage = null;
+        if (figures == null || figures.isEmpty() || drawing == null) {
+            if (dynamicFigures != null) {
+                dynamicFigures = null;
+                dynamicFigureList = null;
+                repaint();
+            }
+            return;
+        }
+        
+        // Follow the connections which are attached to the figures and
+        // their parts, and to these connections in turn, so that they
+        // move along
+        HashSet<Figure> dynamic = new HashSet<Figure>(figures);
+        LinkedList<Figure> parts = new LinkedList<Figure>();
+        for (Figure f : figures) {
+            parts.addAll(f.getDecomposition());
+        }
+        while (! parts.isEmpty()) {
+            Figure part = parts.removeFirst();
+            for (ConnectionFigure c : part.getConnections()) {
+                if (! dynamic.contains(c) && drawing.contains(c) &&
+                        (c.getStartFigure() == part || c.getEndFigure() == part)) {
+                    dynamic.add(c);
+                    parts.add(c);
+                }
+            }
+        }
+        dynamicFigures = dynamic;
+        dynamicFigureList = drawing.sort(dynamic);
         repaint();
     }
+    
+    public void interactionHappened() {
+        isDraftQuality = true;
+        idleTimer.restart();
+    }
+    
+    /**
+     * Returns true while the view renders in draft quality.
+     */
+    public boolean isDraftQuality() {
+        return isDraftQuality;
+    }
+    
     public int getHandleDetailLevel() {
         return detailLevel;
     }
@@ -813,13 +1297,28 @@ public class DefaultDrawingView
     public void handleRequestSecondaryHandles(HandleEvent e) {
         //if (e.getHandle() != secondaryHandleOwner) {
         secondaryHandleOwner = e.getHandle();
+        Rectangle invalidatedArea = null;
+        for (Handle h : secondaryHandles) {
+            if (invalidatedArea == null) {
+                invalidatedArea = h.getDrawingArea();
+            } else {
+                invalidatedArea.add(h.getDrawingArea());
+            }
+        }
         secondaryHandles.clear();
         secondaryHandles.addAll(secondaryHandleOwner.createSecondaryHandles());
         for (Handle h : secondaryHandles) {
             h.setView(this);
             h.addHandleListener(this);
+            if (invalidatedArea == null) {
+                invalidatedArea = h.getDrawingArea();
+            } else {
+                invalidatedArea.add(h.getDrawingArea());
+            }
+        }
+        if (invalidatedArea != null) {
+            repaint(invalidatedArea);
         }
-        repaint();
         //}
     }
     
@@ -0,0 +1,115 @@
+package org.jhotdraw.draw;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the areas of a {@link DefaultDrawingView} which need to be
+ * repainted, until the view repaints them.
+ * <p>
+ * The region is kept as a small set of rectangles. A new area is merged
+ * into a rectangle it overlaps, or into a rectangle whose union with it is
+ * not larger than both together; otherwise it is added as a rectangle of
+ * its own. When the region holds the maximal number of rectangles, the new
+ * area is merged into the rectangle which grows the least. Thus many small
+ * changes close to each other are repainted as one rectangle, and a few
+ * changes far apart are not repainted as their large union.
+ */
+public class DirtyRegion {
+    private int maxRectangles;
+    private ArrayList<Rectangle> rectangles = new ArrayList<Rectangle>();
+    private long requestCount, issuedCount;
+
+    /** Creates a new instance which holds up to 8 rectangles. */
+    public DirtyRegion() {
+        this(8);
+    }
+
+    /** Creates a new instance which holds up to maxRectangles rectangles. */
+    public DirtyRegion(int maxRectangles) {
+        this.maxRectangles = maxRectangles;
+    }
+
+    /**
+     * Adds an area to the region.
+     */
+    public void add(Rectangle r) {
+        if (r.isEmpty()) {
+            return;
+        }
+        requestCount++;
+        Rectangle merged = new Rectangle(r);
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle e = rectangles.get(i);
+            if (e.intersects(merged) ||
+                    area(e.union(merged)) <= area(e) + area(merged)) {
+                // The union may now reach other rectangles, so it is
+                // merged again from the start
+                merged = e.union(merged);
+                rectangles.remove(i);
+                i = -1;
+            }
+        }
+        if (rectangles.size() < maxRectangles) {
+            rectangles.add(merged);
+        } else {
+            int best = 0;
+            long bestGrowth = Long.MAX_VALUE;
+            for (int i = 0; i < rectangles.size(); i++) {
+                Rectangle e = rectangles.get(i);
+                long growth = area(e.union(merged)) - area(e);
+                if (growth < bestGrowth) {
+                    best = i;
+                    bestGrowth = growth;
+                }
+            }
+            rectangles.set(best, rectangles.get(best).union(merged));
+        }
+    }
+
+    /**
+     * Returns true if no area needs to be repainted.
+     */
+    public boolean isEmpty() {
+        return rectangles.isEmpty();
+    }
+
+    /**
+     * Returns the rectangles of the region, and clears it. The caller
+     * repaints the returned rectangles.
+     */
+    public List<Rectangle> takeRectangles() {
+        ArrayList<Rectangle> result = rectangles;
+        rectangles = new ArrayList<Rectangle>();
+        issuedCount += result.size();
+        return result;
+    }
+
+    /**
+     * Returns the number of non-empty areas which have been added to the
+     * region.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of rectangles which have been repainted.
+     */
+    public long getIssuedCount() {
+        return issuedCount;
+    }
+
+    /**
+     * Returns the number of added areas which have been merged into other
+     * areas instead of being repainted on their own.
+     */
+    public long getCoalescedCount() {
+        return requestCount - issuedCount - rectangles.size();
+    }
+
+    private static long area(Rectangle r) {
+        return (long) r.width * (long) r.height;
+    }
+}
@@ -73,4 +73,28 @@ public class DoubleLineConnectionGeneralizacaoFigure extends
 		((TextFigure)this.getChild(0)).setText(in.getAttribute("labelGeneralizacaoText", "caracterstica"));
 	}
 
+	/**
+	 * Adds the connection to the generalization hierarchy of the drawing.
+	 */
+	@Override
+	protected void handleConnect(Connector start, Connector end) {
+		super.handleConnect(start, end);
+		GenSpecHierarchy hierarchy = GenSpecHierarchy.getInstance(getDrawing());
+		if (hierarchy != null) {
+			hierarchy.connect(this);
+		}
+	}
+
+	/**
+	 * Removes the connection from the generalization hierarchy of the
+	 * drawing.
+	 */
+	@Override
+	protected void handleDisconnect(Connector start, Connector end) {
+		super.handleDisconnect(start, end);
+		GenSpecHierarchy hierarchy = GenSpecHierarchy.getInstance(getDrawing());
+		if (hierarchy != null) {
+			hierarchy.disconnect(this);
+		}
+	}
 }
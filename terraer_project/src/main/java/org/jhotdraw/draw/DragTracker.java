@@ -42,6 +42,8 @@ public class DragTracker extends AbstractTool {
     Point2D.Double oldPoint;
     Point2D.Double anchorPoint;
     private boolean isDragging;
+    /** The view whose dynamic figures are dragged. */
+    private DrawingView dragView;
     
     
     /** Creates a new instance. */
@@ -82,11 +84,23 @@ public class DragTracker extends AbstractTool {
         oldPoint.y += origin.y - constrainedOrigin.y;
         anchorPoint = oldPoint;
     }
+    public void deactivate(DrawingEditor editor) {
+        // The tool can be switched in the middle of a drag, then the view
+        // must stop drawing the dragged figures on a layer of their own
+        if (isDragging) {
+            isDragging = false;
+            dragView.setDynamicFigures(null);
+            dragView = null;
+        }
+        super.deactivate(editor);
+    }
     public void mouseDragged(MouseEvent evt) {
         DrawingView view = getView();
-        if (isDragging = false) {
+        if (! isDragging) {
             isDragging = true;
             updateCursor(editor.findView((Container) evt.getSource()),new Point(evt.getX(), evt.getY()));
+            dragView = view;
+            view.setDynamicFigures(view.getSelectedFigures());
         }
         
         Point2D.Double newPoint = view.getConstrainer().constrainPoint(
@@ -100,10 +114,13 @@ public class DragTracker extends AbstractTool {
             f.changed();
         }
         oldPoint = newPoint;
+        view.interactionHappened();
     }
     public void mouseReleased(MouseEvent evt) {
         super.mouseReleased(evt);
         isDragging = false;
+        dragView = null;
+        getView().setDynamicFigures(null);
         
         int x = evt.getX();
         int y = evt.getY();
@@ -214,6 +214,16 @@ public interface Drawing extends Serializable, DOMStorable {
      * should not descend into the figure's children.
      */
     Figure findFigureExcept(Point2D.Double p, Collection<Figure> ignore);
+    /**
+     * Finds a top level Figure which can be connected, for the tools and
+     * handles which create and reconnect connections. Returns the front most
+     * visible figure which can connect and contains the point. If there is
+     * none and snapRadius is greater than 0, returns the figure which can
+     * connect and whose drawing area is nearest to the point, if it is at
+     * most snapRadius away. Figures which include the ignored figure are
+     * skipped.
+     */
+    Figure findConnectableFigure(Point2D.Double p, double snapRadius, Figure ignore);
     /**
      * Finds a top level Figure which is behind the specified Figure.
      */
@@ -217,6 +217,18 @@ public interface DrawingView {
      * Returns the detail level of the handles.
      */
     public int getHandleDetailLevel();
+    /**
+     * Tells the view that the user is dragging or zooming. The view may
+     * render in draft quality until the interaction has been idle for a
+     * moment, and then renders once in full quality.
+     */
+    public void interactionHappened();
+    /**
+     * Sets the figures which the user is moving, or null when the move has
+     * ended. The view may render the other figures once, and only draw the
+     * moving figures again while they move.
+     */
+    public void setDynamicFigures(Collection<Figure> figures);
      /**
       * Sets the enabled state of the drawing view.
       * This is a bound property.
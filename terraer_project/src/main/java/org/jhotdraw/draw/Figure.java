@@ -345,6 +345,23 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
      * connection figures.
      */
     public Collection<Connector> getConnectors(ConnectionFigure prototype);
+    /**
+     * Returns the connection figures whose start or end connector is owned
+     * by this Figure.
+     */
+    public Collection<ConnectionFigure> getConnections();
+    /**
+     * Adds a connection figure to the connections of this Figure. This
+     * method is invoked by a connection when it connects to a connector
+     * owned by this Figure.
+     */
+    public void addConnection(ConnectionFigure connection);
+    /**
+     * Removes a connection figure from the connections of this Figure. This
+     * method is invoked by a connection when it disconnects from a
+     * connector owned by this Figure.
+     */
+    public void removeConnection(ConnectionFigure connection);
 
     // COMPOSITE FIGURES
     /**
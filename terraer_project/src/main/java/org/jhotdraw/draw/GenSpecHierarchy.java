@@ -0,0 +1,315 @@
+package org.jhotdraw.draw;
+
+import java.util.*;
+
+/**
+ * Index of the generalization/specialization hierarchy of an ER drawing.
+ * <p>
+ * The hierarchy is made of the disjunction, overlap and union figures and
+ * of the connections which link them to their supertypes and subtypes: a
+ * {@link LineConnectionGeneralizacaoFigure} or a
+ * {@link DoubleLineConnectionGeneralizacaoFigure} links a supertype to a
+ * generalization figure, a {@link GeneralizacaoLineConnectionFigure} links
+ * a generalization figure, or directly a supertype, to a subtype.
+ * <p>
+ * The index is updated incrementally, one connection at a time, whenever a
+ * generalization connection is connected or disconnected. Every figure
+ * keeps the connections to its supertype side and to its subtype side, so
+ * that the supertypes and subtypes of a figure are found without scanning
+ * the drawing. Each drawing maintains an index of its figures, see
+ * {@link AbstractDrawing#getGenSpecHierarchy}.
+ */
+public class GenSpecHierarchy {
+    /** Connections to the supertype side of a figure, in connection order. */
+    private HashMap<Figure, ArrayList<ConnectionFigure>> up = new HashMap<Figure, ArrayList<ConnectionFigure>>();
+    /** Connections to the subtype side of a figure, in connection order. */
+    private HashMap<Figure, ArrayList<ConnectionFigure>> down = new HashMap<Figure, ArrayList<ConnectionFigure>>();
+    /** The supertype side and the subtype side of each indexed connection. */
+    private HashMap<ConnectionFigure, Figure[]> edges = new HashMap<ConnectionFigure, Figure[]>();
+    /** Number of changes of the index. */
+    private int modificationCount;
+
+    /** Creates an empty index. */
+    public GenSpecHierarchy() {
+    }
+
+    /**
+     * Creates the index of the specified figures.
+     */
+    public GenSpecHierarchy(Collection<Figure> figures) {
+        for (Figure f : figures) {
+            if (f instanceof ConnectionFigure) {
+                connect((ConnectionFigure) f);
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of an index. The copy can be read on another thread
+     * while the original index is being updated.
+     */
+    public GenSpecHierarchy(GenSpecHierarchy that) {
+        for (Map.Entry<Figure, ArrayList<ConnectionFigure>> entry : that.up.entrySet()) {
+            up.put(entry.getKey(), new ArrayList<ConnectionFigure>(entry.getValue()));
+        }
+        for (Map.Entry<Figure, ArrayList<ConnectionFigure>> entry : that.down.entrySet()) {
+            down.put(entry.getKey(), new ArrayList<ConnectionFigure>(entry.getValue()));
+        }
+        edges.putAll(that.edges);
+        modificationCount = that.modificationCount;
+    }
+
+    /**
+     * Returns the index of the specified drawing, or null if the drawing
+     * does not maintain one.
+     */
+    public static GenSpecHierarchy getInstance(Drawing drawing) {
+        return (drawing instanceof AbstractDrawing) ?
+            ((AbstractDrawing) drawing).getGenSpecHierarchy() : null;
+    }
+
+    /**
+     * Returns true if the figure is a disjunction, an overlap or a union.
+     */
+    public static boolean isGenSpec(Figure f) {
+        return f instanceof DisjuncaoFigure || f instanceof SobreposicaoFigure || f instanceof UniaoFigure;
+    }
+
+    /**
+     * Returns true if the connection is one of the generalization
+     * connections.
+     */
+    public static boolean isGenSpecConnection(ConnectionFigure c) {
+        Class<?> type = c.getClass();
+        return type == LineConnectionGeneralizacaoFigure.class ||
+            type == DoubleLineConnectionGeneralizacaoFigure.class ||
+            type == GeneralizacaoLineConnectionFigure.class;
+    }
+
+    /**
+     * Adds a connection to the index. Connections which are not
+     * generalization connections, or which do not link a supertype side to
+     * a subtype side, are ignored. Adding a connection again first removes
+     * it.
+     */
+    public void connect(ConnectionFigure c) {
+        if (edges.containsKey(c)) {
+            disconnect(c);
+        }
+        if (! isGenSpecConnection(c)) {
+            return;
+        }
+        Figure start = c.getStartFigure();
+        Figure end = c.getEndFigure();
+        if (start == null || end == null || start == end) {
+            return;
+        }
+        Figure supertype, subtype;
+        if (c.getClass() == GeneralizacaoLineConnectionFigure.class) {
+            // A generalization figure is always on the supertype side,
+            // two entities are linked from the supertype to the subtype.
+            if (isGenSpec(end) && ! isGenSpec(start)) {
+                supertype = end;
+                subtype = start;
+            } else {
+                supertype = start;
+                subtype = end;
+            }
+        } else if (isGenSpec(start) && ! isGenSpec(end)) {
+            supertype = end;
+            subtype = start;
+        } else if (isGenSpec(end) && ! isGenSpec(start)) {
+            supertype = start;
+            subtype = end;
+        } else {
+            return;
+        }
+        edges.put(c, new Figure[] { supertype, subtype });
+        list(down, supertype).add(c);
+        list(up, subtype).add(c);
+        modificationCount++;
+    }
+
+    /**
+     * Removes a connection from the index.
+     */
+    public void disconnect(ConnectionFigure c) {
+        Figure[] edge = edges.remove(c);
+        if (edge != null) {
+            remove(down, edge[0], c);
+            remove(up, edge[1], c);
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Returns the number of times a connection has been added to or removed
+     * from the index. Results derived from the index, such as
+     * {@link #isCyclic}, remain valid as long as this number is unchanged.
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    private static ArrayList<ConnectionFigure> list(HashMap<Figure, ArrayList<ConnectionFigure>> map, Figure f) {
+        ArrayList<ConnectionFigure> list = map.get(f);
+        if (list == null) {
+            list = new ArrayList<ConnectionFigure>(2);
+            map.put(f, list);
+        }
+        return list;
+    }
+
+    private static void remove(HashMap<Figure, ArrayList<ConnectionFigure>> map, Figure f, ConnectionFigure c) {
+        ArrayList<ConnectionFigure> list = map.get(f);
+        if (list != null) {
+            list.remove(c);
+            if (list.isEmpty()) {
+                map.remove(f);
+            }
+        }
+    }
+
+    /**
+     * Returns the connections which link a figure to its supertype side, in
+     * the order in which they have been connected.
+     */
+    public List<ConnectionFigure> getSupertypeConnections(Figure f) {
+        List<ConnectionFigure> list = up.get(f);
+        return (list == null) ? Collections.<ConnectionFigure>emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the connections which link a figure to its subtype side, in
+     * the order in which they have been connected.
+     */
+    public List<ConnectionFigure> getSubtypeConnections(Figure f) {
+        List<ConnectionFigure> list = down.get(f);
+        return (list == null) ? Collections.<ConnectionFigure>emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the supertype side of an indexed connection, or null if the
+     * connection is not indexed.
+     */
+    public Figure getSupertypeSide(ConnectionFigure c) {
+        Figure[] edge = edges.get(c);
+        return (edge == null) ? null : edge[0];
+    }
+
+    /**
+     * Returns the subtype side of an indexed connection, or null if the
+     * connection is not indexed.
+     */
+    public Figure getSubtypeSide(ConnectionFigure c) {
+        Figure[] edge = edges.get(c);
+        return (edge == null) ? null : edge[1];
+    }
+
+    /**
+     * Returns the figures directly on the supertype side of a figure: the
+     * supertypes of a generalization figure, or the generalization figures
+     * and the entities of which an entity is a subtype.
+     */
+    public List<Figure> getSupertypes(Figure f) {
+        ArrayList<Figure> list = new ArrayList<Figure>();
+        for (ConnectionFigure c : getSupertypeConnections(f)) {
+            list.add(edges.get(c)[0]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the figures directly on the subtype side of a figure.
+     */
+    public List<Figure> getSubtypes(Figure f) {
+        ArrayList<Figure> list = new ArrayList<Figure>();
+        for (ConnectionFigure c : getSubtypeConnections(f)) {
+            list.add(edges.get(c)[1]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the entities of which an entity is a subtype, through a
+     * generalization figure or directly.
+     */
+    public Set<Figure> getParents(Figure entity) {
+        LinkedHashSet<Figure> parents = new LinkedHashSet<Figure>();
+        for (Figure f : getSupertypes(entity)) {
+            if (isGenSpec(f)) {
+                parents.addAll(getSupertypes(f));
+            } else {
+                parents.add(f);
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Returns the entities which are subtypes of an entity, through a
+     * generalization figure or directly.
+     */
+    public Set<Figure> getChildren(Figure entity) {
+        LinkedHashSet<Figure> children = new LinkedHashSet<Figure>();
+        for (Figure f : getSubtypes(entity)) {
+            if (isGenSpec(f)) {
+                children.addAll(getSubtypes(f));
+            } else {
+                children.add(f);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Returns true if {@code ancestor} is a direct or indirect supertype of
+     * {@code entity}. The search visits every ancestor at most once, so it
+     * terminates even if the hierarchy has cycles.
+     */
+    public boolean isAncestor(Figure ancestor, Figure entity) {
+        HashSet<Figure> visited = new HashSet<Figure>();
+        ArrayList<Figure> stack = new ArrayList<Figure>();
+        stack.add(entity);
+        while (! stack.isEmpty()) {
+            for (Figure parent : getParents(stack.remove(stack.size() - 1))) {
+                if (parent == ancestor) {
+                    return true;
+                }
+                if (visited.add(parent)) {
+                    stack.add(parent);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if making {@code subtype} a subtype of {@code supertype}
+     * would make an entity its own supertype.
+     */
+    public boolean wouldCreateCycle(Figure supertype, Figure subtype) {
+        return supertype == subtype || isAncestor(subtype, supertype);
+    }
+
+    /**
+     * Returns true if the connection is part of a cycle in the hierarchy,
+     * that is, if an entity is its own supertype through it.
+     */
+    public boolean isCyclic(ConnectionFigure c) {
+        Figure[] edge = edges.get(c);
+        if (edge == null) {
+            return false;
+        }
+        Collection<Figure> supertypes = isGenSpec(edge[0]) ? getSupertypes(edge[0]) : Collections.singleton(edge[0]);
+        Collection<Figure> subtypes = isGenSpec(edge[1]) ? getSubtypes(edge[1]) : Collections.singleton(edge[1]);
+        for (Figure supertype : supertypes) {
+            for (Figure subtype : subtypes) {
+                if (wouldCreateCycle(supertype, subtype)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
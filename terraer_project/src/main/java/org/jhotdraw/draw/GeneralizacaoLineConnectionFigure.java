@@ -102,5 +102,29 @@ public class GeneralizacaoLineConnectionFigure extends LabeledLineConnectionFigu
 	public boolean handleMouseClick(Double p, MouseEvent evt, DrawingView view) {
 		return false;
 	}
-	
+
+	/**
+	 * Adds the connection to the generalization hierarchy of the drawing.
+	 */
+	@Override
+	protected void handleConnect(Connector start, Connector end) {
+		super.handleConnect(start, end);
+		GenSpecHierarchy hierarchy = GenSpecHierarchy.getInstance(getDrawing());
+		if (hierarchy != null) {
+			hierarchy.connect(this);
+		}
+	}
+
+	/**
+	 * Removes the connection from the generalization hierarchy of the
+	 * drawing.
+	 */
+	@Override
+	protected void handleDisconnect(Connector start, Connector end) {
+		super.handleDisconnect(start, end);
+		GenSpecHierarchy hierarchy = GenSpecHierarchy.getInstance(getDrawing());
+		if (hierarchy != null) {
+			hierarchy.disconnect(this);
+		}
+	}
 }
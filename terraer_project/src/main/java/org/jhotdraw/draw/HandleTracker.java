@@ -81,6 +81,7 @@ public class HandleTracker extends AbstractTool {
     public void mouseDragged(MouseEvent evt) {
         multicaster.trackStep(anchor, new Point(evt.getX(), evt.getY()), 
                 evt.getModifiersEx(), getView());
+        getView().interactionHappened();
     }
     
     public void mouseEntered(MouseEvent evt) {
@@ -14,9 +14,6 @@
 
 package org.jhotdraw.draw;
 
-import static org.jhotdraw.draw.AttributeKeys.STROKE_COLOR;
-import static org.jhotdraw.draw.AttributeKeys.TEXT_COLOR;
-
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
@@ -146,6 +143,21 @@ public class LabeledLineConnectionFigure extends LineConnectionFigure
         }
         return (Rectangle2D.Double) drawBounds.clone();
     }
+    /**
+     * Returns the areas of the segments and of the visible labels.
+     */
+    public java.util.List<Rectangle2D.Double> getSegmentAreas() {
+        java.util.List<Rectangle2D.Double> areas = super.getSegmentAreas();
+        for (Figure child : children) {
+            if (child.isVisible()) {
+                Rectangle2D.Double childBounds = child.getDrawingArea();
+                if (! childBounds.isEmpty()) {
+                    areas.add(childBounds);
+                }
+            }
+        }
+        return areas;
+    }
     public boolean contains(Point2D.Double p) {
         if (getDrawingArea().contains(p)) {
             for (Figure child : getChildrenFrontToBack()) {
@@ -192,8 +204,6 @@ public class LabeledLineConnectionFigure extends LineConnectionFigure
     }
     // CONNECTING
     public void updateConnection() {
-    	TEXT_COLOR.set(this, validation.validateLineConnection(this));
-        STROKE_COLOR.set(this, validation.validateLineConnection(this));
         super.updateConnection();
         layout();
     }
@@ -0,0 +1,137 @@
+package org.jhotdraw.draw;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The level of detail policy of the figures.
+ * <p>
+ * The figures measure their details in device pixels, that is in drawing
+ * units multiplied by the scale of the graphics they draw into, and leave
+ * out the details which are too small to be seen:
+ * <ul>
+ * <li>Text with a font size below the greeking threshold is drawn as a bar,
+ * and text with a font size below the text threshold is not drawn.</li>
+ * <li>Line decorations with a radius below the decoration threshold are not
+ * drawn.</li>
+ * <li>Double strokes whose lines are closer than the double stroke threshold
+ * are drawn as a single line of the same total width.</li>
+ * <li>Figures smaller than the shape threshold are drawn as simplified
+ * shapes, for example as a filled rectangle with a hairline outline, and
+ * composite figures smaller than it leave out their text.</li>
+ * </ul>
+ * The details are only left out when the graphics is scaled down, so that
+ * the figures are drawn unchanged at a scale of 1 or more, for example in
+ * exports. A threshold of 0 turns the simplification off.
+ */
+public class LevelOfDetail {
+    /** The stroke of the outlines of simplified figures. */
+    public final static BasicStroke HAIRLINE = new BasicStroke(0f);
+    
+    private static volatile double greekingThreshold = 5;
+    private static volatile double textThreshold = 2;
+    private static volatile double decorationThreshold = 2;
+    private static volatile double doubleStrokeThreshold = 1;
+    private static volatile double shapeThreshold = 8;
+
+    /** Prevent instance creation. */
+    private LevelOfDetail() {
+    }
+
+    /**
+     * Returns the number of device pixels per drawing unit of a graphics.
+     */
+    public static double getScale(Graphics2D g) {
+        AffineTransform t = g.getTransform();
+        return Math.sqrt(Math.abs(t.getDeterminant()));
+    }
+
+    /**
+     * Returns true if text of the specified font size is drawn as a bar.
+     */
+    public static boolean isTextGreeked(Graphics2D g, double fontSize) {
+        return isBelow(g, fontSize, greekingThreshold);
+    }
+
+    /**
+     * Returns true if text of the specified font size is not drawn.
+     */
+    public static boolean isTextOmitted(Graphics2D g, double fontSize) {
+        return isBelow(g, fontSize, textThreshold);
+    }
+
+    /**
+     * Returns true if a line decoration of the specified radius is not drawn.
+     */
+    public static boolean isDecorationOmitted(Graphics2D g, double radius) {
+        return isBelow(g, radius, decorationThreshold);
+    }
+
+    /**
+     * Returns true if a double stroke with the specified inner width is drawn
+     * as a single line.
+     */
+    public static boolean isDoubleStrokeSimplified(Graphics2D g, double innerWidth) {
+        return isBelow(g, innerWidth, doubleStrokeThreshold);
+    }
+
+    /**
+     * Returns true if a figure with the specified bounds only draws its
+     * shapes.
+     */
+    public static boolean isShapeSimplified(Graphics2D g, Rectangle2D bounds) {
+        return isBelow(g, Math.max(bounds.getWidth(), bounds.getHeight()), shapeThreshold);
+    }
+
+    /**
+     * Returns true if a detail of the specified size in drawing units is
+     * smaller than the threshold in a graphics which is scaled down.
+     */
+    private static boolean isBelow(Graphics2D g, double size, double threshold) {
+        double scale = getScale(g);
+        return scale < 1 && size * scale < threshold;
+    }
+
+    /**
+     * Draws a bar in place of a line of text with the current color of the
+     * graphics. The bar is as wide as the text and half as high.
+     */
+    public static void greek(Graphics2D g, Rectangle2D.Double textBounds) {
+        g.fill(new Rectangle2D.Double(
+                textBounds.x, textBounds.y + textBounds.height / 4d,
+                textBounds.width, textBounds.height / 2d));
+    }
+
+    public static double getGreekingThreshold() {
+        return greekingThreshold;
+    }
+    public static void setGreekingThreshold(double newValue) {
+        greekingThreshold = newValue;
+    }
+    public static double getTextThreshold() {
+        return textThreshold;
+    }
+    public static void setTextThreshold(double newValue) {
+        textThreshold = newValue;
+    }
+    public static double getDecorationThreshold() {
+        return decorationThreshold;
+    }
+    public static void setDecorationThreshold(double newValue) {
+        decorationThreshold = newValue;
+    }
+    public static double getDoubleStrokeThreshold() {
+        return doubleStrokeThreshold;
+    }
+    public static void setDoubleStrokeThreshold(double newValue) {
+        doubleStrokeThreshold = newValue;
+    }
+    public static double getShapeThreshold() {
+        return shapeThreshold;
+    }
+    public static void setShapeThreshold(double newValue) {
+        shapeThreshold = newValue;
+    }
+}
@@ -14,6 +14,10 @@
 
 package org.jhotdraw.draw;
 
+import static org.jhotdraw.draw.AttributeKeys.END_DECORATION;
+import static org.jhotdraw.draw.AttributeKeys.FILL_COLOR;
+import static org.jhotdraw.draw.AttributeKeys.FILL_OPEN_PATH;
+import static org.jhotdraw.draw.AttributeKeys.START_DECORATION;
 import static org.jhotdraw.draw.AttributeKeys.STROKE_COLOR;
 import static org.jhotdraw.draw.AttributeKeys.TEXT_COLOR;
 
@@ -21,6 +25,7 @@ import java.awt.Color;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +36,7 @@ import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 
 import org.jhotdraw.geom.BezierPath;
+import org.jhotdraw.geom.Geom;
 import org.jhotdraw.util.ResourceBundleUtil;
 import org.jhotdraw.xml.DOMInput;
 import org.jhotdraw.xml.DOMOutput;
@@ -146,6 +152,48 @@ public class LineConnectionFigure extends LineFigure
     public boolean canConnect() {
         return false;
     }
+    /**
+     * Returns rectangles which together cover everything the connection
+     * paints: one for each segment of the path computed by the liner,
+     * and one for each decoration. Unlike the drawing area, they leave out
+     * the empty space between the segments of a long elbow connection, so
+     * that a drawing can index the connection by them. The figure contains
+     * no point outside of the rectangles.
+     */
+    public java.util.List<Rectangle2D.Double> getSegmentAreas() {
+        Rectangle2D.Double drawingArea = getDrawingArea();
+        ArrayList<Rectangle2D.Double> areas = new ArrayList<Rectangle2D.Double>();
+        int n = path.size();
+        if (n < 2 || isClosed() || FILL_COLOR.get(this) != null && FILL_OPEN_PATH.get(this)) {
+            areas.add(drawingArea);
+            return areas;
+        }
+        // Grow by the hit tolerance of contains() as well as by the stroke
+        double grow = Math.max(getDrawingAreaGrowth(),
+                Math.max(2d, AttributeKeys.getStrokeTotalWidth(this) / 2d));
+        for (int i = 0; i < n - 1; i++) {
+            BezierPath.Node n1 = path.get(i);
+            BezierPath.Node n2 = path.get(i + 1);
+            Rectangle2D.Double r = new Rectangle2D.Double(n1.x[0], n1.y[0], 0, 0);
+            if ((n1.mask & BezierPath.C2_MASK) != 0) {
+                r.add(n1.x[2], n1.y[2]);
+            }
+            if ((n2.mask & BezierPath.C1_MASK) != 0) {
+                r.add(n2.x[1], n2.y[1]);
+            }
+            r.add(n2.x[0], n2.y[0]);
+            Geom.grow(r, grow, grow);
+            Rectangle2D.intersect(r, drawingArea, r);
+            areas.add(r);
+        }
+        if (START_DECORATION.get(this) != null) {
+            areas.add(START_DECORATION.get(this).getDrawingArea(this, getPoint(0, 0), getPoint(1, 0)));
+        }
+        if (END_DECORATION.get(this) != null) {
+            areas.add(END_DECORATION.get(this).getDrawingArea(this, getPoint(n - 1, 0), getPoint(n - 2, 0)));
+        }
+        return areas;
+    }
     public void updateConnection() {
         willChange();
         if (getStartConnector() != null) {
@@ -162,18 +210,21 @@ public class LineConnectionFigure extends LineFigure
             }
         }
         
-        if (validateEnabled){
-        	TEXT_COLOR.set(this, validation.validateLineConnection(this));
-        	STROKE_COLOR.set(this, validation.validateLineConnection(this));
-        }else{
-        	TEXT_COLOR.set(this, Color.black);
-        	STROKE_COLOR.set(this, Color.black);
+        Color color = validateEnabled ? validation.validateLineConnection(this) : Color.black;
+        if (! color.equals(TEXT_COLOR.get(this))) {
+        	TEXT_COLOR.set(this, color);
+        }
+        if (! color.equals(STROKE_COLOR.get(this))) {
+        	STROKE_COLOR.set(this, color);
         }
         
         ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.draw.Labels");
         title=labels.getString("connectionTitle") + this.getStartFigure().getToolTipText(null) + " "
        			+ labels.getString("connectionTitle2") + this.getEndFigure().getToolTipText(null);
-        org.jhotdraw.draw.TerraFigureTree.getInstance().refresh(this);
+        TerraFigureTree inspector = TerraFigureTree.getInspector();
+        if (inspector != null) {
+            inspector.refresh(this);
+        }
         changed();
     }
     
@@ -328,10 +379,20 @@ public class LineConnectionFigure extends LineFigure
      * Note: This method is only invoked, when the Figure is part of a
      * Drawing. If the Figure is removed from a Drawing, this method is
      * invoked on behalf of the removeNotify call to the Figure.
+     * <p>
+     * This implementation removes the connection from the connections of
+     * the start and end figures, and removes an attribute connection from
+     * the name registry of the drawing.
      *
      * @see #removeNotify
      */
     protected void handleDisconnect(Connector start, Connector end) {
+        start.getOwner().removeConnection(this);
+        end.getOwner().removeConnection(this);
+        NameRegistry registry = NameRegistry.getInstance(getDrawing());
+        if (registry != null) {
+            registry.disconnect(this);
+        }
     }
     
     /**
@@ -341,10 +402,20 @@ public class LineConnectionFigure extends LineFigure
      * Note: This method is only invoked, when the Figure is part of a
      * Drawing. If the Figure is added to a Drawing this method is invoked
      * on behalf of the addNotify call to the Figure.
+     * <p>
+     * This implementation adds the connection to the connections of the
+     * start and end figures, and adds an attribute connection to the name
+     * registry of the drawing.
      *
      * @see #addConnect
      */
     protected void handleConnect(Connector start, Connector end) {
+        start.getOwner().addConnection(this);
+        end.getOwner().addConnection(this);
+        NameRegistry registry = NameRegistry.getInstance(getDrawing());
+        if (registry != null) {
+            registry.connect(this);
+        }
     }
     
     
@@ -1,413 +1,233 @@
 package org.jhotdraw.draw;
 
 import java.awt.Color;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Validates the connections of an ER diagram.
+ * <p>
+ * The legal connections are declared once, as a table of the start and end
+ * figure classes which each connection class may link. Whether a connection
+ * class may link a start class to an end class is decided the first time
+ * the combination is seen and then kept in a lookup table, so that
+ * validating a connection is a single hash lookup.
+ * <p>
+ * Each connection figure has its own instance, which also keeps the result
+ * of the last validation. The result is only recomputed when the start or
+ * the end figure of the connection has changed, or, for generalization
+ * connections, when the generalization hierarchy has changed.
+ */
 public class ModelValidation{
-	
+	/** The (start class, end class) pairs which each connection class may link. */
+	private static final HashMap<Class<?>, ArrayList<Class<?>[]>> rules = new HashMap<Class<?>, ArrayList<Class<?>[]>>();
+	/** Legality of the (connection class, start class, end class) combinations seen so far. */
+	private static final ConcurrentHashMap<Key, Boolean> table = new ConcurrentHashMap<Key, Boolean>();
+
+	static {
+		Class<?>[] relationships = {
+			LabeledDoubleLineConnectionMuitosFigure.class, LabeledDoubleLineConnectionUmFigure.class,
+			LabeledLineConnectionMuitosFigure.class, LabeledLineConnectionUmFigure.class };
+		Class<?>[] doubleRelationships = {
+			LabeledDoubleLineConnectionMuitosFigure.class, LabeledDoubleLineConnectionUmFigure.class };
+		Class<?>[] attributes = { LineConnectionFigure.class };
+		Class<?>[] generalizations = {
+			LineConnectionGeneralizacaoFigure.class, DoubleLineConnectionGeneralizacaoFigure.class };
+		Class<?>[] partialGeneralizations = { LineConnectionGeneralizacaoFigure.class };
+		Class<?>[] specializations = { GeneralizacaoLineConnectionFigure.class };
+
+		//Connection
+		//Entity <---> Relationship
+		allow(relationships, EntidadeFigure.class, RelacionamentoFigure.class);
+		//Entity <---> Weak Relationship
+		allow(relationships, EntidadeFigure.class, RelacionamentoFracoFigure.class);
+		//Entity <---> Entity Relationship
+		allow(relationships, EntidadeFigure.class, EntidadeRelacionamentoFigure.class);
+		//Weak Entity <---> Relationship
+		allow(relationships, EntidadeFracaFigure.class, RelacionamentoFigure.class);
+		//Weak Entity <---> Entity Relationship
+		allow(relationships, EntidadeFracaFigure.class, EntidadeRelacionamentoFigure.class);
+		//Weak Entity <---> Weak Relationship (total participation only)
+		allow(doubleRelationships, EntidadeFracaFigure.class, RelacionamentoFracoFigure.class);
+		//Entity Relationship <---> Weak Relationship
+		allow(relationships, EntidadeRelacionamentoFigure.class, RelacionamentoFracoFigure.class);
+		//Entity Relationship <---> Relationship
+		allow(relationships, EntidadeRelacionamentoFigure.class, RelacionamentoFigure.class);
+
+		//Attribute Connection
+		//Entity, Weak Entity, Entity Relationship, Attribute <---> Attribute
+		allow(attributes, EntidadeFigure.class, AtributoFigure.class);
+		allow(attributes, EntidadeFracaFigure.class, AtributoFigure.class);
+		allow(attributes, EntidadeRelacionamentoFigure.class, AtributoFigure.class);
+		allow(attributes, AtributoFigure.class, AtributoFigure.class);
+		//Entity, Entity Relationship <---> Key Attribute
+		allow(attributes, EntidadeFigure.class, AtributoChaveFigure.class);
+		allow(attributes, EntidadeRelacionamentoFigure.class, AtributoChaveFigure.class);
+		//Weak Entity <---> Partial Key Attribute
+		allow(attributes, EntidadeFracaFigure.class, AtributoChaveParcialFigure.class);
+		//Entity, Weak Entity, Entity Relationship <---> Multivalue Attribute
+		allow(attributes, EntidadeFigure.class, AtributoMultivaloradoFigure.class);
+		allow(attributes, EntidadeFracaFigure.class, AtributoMultivaloradoFigure.class);
+		allow(attributes, EntidadeRelacionamentoFigure.class, AtributoMultivaloradoFigure.class);
+		//Entity, Weak Entity, Entity Relationship <---> Derived Attribute
+		allow(attributes, EntidadeFigure.class, AtributoDerivadoFigure.class);
+		allow(attributes, EntidadeFracaFigure.class, AtributoDerivadoFigure.class);
+		allow(attributes, EntidadeRelacionamentoFigure.class, AtributoDerivadoFigure.class);
+		//Relationship, Weak Relationship <---> Attribute, Key, Derived and Multivalue Attribute
+		for (Class<?> relationship : new Class<?>[] { RelacionamentoFigure.class, RelacionamentoFracoFigure.class }) {
+			allow(attributes, relationship, AtributoFigure.class);
+			allow(attributes, relationship, AtributoChaveFigure.class);
+			allow(attributes, relationship, AtributoDerivadoFigure.class);
+			allow(attributes, relationship, AtributoMultivaloradoFigure.class);
+		}
+
+		//Generalization Connection
+		//Entity, Entity Relationship, Weak Entity <---> Disjunction, Overlap
+		//Union (partial participation only)
+		for (Class<?> entity : new Class<?>[] { EntidadeFigure.class, EntidadeRelacionamentoFigure.class, EntidadeFracaFigure.class }) {
+			allow(generalizations, entity, DisjuncaoFigure.class);
+			allow(generalizations, entity, SobreposicaoFigure.class);
+			allow(partialGeneralizations, entity, UniaoFigure.class);
+		}
+
+		//Specialization Connection
+		//Disjunction, Overlap, Union, Entity ---> Entity
+		//(Entity ---> Entity is right according to book 2nd version of book "Database Design Using Entity-Relationship Diagrams")
+		allowDirected(specializations, DisjuncaoFigure.class, EntidadeFigure.class);
+		allowDirected(specializations, SobreposicaoFigure.class, EntidadeFigure.class);
+		allowDirected(specializations, UniaoFigure.class, EntidadeFigure.class);
+		allowDirected(specializations, EntidadeFigure.class, EntidadeFigure.class);
+	}
+
+	/** The connection the cached result belongs to. */
+	private LineConnectionFigure validatedConnection;
+	private Figure validatedStart;
+	private Figure validatedEnd;
+	private int validatedHierarchyCount;
+	private Color validatedColor;
+
 	public ModelValidation(){
 	};
-	public Color validateLineConnection(LineConnectionFigure conn){		
 
-		if (conn.getClass().equals(LabeledDoubleLineConnectionMuitosFigure.class) || 
-				conn.getClass().equals(LabeledDoubleLineConnectionUmFigure.class)){
-		//Labeled Connection 
-		//Entity ---> Relationship
-			if (! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-					conn.getStartFigure() instanceof RelacionamentoFigure) &&					
-		//Labeled Connection
-		//Entity ---> Weak Relationship
-				! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&	
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-		//Labeled Connection
-		//Entity ---> Entity Relationship
-				! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof EntidadeRelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof EntidadeRelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Relationship
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Entity Relationship
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof EntidadeRelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof EntidadeRelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Weak Relationship
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-		//Labeled Connection
-		//Entity Relationship ---> Weak Relationship
-				! (conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-		//Labeled Connection
-		//Entity Relationship ---> Relationship
-				! (conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFigure)
-					){
-				return Color.red;
-			}	
+	/**
+	 * Allows the connection classes to link the two figure classes in
+	 * either direction.
+	 */
+	private static void allow(Class<?>[] connections, Class<?> a, Class<?> b) {
+		allowDirected(connections, a, b);
+		allowDirected(connections, b, a);
+	}
+
+	/**
+	 * Allows the connection classes to link a start figure class to an end
+	 * figure class.
+	 */
+	private static void allowDirected(Class<?>[] connections, Class<?> start, Class<?> end) {
+		for (Class<?> c : connections) {
+			ArrayList<Class<?>[]> pairs = rules.get(c);
+			if (pairs == null) {
+				pairs = new ArrayList<Class<?>[]>();
+				rules.put(c, pairs);
+			}
+			pairs.add(new Class<?>[] { start, end });
 		}
-		
-		else if ( conn.getClass().equals(LabeledLineConnectionMuitosFigure.class) ||
-				conn.getClass().equals(LabeledLineConnectionUmFigure.class)){
-		//Labeled Connection 
-		//Entity ---> Relationship
-			if (! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-					conn.getStartFigure() instanceof RelacionamentoFigure) &&					
-		//Labeled Connection
-		//Entity ---> Weak Relationship
-				! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&	
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-		//Labeled Connection
-		//Entity ---> Entity Relationship
-				! (conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof EntidadeRelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof EntidadeRelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Relationship
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Entity Relationship
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof EntidadeRelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof EntidadeRelacionamentoFigure) &&
-		//Labeled Connection
-		//Weak Entity ---> Weak Relationship
-				/*
-				! (conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-				*/
-		//Labeled Connection
-		//Entity Relationship ---> Weak Relationship
-				! (conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFracoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFracoFigure) &&
-		//Labeled Connection
-		//Entity Relationship ---> Relationship
-				! (conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof RelacionamentoFigure) &&
-				! (conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof RelacionamentoFigure)
-					){
-				return Color.red;
-			}	
+	}
+
+	/**
+	 * Returns true if a connection of the specified class may link a start
+	 * figure of the specified class to an end figure of the specified
+	 * class. Connection classes without rules may link any figures. A null
+	 * start or end class stands for a missing figure.
+	 */
+	public static boolean isLegal(Class<?> connection, Class<?> start, Class<?> end) {
+		if (start == null || end == null) {
+			return ! rules.containsKey(connection);
 		}
+		Key key = new Key(connection, start, end);
+		Boolean isLegal = table.get(key);
+		if (isLegal == null) {
+			isLegal = computeLegal(connection, start, end);
+			table.put(key, isLegal);
+		}
+		return isLegal;
+	}
 
+	private static boolean computeLegal(Class<?> connection, Class<?> start, Class<?> end) {
+		ArrayList<Class<?>[]> pairs = rules.get(connection);
+		if (pairs == null) {
+			return true;
+		}
+		for (Class<?>[] pair : pairs) {
+			if (pair[0].isAssignableFrom(start) && pair[1].isAssignableFrom(end)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-		else if (conn.getClass().equals(LineConnectionFigure.class) ){
-		//Connection 
-		//Entity <---> Attribute
-			if (!(conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof AtributoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof AtributoFigure) &&
-		//Connection 
-		//Weak Entity <---> Attribute
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-					conn.getEndFigure() instanceof AtributoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-					conn.getStartFigure() instanceof AtributoFigure) &&
-		//Connection 
-		//Attribute <---> Attribute
-				!(conn.getStartFigure() instanceof AtributoFigure &&
-					conn.getEndFigure() instanceof AtributoFigure) &&
-				!(conn.getEndFigure() instanceof AtributoFigure &&
-					conn.getStartFigure() instanceof AtributoFigure) &&
-		//Connection 
-		//Entity Relationship <---> Attribute
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof AtributoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getStartFigure() instanceof AtributoFigure) &&
-		//Connection
-		//Entity <---> Key Attribute
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof AtributoChaveFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof AtributoChaveFigure) &&
-		//Connection
-		//Weak Entity <---> Key Attribute (REMOVED DUE TO THE PARTIAL KEY)
-					/*!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-							conn.getEndFigure() instanceof AtributoChaveFigure) &&
-					!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-							conn.getStartFigure() instanceof AtributoChaveFigure) &&*/
-		//Connection
-		//Weak Entity <---> Partial Key Attribute
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof AtributoChaveParcialFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof AtributoChaveParcialFigure) &&							
-		//Connection 
-		//Entity Relationship <---> Key Attribute
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getEndFigure() instanceof AtributoChaveFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-					conn.getStartFigure() instanceof AtributoChaveFigure) &&
-		//Connection
-		//Entity <---> Multivalue Attribute
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof AtributoMultivaloradoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof AtributoMultivaloradoFigure)&&
-		//Connection
-		//Weak Entity <---> Multivalue Attribute
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof AtributoMultivaloradoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof AtributoMultivaloradoFigure) &&
-		//Connection
-		//Entity Relationship <---> Multivalue Attribute
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof AtributoMultivaloradoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof AtributoMultivaloradoFigure) &&	
-		//Connection
-		//Entity <---> Derived Attribute
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof AtributoDerivadoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof AtributoDerivadoFigure) &&
-		//Connection
-		//Weak Entity <---> Derived Attribute
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof AtributoDerivadoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof AtributoDerivadoFigure) &&
-		//Connection
-		//Entity Relationship <---> Derived Attribute
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof AtributoDerivadoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof AtributoDerivadoFigure) &&
-		//Connection
-		//Relationship <---> Attribute 
-				!(conn.getStartFigure() instanceof RelacionamentoFigure &&
-					conn.getEndFigure() instanceof AtributoFigure ) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFigure &&
-					conn.getStartFigure() instanceof AtributoFigure) &&
-		//Connection
-		//Relationship <---> Key Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFigure &&
-						conn.getEndFigure() instanceof AtributoChaveFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFigure &&
-						conn.getStartFigure() instanceof AtributoChaveFigure) &&
-		//Connection
-		//Relationship <---> Derived Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFigure &&
-						conn.getEndFigure() instanceof AtributoDerivadoFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFigure &&
-						conn.getStartFigure() instanceof AtributoDerivadoFigure) &&
-		//Connection
-		//Relationship <---> Multivalue Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFigure &&
-						conn.getEndFigure() instanceof AtributoMultivaloradoFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFigure &&
-						conn.getStartFigure() instanceof AtributoMultivaloradoFigure) &&
-		//Connection
-		//Weak Relationship <---> Attribute 
-				!(conn.getStartFigure() instanceof RelacionamentoFracoFigure &&
-					conn.getEndFigure() instanceof AtributoFigure ) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFracoFigure &&
-					conn.getStartFigure() instanceof AtributoFigure) &&
-						
-		//Connection
-		//Weak Relationship <---> Key Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFracoFigure &&
-					conn.getEndFigure() instanceof AtributoChaveFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFracoFigure &&
-					conn.getStartFigure() instanceof AtributoChaveFigure) &&
-		//Connection
-		//Weak Relationship Relationship <---> Derived Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFracoFigure &&
-						conn.getEndFigure() instanceof AtributoDerivadoFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFracoFigure &&
-						conn.getStartFigure() instanceof AtributoDerivadoFigure) &&
-		//Connection
-		//Weak Relationship Relationship <---> Multivalue Attribute
-				!(conn.getStartFigure() instanceof RelacionamentoFracoFigure &&
-						conn.getEndFigure() instanceof AtributoMultivaloradoFigure) &&
-				!(conn.getEndFigure() instanceof RelacionamentoFracoFigure &&
-						conn.getStartFigure() instanceof AtributoMultivaloradoFigure)
-					){
-		
-				return Color.red;
-			}	
+	/**
+	 * Returns red if the connection is not allowed between its start and
+	 * end figure, and black otherwise.
+	 */
+	public Color validateLineConnection(LineConnectionFigure conn){
+		Figure start = conn.getStartFigure();
+		Figure end = conn.getEndFigure();
+		GenSpecHierarchy hierarchy = GenSpecHierarchy.isGenSpecConnection(conn) ?
+			GenSpecHierarchy.getInstance(conn.getDrawing()) : null;
+		int hierarchyCount = (hierarchy == null) ? 0 : hierarchy.getModificationCount();
+		if (validatedColor != null && conn == validatedConnection &&
+				start == validatedStart && end == validatedEnd &&
+				hierarchyCount == validatedHierarchyCount) {
+			return validatedColor;
 		}
 
-		else if (conn.getClass().equals(LineConnectionGeneralizacaoFigure.class)){
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Disjunction
-			if (!(conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-					conn.getStartFigure() instanceof DisjuncaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure) &&
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Union
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof UniaoFigure) &&
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure) &&
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Disjunction
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof DisjuncaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Union
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof UniaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Union
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof UniaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Disjunction
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof DisjuncaoFigure)
-					){
-				return Color.red;
-			}
+		Color color;
+		if (! isLegal(conn.getClass(),
+				(start == null) ? null : start.getClass(),
+				(end == null) ? null : end.getClass())) {
+			color = Color.red;
+		} else if (hierarchy != null && hierarchy.isCyclic(conn)) {
+		//Generalization hierarchy
+		//An entity must not be its own supertype
+			color = Color.red;
+		} else {
+			color = Color.black;
 		}
-		
-		else if (conn.getClass().equals(DoubleLineConnectionGeneralizacaoFigure.class)){
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Disjunction
-			if (!(conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-					conn.getStartFigure() instanceof DisjuncaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure) &&
-		//Connection in Disjunction, Overlap or Union
-		//Entity <---> Union
-				/*
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFigure &&
-						conn.getStartFigure() instanceof UniaoFigure) &&
-				*/
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure) &&
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Disjunction
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof DisjuncaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Entity Relationship <---> Union
-				/*
-				!(conn.getStartFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeRelacionamentoFigure &&
-						conn.getStartFigure() instanceof UniaoFigure)&&
-				*/
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Overlap
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof SobreposicaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof SobreposicaoFigure)&&
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Union
-				/*
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof UniaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof UniaoFigure)&&
-				*/
-		//Connection in Disjunction, Overlap or Union
-		//Weak Entity <---> Disjunction
-				!(conn.getStartFigure() instanceof EntidadeFracaFigure &&
-						conn.getEndFigure() instanceof DisjuncaoFigure) &&
-				!(conn.getEndFigure() instanceof EntidadeFracaFigure &&
-						conn.getStartFigure() instanceof DisjuncaoFigure)
-					){
-				return Color.red;
-			}
+
+		validatedConnection = conn;
+		validatedStart = start;
+		validatedEnd = end;
+		validatedHierarchyCount = hierarchyCount;
+		validatedColor = color;
+		return color;
+	}
+
+	/**
+	 * Key of the lookup table.
+	 */
+	private static final class Key {
+		private final Class<?> connection;
+		private final Class<?> start;
+		private final Class<?> end;
+		private final int hash;
+
+		Key(Class<?> connection, Class<?> start, Class<?> end) {
+			this.connection = connection;
+			this.start = start;
+			this.end = end;
+			hash = (connection.hashCode() * 31 + start.hashCode()) * 31 + end.hashCode();
 		}
-		
-		else if (conn.getClass().equals(GeneralizacaoLineConnectionFigure.class)){
-		//Generalization Connection
-		//Disjunction ---> Entity
-			if (!(conn.getStartFigure() instanceof DisjuncaoFigure &&
-					conn.getEndFigure() instanceof EntidadeFigure) &&
-		//Generalization Connection
-		//Overlap ---> Entity
-				!(conn.getStartFigure() instanceof SobreposicaoFigure &&
-					conn.getEndFigure() instanceof EntidadeFigure) &&
-		//Generalization Connection
-		//Union ---> Entity
-				!(conn.getStartFigure() instanceof UniaoFigure &&
-					conn.getEndFigure() instanceof EntidadeFigure) &&
-		//Generalization Connection
-		//Entity ---> Entity (right according to book 2nd version of book "Database Design Using Entity-Relationship Diagrams")
-				!(conn.getStartFigure() instanceof EntidadeFigure &&
-					conn.getEndFigure() instanceof EntidadeFigure)					
-		){
-				return Color.red;
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (! (o instanceof Key)) {
+				return false;
 			}
+			Key that = (Key) o;
+			return connection == that.connection && start == that.start && end == that.end;
 		}
-		return Color.black;
 	}
 }
\ No newline at end of file
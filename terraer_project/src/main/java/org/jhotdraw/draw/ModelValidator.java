@@ -0,0 +1,255 @@
+package org.jhotdraw.draw;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jhotdraw.util.ResourceBundleUtil;
+
+/**
+ * Validates a whole ER drawing at once: the connections which
+ * {@link ModelValidation} rejects and the figures whose names collide.
+ * <p>
+ * The validator is created on the event dispatcher thread, where it takes a
+ * snapshot of the connections, of their start and end figures and of the
+ * generalization hierarchy of the drawing. {@link #validate} only reads the
+ * snapshot, so it can run on a worker thread while the drawing is being
+ * edited. Large drawings are validated in chunks of connections on several
+ * threads. The progress can be polled and the validation can be cancelled
+ * from another thread.
+ * <p>
+ * The problems are then applied to the drawing with {@link #applyColors},
+ * which colors all connections at once and repaints the drawing once.
+ */
+public class ModelValidator {
+    /** Number of connections validated by one task. */
+    private final static int CHUNK_SIZE = 1024;
+
+    private LineConnectionFigure[] connections;
+    private Class<?>[] startClasses;
+    private Class<?>[] endClasses;
+    private GenSpecHierarchy hierarchy;
+    private ArrayList<Problem> duplicates = new ArrayList<Problem>();
+
+    private AtomicInteger progress = new AtomicInteger();
+    private volatile boolean isCancelled;
+
+    /**
+     * A problem found by the validation.
+     */
+    public static class Problem {
+        private Figure figure;
+        private boolean isConnection;
+        private NameRegistry registry;
+
+        private Problem(Figure figure, boolean isConnection, NameRegistry registry) {
+            this.figure = figure;
+            this.isConnection = isConnection;
+            this.registry = registry;
+        }
+
+        /**
+         * Returns the invalid connection or the figure with the duplicate
+         * name.
+         */
+        public Figure getFigure() {
+            return figure;
+        }
+
+        /**
+         * Returns true if the problem is an invalid connection, false if it
+         * is a duplicate name.
+         */
+        public boolean isConnection() {
+            return isConnection;
+        }
+
+        /**
+         * Describes the problem. The description reads the figures, so it
+         * must be called on the thread which owns the drawing.
+         */
+        public String toString() {
+            ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.draw.Labels");
+            if (isConnection) {
+                ConnectionFigure c = (ConnectionFigure) figure;
+                return labels.getFormatted("validationProblem.connection", c.getStartFigure(), c.getEndFigure());
+            }
+            return labels.getFormatted("validationProblem.duplicate",
+                    (registry == null) ? figure.toString() : registry.getIdentifier(figure));
+        }
+    }
+
+    /**
+     * Takes a snapshot of a drawing. This method must be called on the thread
+     * which owns the drawing.
+     */
+    public ModelValidator(Drawing drawing) {
+        ArrayList<LineConnectionFigure> list = new ArrayList<LineConnectionFigure>();
+        for (Figure f : drawing.getFigures()) {
+            if (f instanceof LineConnectionFigure) {
+                LineConnectionFigure c = (LineConnectionFigure) f;
+                if (c.getStartFigure() != null && c.getEndFigure() != null) {
+                    list.add(c);
+                }
+            }
+        }
+        connections = list.toArray(new LineConnectionFigure[list.size()]);
+        startClasses = new Class<?>[connections.length];
+        endClasses = new Class<?>[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            startClasses[i] = connections[i].getStartFigure().getClass();
+            endClasses[i] = connections[i].getEndFigure().getClass();
+        }
+        GenSpecHierarchy h = GenSpecHierarchy.getInstance(drawing);
+        if (h != null) {
+            hierarchy = new GenSpecHierarchy(h);
+        }
+
+        NameRegistry registry = NameRegistry.getInstance(drawing);
+        if (registry != null) {
+            for (Figure f : drawing.getFigures()) {
+                if (registry.isDuplicate(f)) {
+                    duplicates.add(new Problem(f, false, registry));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of connections to be validated.
+     */
+    public int getCount() {
+        return connections.length;
+    }
+
+    /**
+     * Returns the number of connections validated so far.
+     */
+    public int getProgress() {
+        return progress.get();
+    }
+
+    /**
+     * Cancels the validation. {@link #validate} returns null as soon as
+     * possible.
+     */
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * Validates the snapshot and returns the problems: the invalid
+     * connections in drawing order, followed by the figures with duplicate
+     * names. Returns null if the validation has been cancelled.
+     */
+    public List<Problem> validate() {
+        int chunkCount = (connections.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final boolean[] isInvalid = new boolean[connections.length];
+        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), chunkCount);
+        if (threadCount <= 1) {
+            validate(0, connections.length, isInvalid);
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                ArrayList<Future<?>> futures = new ArrayList<Future<?>>(chunkCount);
+                for (int i = 0; i < chunkCount; i++) {
+                    final int from = i * CHUNK_SIZE;
+                    final int to = Math.min(from + CHUNK_SIZE, connections.length);
+                    futures.add(executor.submit(new Runnable() {
+                        public void run() {
+                            validate(from, to, isInvalid);
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            } catch (InterruptedException e) {
+                isCancelled = true;
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        if (isCancelled) {
+            return null;
+        }
+
+        ArrayList<Problem> problems = new ArrayList<Problem>();
+        for (int i = 0; i < connections.length; i++) {
+            if (isInvalid[i]) {
+                problems.add(new Problem(connections[i], true, null));
+            }
+        }
+        problems.addAll(duplicates);
+        return problems;
+    }
+
+    /**
+     * Validates the connections from index {@code from} inclusive to index
+     * {@code to} exclusive. Each task writes its own range of the result.
+     */
+    private void validate(int from, int to, boolean[] isInvalid) {
+        int count = 0;
+        for (int i = from; i < to && ! isCancelled; i++) {
+            LineConnectionFigure c = connections[i];
+            isInvalid[i] = ! ModelValidation.isLegal(c.getClass(), startClasses[i], endClasses[i]) ||
+                    (hierarchy != null && GenSpecHierarchy.isGenSpecConnection(c) && hierarchy.isCyclic(c));
+            if (++count == 64) {
+                progress.addAndGet(count);
+                count = 0;
+            }
+        }
+        progress.addAndGet(count);
+    }
+
+    /**
+     * Colors the connections of a drawing: red if they are in the problems,
+     * black otherwise, or all black if the validation is disabled. The
+     * colors are set without firing a change per figure, and the changed
+     * area of the drawing is repainted once. This method must be called on
+     * the thread which owns the drawing.
+     */
+    public static void applyColors(Drawing drawing, Collection<Problem> problems) {
+        HashSet<Figure> invalid = new HashSet<Figure>();
+        if (LineConnectionFigure.validateEnabled && problems != null) {
+            for (Problem p : problems) {
+                if (p.isConnection()) {
+                    invalid.add(p.getFigure());
+                }
+            }
+        }
+        Rectangle2D.Double dirty = null;
+        for (Figure f : drawing.getFigures()) {
+            if (f instanceof LineConnectionFigure) {
+                Color color = invalid.contains(f) ? Color.red : Color.black;
+                if (! color.equals(AttributeKeys.TEXT_COLOR.get(f)) ||
+                        ! color.equals(AttributeKeys.STROKE_COLOR.get(f))) {
+                    if (drawing instanceof AbstractDrawing) {
+                        AttributeKeys.TEXT_COLOR.basicSet(f, color);
+                        AttributeKeys.STROKE_COLOR.basicSet(f, color);
+                        if (dirty == null) {
+                            dirty = f.getDrawingArea();
+                        } else {
+                            dirty.add(f.getDrawingArea());
+                        }
+                    } else {
+                        AttributeKeys.TEXT_COLOR.set(f, color);
+                        AttributeKeys.STROKE_COLOR.set(f, color);
+                    }
+                }
+            }
+        }
+        if (dirty != null) {
+            ((AbstractDrawing) drawing).fireAreaInvalidated(dirty);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package org.jhotdraw.draw;
+
+import java.awt.Color;
+import java.util.*;
+
+/**
+ * Registry of the SQL identifiers of the figures of a drawing.
+ * <p>
+ * The identifier of a named figure is the text of its {@link TextFigure}
+ * with every run of white space replaced by an underscore. It is computed
+ * when the figure is added to the drawing and recomputed only when the
+ * text of the figure changes, so that the DDL code does not have to
+ * normalize the names again for every statement.
+ * <p>
+ * The registry also detects name collisions incrementally. The names of
+ * the figures which become tables must be unique in the drawing, and the
+ * names of the attributes of a figure must be unique among its
+ * attributes. Names are compared ignoring case, as SQL does. While the
+ * model is being validated, the text of colliding figures is shown in red.
+ * <p>
+ * Each drawing maintains a registry of its figures, see
+ * {@link AbstractDrawing#getNameRegistry}. The registry is updated by
+ * drawing events for the figures, and by the attribute connections when
+ * they are connected and disconnected.
+ */
+public class NameRegistry implements DrawingListener {
+    /** The identifier of each registered figure. */
+    private HashMap<Figure, String> identifiers = new HashMap<Figure, String>();
+    /** The named figure of each watched text figure. */
+    private HashMap<Figure, Figure> textOwners = new HashMap<Figure, Figure>();
+    /** The figures which become tables, by the upper case identifier. */
+    private HashMap<String, ArrayList<Figure>> tables = new HashMap<String, ArrayList<Figure>>();
+    /** The attributes of each figure, by the upper case identifier. */
+    private HashMap<Figure, HashMap<String, ArrayList<Figure>>> columns = new HashMap<Figure, HashMap<String, ArrayList<Figure>>>();
+    /** The figures to which each attribute is connected. */
+    private HashMap<Figure, ArrayList<Figure>> attributeOwners = new HashMap<Figure, ArrayList<Figure>>();
+    /** The attribute and the owner of each registered attribute connection. */
+    private HashMap<ConnectionFigure, Figure[]> edges = new HashMap<ConnectionFigure, Figure[]>();
+    /** The number of name collisions of each colliding figure. */
+    private HashMap<Figure, Integer> collisions = new HashMap<Figure, Integer>();
+    /** The text color of the flagged figures before they were flagged. */
+    private HashMap<Figure, Color> flagged = new HashMap<Figure, Color>();
+
+    private FigureListener textHandler = new FigureAdapter() {
+        @Override public void figureAttributeChanged(FigureEvent e) {
+            if (e.getAttribute() == AttributeKeys.TEXT) {
+                Figure f = textOwners.get(e.getFigure());
+                if (f != null) {
+                    rename(f);
+                }
+            }
+        }
+    };
+
+    /** Creates an empty registry. */
+    public NameRegistry() {
+    }
+
+    /**
+     * Returns the registry of the specified drawing, or null if the drawing
+     * does not maintain one.
+     */
+    public static NameRegistry getInstance(Drawing drawing) {
+        return (drawing instanceof AbstractDrawing) ?
+            ((AbstractDrawing) drawing).getNameRegistry() : null;
+    }
+
+    /**
+     * Converts a name into an SQL identifier by replacing every run of
+     * white space with an underscore. This is equivalent to
+     * {@code name.replaceAll("\\s+", "_")}, without compiling a regular
+     * expression on every call.
+     */
+    public static String toIdentifier(String name) {
+        if (name == null) {
+            return "";
+        }
+        int length = name.length();
+        int i = 0;
+        while (i < length && ! isWhitespace(name.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return name;
+        }
+        StringBuilder buf = new StringBuilder(length);
+        buf.append(name, 0, i);
+        while (i < length) {
+            char c = name.charAt(i++);
+            if (isWhitespace(c)) {
+                buf.append('_');
+                while (i < length && isWhitespace(name.charAt(i))) {
+                    i++;
+                }
+            } else {
+                buf.append(c);
+            }
+        }
+        return buf.toString();
+    }
+
+    /** The white space characters of the regular expression class \s. */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000b' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the text figure which holds the name of a figure, or null if
+     * the figure has no name.
+     */
+    public static TextFigure getTextFigure(Figure f) {
+        if (f instanceof AtributoFigure) {
+            return ((AtributoFigure) f).getTextFigure();
+        }
+        if (f instanceof CompositeFigure && ! (f instanceof ConnectionFigure)) {
+            for (Figure child : ((CompositeFigure) f).getChildren()) {
+                if (child instanceof TextFigure) {
+                    return (TextFigure) child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the figure becomes a table of its own.
+     */
+    public static boolean isTable(Figure f) {
+        return f instanceof EntidadeFigure || f instanceof EntidadeFracaFigure ||
+            f instanceof EntidadeRelacionamentoFigure;
+    }
+
+    /**
+     * Returns true if the figure is an attribute.
+     */
+    public static boolean isAttribute(Figure f) {
+        return f instanceof AtributoFigure || f instanceof AtributoChaveFigure ||
+            f instanceof AtributoChaveParcialFigure || f instanceof AtributoDerivadoFigure ||
+            f instanceof AtributoMultivaloradoFigure;
+    }
+
+    /**
+     * Returns the SQL identifier of a figure. The identifier of a figure
+     * which is not registered is computed from its current text.
+     */
+    public String getIdentifier(Figure f) {
+        String identifier = identifiers.get(f);
+        if (identifier == null) {
+            TextFigure tf = getTextFigure(f);
+            identifier = toIdentifier((tf == null) ? f.toString() : tf.getText());
+        }
+        return identifier;
+    }
+
+    /**
+     * Returns true if the name of the figure collides with the name of
+     * another table or of another attribute of the same figure.
+     */
+    public boolean isDuplicate(Figure f) {
+        return collisions.containsKey(f);
+    }
+
+    /**
+     * Returns the figures whose names collide.
+     */
+    public Set<Figure> getDuplicates() {
+        return Collections.unmodifiableSet(collisions.keySet());
+    }
+
+    public void figureAdded(DrawingEvent e) {
+        register(e.getFigure());
+    }
+
+    public void figureRemoved(DrawingEvent e) {
+        unregister(e.getFigure());
+    }
+
+    public void areaInvalidated(DrawingEvent e) {
+    }
+
+    /**
+     * Registers a named figure. Figures which are already registered and
+     * figures without a name are ignored.
+     */
+    public void register(Figure f) {
+        TextFigure tf = getTextFigure(f);
+        if (tf == null || textOwners.containsKey(tf)) {
+            return;
+        }
+        textOwners.put(tf, f);
+        tf.addFigureListener(textHandler);
+        if (identifiers.containsKey(f)) {
+            // An attribute which has stayed connected while it was removed
+            rename(f);
+        } else {
+            identifiers.put(f, toIdentifier(tf.getText()));
+            if (isTable(f)) {
+                add(tables, f);
+            }
+        }
+    }
+
+    /**
+     * Unregisters a named figure. An attribute stays among the attributes
+     * of its owners until its connections are disconnected, which happens
+     * when they are removed with it.
+     */
+    public void unregister(Figure f) {
+        TextFigure tf = getTextFigure(f);
+        if (tf == null || textOwners.remove(tf) == null) {
+            return;
+        }
+        tf.removeFigureListener(textHandler);
+        if (isTable(f)) {
+            remove(tables, f);
+        }
+        if (! attributeOwners.containsKey(f)) {
+            identifiers.remove(f);
+        }
+    }
+
+    /**
+     * Recomputes the identifier of a figure after its text has changed and
+     * moves it to its new name in the scopes in which it takes part.
+     */
+    private void rename(Figure f) {
+        ArrayList<Figure> owners = attributeOwners.get(f);
+        if (owners != null) {
+            for (Figure owner : owners) {
+                remove(columns.get(owner), f);
+            }
+        }
+        if (isTable(f)) {
+            remove(tables, f);
+        }
+        identifiers.put(f, toIdentifier(getTextFigure(f).getText()));
+        if (owners != null) {
+            for (Figure owner : owners) {
+                add(scope(owner), f);
+            }
+        }
+        if (isTable(f)) {
+            add(tables, f);
+        }
+    }
+
+    /**
+     * Adds an attribute connection to the registry. Connections which do
+     * not link an attribute to a figure which is not an attribute are
+     * ignored. Adding a connection again first removes it.
+     */
+    public void connect(ConnectionFigure c) {
+        if (edges.containsKey(c)) {
+            disconnect(c);
+        }
+        if (c.getClass() != LineConnectionFigure.class) {
+            return;
+        }
+        Figure attribute = c.getStartFigure();
+        Figure owner = c.getEndFigure();
+        if (attribute == null || owner == null) {
+            return;
+        }
+        if (! isAttribute(attribute)) {
+            attribute = owner;
+            owner = c.getStartFigure();
+        }
+        if (! isAttribute(attribute) || isAttribute(owner)) {
+            return;
+        }
+        register(attribute);
+        if (! identifiers.containsKey(attribute)) {
+            return;
+        }
+        edges.put(c, new Figure[] { attribute, owner });
+        ArrayList<Figure> owners = attributeOwners.get(attribute);
+        if (owners == null) {
+            owners = new ArrayList<Figure>(1);
+            attributeOwners.put(attribute, owners);
+        }
+        owners.add(owner);
+        add(scope(owner), attribute);
+    }
+
+    /**
+     * Removes an attribute connection from the registry.
+     */
+    public void disconnect(ConnectionFigure c) {
+        Figure[] edge = edges.remove(c);
+        if (edge == null) {
+            return;
+        }
+        Figure attribute = edge[0], owner = edge[1];
+        remove(columns.get(owner), attribute);
+        ArrayList<Figure> owners = attributeOwners.get(attribute);
+        owners.remove(owner);
+        if (owners.isEmpty()) {
+            attributeOwners.remove(attribute);
+            if (! textOwners.containsKey(getTextFigure(attribute))) {
+                identifiers.remove(attribute);
+            }
+        }
+        if (! owners.contains(owner)) {
+            HashMap<String, ArrayList<Figure>> scope = columns.get(owner);
+            if (scope != null && scope.isEmpty()) {
+                columns.remove(owner);
+            }
+        } else {
+            // The attribute is connected to the owner more than once
+            add(scope(owner), attribute);
+        }
+    }
+
+    private HashMap<String, ArrayList<Figure>> scope(Figure owner) {
+        HashMap<String, ArrayList<Figure>> scope = columns.get(owner);
+        if (scope == null) {
+            scope = new HashMap<String, ArrayList<Figure>>();
+            columns.put(owner, scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Adds a figure to a scope under its current name, and updates the
+     * collisions of the figures with the same name.
+     */
+    private void add(HashMap<String, ArrayList<Figure>> scope, Figure f) {
+        String key = identifiers.get(f).toUpperCase();
+        ArrayList<Figure> list = scope.get(key);
+        if (list == null) {
+            list = new ArrayList<Figure>(1);
+            scope.put(key, list);
+        }
+        if (list.contains(f)) {
+            return;
+        }
+        list.add(f);
+        if (list.size() == 2) {
+            collide(list.get(0), 1);
+        }
+        if (list.size() >= 2) {
+            collide(f, 1);
+        }
+    }
+
+    /**
+     * Removes a figure from a scope, and updates the collisions of the
+     * figures with the same name.
+     */
+    private void remove(HashMap<String, ArrayList<Figure>> scope, Figure f) {
+        if (scope == null || ! identifiers.containsKey(f)) {
+            return;
+        }
+        String key = identifiers.get(f).toUpperCase();
+        ArrayList<Figure> list = scope.get(key);
+        if (list == null || ! list.remove(f)) {
+            return;
+        }
+        if (list.size() >= 1) {
+            collide(f, -1);
+        }
+        if (list.size() == 1) {
+            collide(list.get(0), -1);
+        }
+        if (list.isEmpty()) {
+            scope.remove(key);
+        }
+    }
+
+    private void collide(Figure f, int delta) {
+        Integer count = collisions.get(f);
+        int n = ((count == null) ? 0 : count) + delta;
+        if (n > 0) {
+            collisions.put(f, n);
+        } else {
+            collisions.remove(f);
+        }
+        if (count == null || n <= 0) {
+            updateFlag(f);
+        }
+    }
+
+    /**
+     * Shows the text of the colliding figures in red while the model is
+     * being validated, and restores it otherwise.
+     */
+    public void updateFlags() {
+        for (Figure f : new ArrayList<Figure>(flagged.keySet())) {
+            updateFlag(f);
+        }
+        for (Figure f : new ArrayList<Figure>(collisions.keySet())) {
+            updateFlag(f);
+        }
+    }
+
+    private void updateFlag(Figure f) {
+        boolean isFlagged = LineConnectionFigure.validateEnabled && collisions.containsKey(f);
+        if (isFlagged == flagged.containsKey(f)) {
+            return;
+        }
+        TextFigure tf = getTextFigure(f);
+        tf.willChange();
+        if (isFlagged) {
+            flagged.put(f, AttributeKeys.TEXT_COLOR.get(tf));
+            AttributeKeys.TEXT_COLOR.basicSet(tf, Color.red);
+        } else {
+            AttributeKeys.TEXT_COLOR.basicSet(tf, flagged.remove(f));
+        }
+        tf.changed();
+    }
+}
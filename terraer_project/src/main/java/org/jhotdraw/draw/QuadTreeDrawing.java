@@ -20,18 +20,42 @@ import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
 
+import org.jhotdraw.geom.AABBTree;
 import org.jhotdraw.geom.Dimension2DDouble;
+import org.jhotdraw.geom.Geom;
 import org.jhotdraw.geom.QuadTree;
+import org.jhotdraw.geom.SpatialIndex;
 import org.jhotdraw.util.ReversedList;
 /**
  * QuadTreeDrawing uses a QuadTree2DDouble to improve responsiveness of drawings
  * which contain many figures.
  * <p>
+ * Each figure has a z-order stamp, which increases from back to front among
+ * the figures of the same layer. The figures found by the quad tree are
+ * ordered by their layer and their stamp, so that painting and hit testing
+ * only sort the figures found, and not all figures of the drawing.
+ * <p>
+ * The figures are indexed by their drawing area in a {@link SpatialIndex}.
+ * By default this is an {@link AABBTree}, which follows the figures
+ * wherever they are and does not have to be updated for the small moves of
+ * a drag. A {@link QuadTree} can be used instead by passing it to the
+ * constructor.
+ * <p>
+ * Connections are not indexed by their drawing area, which for a long
+ * elbow connection covers a large empty part of the drawing. They are
+ * indexed by the areas of their segments, see
+ * {@link LineConnectionFigure#getSegmentAreas}, so that the queries only
+ * find a connection where one of its segments is.
+ * <p>
  * FIXME - Rename this class to DefaultDrawingView.
  *
  * @author Werner Randelshofer
@@ -43,13 +67,70 @@ import org.jhotdraw.util.ReversedList;
  */
 public class QuadTreeDrawing extends AbstractDrawing {
     private ArrayList<Figure> figures = new ArrayList<Figure>();
-    private QuadTree<Figure> quadTree = new QuadTree<Figure>();
+    private SpatialIndex<Figure> quadTree;
+    /** Indexes the segments of the connections. */
+    private SpatialIndex<Segment> segmentIndex = new AABBTree<Segment>();
+    private HashMap<Figure, ArrayList<Segment>> segments = new HashMap<Figure, ArrayList<Segment>>();
     private boolean needsSorting = false;
     private FigureHandler figureHandler;
     private Dimension2DDouble canvasSize;
+    /**
+     * The z-order stamps of the figures. Among the figures of the same
+     * layer, a figure is in front of another figure if it has a greater
+     * stamp.
+     */
+    private HashMap<Figure, Long> stamps = new HashMap<Figure, Long>();
+    private long firstStamp, lastStamp;
+    /** Set to true when the stamps must be renumbered in list order. */
+    private boolean needsStamping = false;
+    /**
+     * The bounds of the figures transformed by their TRANSFORM attribute,
+     * computed by {@link #findFiguresWithin} and cleared when a figure
+     * changes.
+     */
+    private HashMap<Figure, Rectangle2D.Double> transformedBounds = new HashMap<Figure, Rectangle2D.Double>();
+    /**
+     * The figures which have a TRANSFORM attribute. The drawing area of a
+     * figure does not account for this attribute, so these figures are
+     * tested one by one by {@link #findFiguresWithin}.
+     */
+    private HashSet<Figure> transformedFigures = new HashSet<Figure>();
+    
+    /** Reused by the queries, see {@link #getAllocationCount}. */
+    private ArrayList<Figure> buffer = new ArrayList<Figure>();
+    private boolean isBufferInUse;
+    private Rectangle2D.Double clipRect = new Rectangle2D.Double();
+    private HitVisitor hitVisitor = new HitVisitor();
+    private SegmentCollector segmentCollector = new SegmentCollector();
+    private NearestVisitor nearestVisitor = new NearestVisitor();
+    private long allocationCount;
+    
+    /**
+     * Orders figures by layer and z-order stamp, from back to front.
+     */
+    private Comparator<Figure> zOrderComparator = new Comparator<Figure>() {
+        public int compare(Figure f1, Figure f2) {
+            int result = FigureLayerComparator.INSTANCE.compare(f1, f2);
+            if (result == 0) {
+                long s1 = stamps.get(f1);
+                long s2 = stamps.get(f2);
+                result = (s1 < s2) ? -1 : ((s1 == s2) ? 0 : 1);
+            }
+            return result;
+        }
+    };
     
     /** Creates a new instance. */
     public QuadTreeDrawing() {
+        this(new AABBTree<Figure>());
+    }
+    
+    /**
+     * Creates a new instance which indexes its figures with the specified
+     * spatial index.
+     */
+    public QuadTreeDrawing(SpatialIndex<Figure> index) {
+        quadTree = index;
         figureHandler = createFigureHandler();
     }
     
@@ -63,13 +144,72 @@ public class QuadTreeDrawing extends AbstractDrawing {
     
     public void basicAdd(int index, Figure figure) {
         figures.add(index, figure);
-        quadTree.add(figure, figure.getDrawingArea());
+        if (index == figures.size() - 1) {
+            stamps.put(figure, ++lastStamp);
+        } else if (index == 0) {
+            stamps.put(figure, --firstStamp);
+        } else {
+            stamps.put(figure, 0L);
+            needsStamping = true;
+        }
+        if (isSegmented(figure)) {
+            updateSegments(figure);
+        } else {
+            quadTree.add(figure, figure.getDrawingArea());
+        }
+        updateTransformed(figure);
         figure.addFigureListener(figureHandler);
         needsSorting = true;
     }
+    /**
+     * Adds the figures to the list and to the index at once, so that the
+     * index can be built in one pass when a drawing is loaded.
+     */
+    public void basicAddAll(int index, Collection<Figure> newFigures) {
+        figures.addAll(index, newFigures);
+        boolean isAppended = index == figures.size() - newFigures.size();
+        LinkedHashMap<Figure, Rectangle2D.Double> areas = new LinkedHashMap<Figure, Rectangle2D.Double>();
+        LinkedHashMap<Segment, Rectangle2D.Double> segmentAreas = new LinkedHashMap<Segment, Rectangle2D.Double>();
+        for (Figure figure : newFigures) {
+            if (isAppended) {
+                stamps.put(figure, ++lastStamp);
+            } else {
+                stamps.put(figure, 0L);
+                needsStamping = true;
+            }
+            if (isSegmented(figure)) {
+                ArrayList<Segment> list = new ArrayList<Segment>();
+                for (Rectangle2D.Double r : ((LineConnectionFigure) figure).getSegmentAreas()) {
+                    Segment segment = new Segment(figure);
+                    list.add(segment);
+                    segmentAreas.put(segment, r);
+                }
+                segments.put(figure, list);
+            } else {
+                areas.put(figure, figure.getDrawingArea());
+            }
+            updateTransformed(figure);
+            figure.addFigureListener(figureHandler);
+        }
+        quadTree.addAll(areas);
+        segmentIndex.addAll(segmentAreas);
+        needsSorting = true;
+    }
     public void basicRemove(Figure figure) {
         figures.remove(figure);
-        quadTree.remove(figure);
+        stamps.remove(figure);
+        transformedBounds.remove(figure);
+        transformedFigures.remove(figure);
+        if (isSegmented(figure)) {
+            ArrayList<Segment> list = segments.remove(figure);
+            if (list != null) {
+                for (Segment segment : list) {
+                    segmentIndex.remove(segment);
+                }
+            }
+        } else {
+            quadTree.remove(figure);
+        }
         figure.removeFigureListener(figureHandler);
         needsSorting = true;
     }
@@ -77,28 +217,137 @@ public class QuadTreeDrawing extends AbstractDrawing {
     public void draw(Graphics2D g) {
         Rectangle2D clipBounds = g.getClipBounds();
         if (clipBounds != null) {
-            Collection<Figure> c = quadTree.findIntersects(clipBounds);
-            Collection<Figure> toDraw = sort(c);
+            ArrayList<Figure> toDraw = acquireBuffer();
+            Rectangle2D.Double r = toDraw == buffer ? clipRect : new Rectangle2D.Double();
+            r.setRect(clipBounds);
+            ensureStamped();
+            quadTree.findIntersects(r, toDraw);
+            findSegments(r, toDraw);
+            sortUnique(toDraw);
             draw(g, toDraw);
+            releaseBuffer(toDraw);
         } else {
             draw(g, figures);
         }
     }
     
+    /**
+     * Returns true if the figure is indexed by its segments.
+     */
+    private boolean isSegmented(Figure figure) {
+        return figure instanceof LineConnectionFigure;
+    }
+    
+    /**
+     * Indexes the segments of a connection. The segments which the
+     * connection had before are moved, so that a connection which keeps its
+     * number of segments is updated in place.
+     */
+    private void updateSegments(Figure figure) {
+        ArrayList<Segment> list = segments.get(figure);
+        if (list == null) {
+            list = new ArrayList<Segment>();
+            segments.put(figure, list);
+        }
+        java.util.List<Rectangle2D.Double> areas = ((LineConnectionFigure) figure).getSegmentAreas();
+        for (int i = 0; i < areas.size(); i++) {
+            if (i < list.size()) {
+                segmentIndex.update(list.get(i), areas.get(i));
+            } else {
+                Segment segment = new Segment(figure);
+                list.add(segment);
+                segmentIndex.add(segment, areas.get(i));
+            }
+        }
+        while (list.size() > areas.size()) {
+            segmentIndex.remove(list.remove(list.size() - 1));
+        }
+    }
+    
+    /**
+     * Adds the connections which have a segment intersecting the rectangle.
+     * A connection is added once for each such segment.
+     */
+    private void findSegments(Rectangle2D.Double r, Collection<Figure> result) {
+        segmentCollector.result = result;
+        segmentIndex.findIntersects(r, segmentCollector);
+        segmentCollector.result = null;
+    }
+    
+    /**
+     * Returns the figures whose drawing area, or one of whose segments,
+     * contains the point.
+     */
+    private Collection<Figure> findContains(Point2D.Double p) {
+        HashSet<Figure> result = new HashSet<Figure>(quadTree.findContains(p));
+        segmentCollector.result = result;
+        segmentIndex.findContains(p, segmentCollector);
+        segmentCollector.result = null;
+        return result;
+    }
+    
+    /**
+     * Sorts figures in z-order and removes the duplicates which connections
+     * found through several segments leave.
+     */
+    private void sortUnique(ArrayList<Figure> c) {
+        ensureStamped();
+        Collections.sort(c, zOrderComparator);
+        int j = 0;
+        for (int i = 0, n = c.size(); i < n; i++) {
+            Figure f = c.get(i);
+            if (j == 0 || c.get(j - 1) != f) {
+                c.set(j++, f);
+            }
+        }
+        while (c.size() > j) {
+            c.remove(c.size() - 1);
+        }
+    }
+    
+    /**
+     * Takes the buffer for the figures found by a query. A query which runs
+     * while the buffer is in use gets a buffer of its own.
+     */
+    private ArrayList<Figure> acquireBuffer() {
+        ArrayList<Figure> b = buffer;
+        if (b == null || isBufferInUse) {
+            allocationCount++;
+            return new ArrayList<Figure>();
+        }
+        isBufferInUse = true;
+        return b;
+    }
+    
+    private void releaseBuffer(ArrayList<Figure> b) {
+        b.clear();
+        if (b == buffer) {
+            isBufferInUse = false;
+        }
+    }
+    
     /**
      * Implementation note: Sorting can not be done for orphaned figures.
      */
     public java.util.List<Figure> sort(Collection<Figure> c) {
-        ensureSorted();
+        ensureStamped();
         ArrayList<Figure> sorted = new ArrayList<Figure>(c.size());
-        for (Figure f : figures) {
-            if (c.contains(f)) {
+        for (Figure f : c) {
+            if (stamps.containsKey(f)) {
                 sorted.add(f);
             }
         }
+        Collections.sort(sorted, zOrderComparator);
         return sorted;
     }
     
+    /**
+     * Sorts the figures in z-order from front to back.
+     */
+    private java.util.List<Figure> sortFrontToBack(Collection<Figure> c) {
+        return new ReversedList<Figure>(sort(c));
+    }
+    
     public void draw(Graphics2D g, Collection<Figure> c) {
         for (Figure f : c) {
             f.draw(g);
@@ -108,7 +357,21 @@ public class QuadTreeDrawing extends AbstractDrawing {
     
     
     public java.util.List<Figure> getFigures(Rectangle2D.Double bounds) {
-        return new LinkedList(quadTree.findInside(bounds));
+        LinkedList<Figure> inside = new LinkedList<Figure>(quadTree.findInside(bounds));
+        // A connection lies inside if its segments, which are inside its
+        // drawing area, lie inside
+        ArrayList<Figure> c = acquireBuffer();
+        segmentCollector.result = c;
+        segmentIndex.findInside(bounds, segmentCollector);
+        segmentCollector.result = null;
+        sortUnique(c);
+        for (Figure f : c) {
+            if (bounds.contains(f.getDrawingArea())) {
+                inside.add(f);
+            }
+        }
+        releaseBuffer(c);
+        return inside;
     }
     
     public java.util.List<Figure> getFigures() {
@@ -116,14 +379,8 @@ public class QuadTreeDrawing extends AbstractDrawing {
     }
     
     public Figure findFigureInside(Point2D.Double p) {
-        Collection<Figure> c = quadTree.findContains(p);
-        for (Figure f : getFiguresFrontToBack()) {
-            if (c.contains(f) && f.contains(p)){
-                return f.findFigureInside(p);
-            }
-        }
-        return null;
-        
+        Figure f = findFigureExcept(p, null, null);
+        return (f == null) ? null : f.findFigureInside(p);
     }
     
     /**
@@ -136,115 +393,280 @@ public class QuadTreeDrawing extends AbstractDrawing {
     }
     
     public Figure findFigure(Point2D.Double p) {
-        Collection<Figure> c = quadTree.findContains(p);
-        switch (c.size()) {
-            case 0 :
-                return null;
-            case 1: {
-                Figure f = c.iterator().next();
-                return (f.contains(p)) ? f : null;
-            }
-            default : {
-                for (Figure f : getFiguresFrontToBack()) {
-                    if (c.contains(f) && f.contains(p)) return f;
-                }
-                return null;
-            }
-        }
+        return findFigureExcept(p, null, null);
     }
     public Figure findFigureExcept(Point2D.Double p, Figure ignore) {
-        Collection<Figure> c = quadTree.findContains(p);
-        switch (c.size()) {
-            case 0 : {
-                return null;
-            }
-            case 1: {
-                Figure f = c.iterator().next();
-                return (f == ignore || ! f.contains(p)) ? null : f;
-            }
-            default : {
-                for (Figure f : getFiguresFrontToBack()) {
-                    if (f != ignore && f.contains(p)) return f;
-                }
-                return null;
-            }
-        }
+        return findFigureExcept(p, ignore, null);
     }
     public Figure findFigureExcept(Point2D.Double p, Collection ignore) {
-        Collection<Figure> c = quadTree.findContains(p);
-        switch (c.size()) {
-            case 0 : {
-                return null;
-            }
-            case 1: {
-                Figure f = c.iterator().next();
-                return (! ignore.contains(f) || ! f.contains(p)) ? null : f;
+        return findFigureExcept(p, null, ignore);
+    }
+    
+    /**
+     * Returns the front most figure which contains the point, except the
+     * ignored figures. The candidates found by the spatial index are visited
+     * in any order; a candidate is only tested for containment if it is in
+     * front of the figure found so far.
+     */
+    private Figure findFigureExcept(Point2D.Double p, Figure ignore, Collection<?> ignored) {
+        return findFigureExcept(p, ignore, ignored, false);
+    }
+    
+    /**
+     * Returns the front most figure which contains the point, except the
+     * ignored figures, and, if isConnectable is true, except the figures
+     * which can not be connected or which include the ignored figure.
+     */
+    private Figure findFigureExcept(Point2D.Double p, Figure ignore, Collection<?> ignored, boolean isConnectable) {
+        ensureStamped();
+        HitVisitor v = hitVisitor;
+        if (v == null) {
+            allocationCount++;
+            v = new HitVisitor();
+        }
+        hitVisitor = null;
+        v.point = p;
+        v.ignore = ignore;
+        v.ignored = ignored;
+        v.isConnectable = isConnectable;
+        quadTree.findContains(p, v);
+        segmentIndex.findContains(p, v);
+        Figure found = v.found;
+        v.point = null;
+        v.ignore = null;
+        v.ignored = null;
+        v.found = null;
+        hitVisitor = v;
+        return found;
+    }
+    
+    /**
+     * Looks for a connectable figure which contains the point with the hit
+     * visitor, and then for the nearest one with a nearest neighbour query
+     * on the spatial index and on the segment index. The cost depends on the
+     * number of figures near the point, and not on the size of the drawing.
+     */
+    public Figure findConnectableFigure(Point2D.Double p, double snapRadius, Figure ignore) {
+        Figure found = findFigureExcept(p, ignore, null, true);
+        if (found != null || snapRadius <= 0) {
+            return found;
+        }
+        NearestVisitor v = nearestVisitor;
+        if (v == null) {
+            allocationCount++;
+            v = new NearestVisitor();
+        }
+        nearestVisitor = null;
+        v.ignore = ignore;
+        quadTree.findNearest(p, snapRadius, v);
+        found = v.found;
+        v.found = null;
+        // A connection is only nearer if one of its segments is
+        double distance = (found == null) ? snapRadius : Geom.distance(found.getDrawingArea(), p);
+        segmentIndex.findNearest(p, distance, v);
+        if (v.found != null) {
+            found = v.found;
+        }
+        v.ignore = null;
+        v.found = null;
+        nearestVisitor = v;
+        return found;
+    }
+    
+    private static boolean isConnectable(Figure f, Figure ignore) {
+        return f.isVisible() && f.canConnect() && ! f.includes(ignore);
+    }
+    
+    /**
+     * Finds the front most figure which contains a point.
+     */
+    private class HitVisitor implements SpatialIndex.Visitor<Object> {
+        private Point2D.Double point;
+        private Figure ignore;
+        private Collection<?> ignored;
+        private boolean isConnectable;
+        private Figure found;
+        
+        public boolean visit(Object o) {
+            Figure f = (o instanceof Segment) ? ((Segment) o).figure : (Figure) o;
+            if ((isConnectable ? isConnectable(f, ignore) : f != ignore) &&
+                    (ignored == null || ! ignored.contains(f)) &&
+                    (found == null || zOrderComparator.compare(f, found) > 0) &&
+                    f.contains(point)) {
+                found = f;
             }
-            default : {
-                for (Figure f : getFiguresFrontToBack()) {
-                    if (! ignore.contains(f) && f.contains(p)) return f;
-                }
-                return null;
+            return true;
+        }
+    }
+    
+    /**
+     * Finds the nearest figure which can be connected.
+     */
+    private static class NearestVisitor implements SpatialIndex.Visitor<Object> {
+        private Figure ignore;
+        private Figure found;
+        
+        public boolean visit(Object o) {
+            Figure f = (o instanceof Segment) ? ((Segment) o).figure : (Figure) o;
+            if (isConnectable(f, ignore)) {
+                found = f;
+                return false;
             }
+            return true;
+        }
+    }
+    
+    /**
+     * A segment of a connection in the segment index.
+     */
+    private static class Segment {
+        private Figure figure;
+        
+        public Segment(Figure figure) {
+            this.figure = figure;
         }
     }
+    
+    /**
+     * Adds the connections of the segments found to a collection.
+     */
+    private static class SegmentCollector implements SpatialIndex.Visitor<Segment> {
+        private Collection<Figure> result;
+        
+        public boolean visit(Segment segment) {
+            result.add(segment.figure);
+            return true;
+        }
+    }
+    
+    /**
+     * Returns the number of buffers and visitors the queries have
+     * allocated, including those of the spatial index if it counts them.
+     * Once the drawing has been painted and hit tested, the figure queries
+     * allocate nothing, unless they run while another query is in progress.
+     */
+    public long getAllocationCount() {
+        long count = allocationCount;
+        if (quadTree instanceof AABBTree) {
+            count += ((AABBTree) quadTree).getAllocationCount();
+        }
+        if (segmentIndex instanceof AABBTree) {
+            count += ((AABBTree) segmentIndex).getAllocationCount();
+        }
+        return count;
+    }
     public Figure findFigureBehind(Point2D.Double p, Figure figure) {
-        boolean isBehind = false;
-        for (Figure f : getFiguresFrontToBack()) {
-            if (isBehind) {
-                if (f.isVisible() && f.contains(p)) {
-                    return f;
-                }
-            } else {
-                isBehind = figure == f;
+        ensureStamped();
+        if (! stamps.containsKey(figure)) {
+            return null;
+        }
+        for (Figure f : sortFrontToBack(findContains(p))) {
+            if (zOrderComparator.compare(f, figure) < 0 &&
+                    f.isVisible() && f.contains(p)) {
+                return f;
             }
         }
         return null;
     }
     public Figure findFigureBehind(Point2D.Double p, Collection<Figure> figures) {
-        int inFrontOf = figures.size();
-        for (Figure f : getFiguresFrontToBack()) {
-            if (inFrontOf == 0) {
-                if (f.isVisible() && f.contains(p)) {
-                    return f;
-                }
-            } else {
-                if (figures.contains(f)) {
-                    inFrontOf--;
-                }
+        ensureStamped();
+        Figure back = null;
+        for (Figure f : figures) {
+            if (! stamps.containsKey(f)) {
+                return null;
+            }
+            if (back == null || zOrderComparator.compare(f, back) < 0) {
+                back = f;
+            }
+        }
+        for (Figure f : sortFrontToBack(findContains(p))) {
+            if ((back == null || zOrderComparator.compare(f, back) < 0) &&
+                    f.isVisible() && f.contains(p)) {
+                return f;
             }
         }
         return null;
     }
     
     public java.util.List<Figure> findFigures(Rectangle2D.Double r) {
-        LinkedList<Figure> c = new LinkedList<Figure>(quadTree.findIntersects(r));
+        ArrayList<Figure> c = acquireBuffer();
+        quadTree.findIntersects(r, c);
+        findSegments(r, c);
+        java.util.List<Figure> result;
         switch (c.size()) {
             case 0 :
                 // fall through
             case 1:
-                return c;
+                result = new LinkedList<Figure>(c);
+                break;
             default :
-                return sort(c);
+                sortUnique(c);
+                result = new ArrayList<Figure>(c);
+                break;
         }
+        releaseBuffer(c);
+        return result;
     }
+    /**
+     * Returns the visible figures whose bounds lie inside the specified
+     * rectangle. The candidates are the figures whose drawing area
+     * intersects the rectangle, because the drawing area of a figure
+     * includes its bounds, and the figures with a TRANSFORM attribute.
+     */
     public java.util.List<Figure> findFiguresWithin(Rectangle2D.Double bounds) {
-        LinkedList<Figure> contained = new LinkedList<Figure>();
-        for (Figure f : figures) {
-            Rectangle2D r = f.getBounds();
-            if (AttributeKeys.TRANSFORM.get(f) != null) {
-                r = AttributeKeys.TRANSFORM.get(f).createTransformedShape(r).getBounds2D();
+        ArrayList<Figure> c = acquireBuffer();
+        quadTree.findIntersects(bounds, c);
+        findSegments(bounds, c);
+        ArrayList<Figure> contained = new ArrayList<Figure>();
+        for (Figure f : c) {
+            if (! transformedFigures.contains(f) &&
+                    f.isVisible() && bounds.contains(getTransformedBounds(f))) {
+                contained.add(f);
             }
-            if (f.isVisible() && bounds.contains(r)) {
+        }
+        releaseBuffer(c);
+        for (Figure f : transformedFigures) {
+            if (f.isVisible() && bounds.contains(getTransformedBounds(f))) {
                 contained.add(f);
             }
         }
+        if (contained.size() > 1) {
+            sortUnique(contained);
+        }
         return contained;
     }
     
+    private void updateTransformed(Figure f) {
+        if (AttributeKeys.TRANSFORM.get(f) != null) {
+            transformedFigures.add(f);
+        } else {
+            transformedFigures.remove(f);
+        }
+    }
+    
+    /**
+     * Returns the bounds of a figure, transformed by its TRANSFORM
+     * attribute if it has one. The bounds are computed once per figure and
+     * kept until the figure changes.
+     */
+    private Rectangle2D.Double getTransformedBounds(Figure f) {
+        Rectangle2D.Double r = transformedBounds.get(f);
+        if (r == null) {
+            r = new Rectangle2D.Double();
+            if (AttributeKeys.TRANSFORM.get(f) != null) {
+                r.setRect(AttributeKeys.TRANSFORM.get(f).createTransformedShape(f.getBounds()).getBounds2D());
+            } else {
+                r.setRect(f.getBounds());
+            }
+            transformedBounds.put(f, r);
+        }
+        return r;
+    }
+    
     public void bringToFront(Figure figure) {
         if (figures.remove(figure)) {
             figures.add(figure);
+            stamps.put(figure, ++lastStamp);
             needsSorting = true;
             fireAreaInvalidated(figure.getDrawingArea());
         }
@@ -252,13 +674,14 @@ public class QuadTreeDrawing extends AbstractDrawing {
     public void sendToBack(Figure figure) {
         if (figures.remove(figure)) {
             figures.add(0, figure);
+            stamps.put(figure, --firstStamp);
             needsSorting = true;
             fireAreaInvalidated(figure.getDrawingArea());
         }
     }
     
     public boolean contains(Figure f) {
-        return figures.contains(f);
+        return stamps.containsKey(f);
     }
     
     /**
@@ -271,6 +694,23 @@ public class QuadTreeDrawing extends AbstractDrawing {
         }
     }
     
+    /**
+     * Renumbers the z-order stamps in list order, if a figure has been
+     * inserted between two other figures. Sorting the list by layer keeps
+     * the order of the figures of the same layer, and thus the stamps valid.
+     */
+    private void ensureStamped() {
+        if (needsStamping) {
+            long stamp = 0;
+            for (Figure f : figures) {
+                stamps.put(f, stamp++);
+            }
+            firstStamp = 0;
+            lastStamp = stamp - 1;
+            needsStamping = false;
+        }
+    }
+    
     public void setCanvasSize(Dimension2DDouble newValue) {
         Dimension2DDouble oldValue = canvasSize;
         canvasSize = newValue;
@@ -294,13 +734,22 @@ public class QuadTreeDrawing extends AbstractDrawing {
         }
         
         @Override public void figureAreaInvalidated(FigureEvent e) {
-            fireAreaInvalidated(e.getInvalidatedArea());
+            fireAreaInvalidated(e.getFigure(), e.getInvalidatedArea());
         }
         @Override public void figureChanged(FigureEvent e) {
-            quadTree.remove(e.getFigure());
-            quadTree.add(e.getFigure(), e.getFigure().getDrawingArea());
-            needsSorting = true;
-            fireAreaInvalidated(e.getInvalidatedArea());
+            // A composite figure may pass on the events of its children, for
+            // which it fires an event of its own. Only our figures are indexed.
+            if (stamps.containsKey(e.getFigure())) {
+                if (isSegmented(e.getFigure())) {
+                    updateSegments(e.getFigure());
+                } else {
+                    quadTree.update(e.getFigure(), e.getFigure().getDrawingArea());
+                }
+                transformedBounds.remove(e.getFigure());
+                updateTransformed(e.getFigure());
+                needsSorting = true;
+            }
+            fireAreaInvalidated(e.getFigure(), e.getInvalidatedArea());
         }
         @Override public void figureRequestRemove(FigureEvent e) {
             remove(e.getFigure());
@@ -0,0 +1,301 @@
+package org.jhotdraw.draw;
+
+import java.awt.Color;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.*;
+
+import javax.swing.JComponent;
+
+import org.jhotdraw.ddl.Schema;
+import org.jhotdraw.enums.AttributeTypeEnum;
+import org.jhotdraw.interfaces.AttributeTypeElement;
+import org.jhotdraw.io.ExtensionFileFilter;
+
+/**
+ * An input format which reverse engineers an ER diagram from the
+ * {@code CREATE TABLE} and {@code ALTER TABLE} statements of a SQL script.
+ * <p>
+ * Each table becomes an entity with an attribute for each column; the
+ * columns of the primary key become key attributes. Each foreign key
+ * becomes an N:1 relationship between the referencing and the referenced
+ * entity, and its columns are not shown as attributes. A table whose
+ * primary key consists of the columns of exactly two foreign keys becomes
+ * an N:N relationship instead of an entity.
+ * <p>
+ * The script is parsed one statement at a time into a {@link Schema}. The
+ * figures are then laid out on a grid and added to the drawing with a
+ * single {@link Drawing#addAll} call, so that the drawing and the object
+ * inspector are updated once and not once per figure.
+ */
+public class SQLInputFormat implements InputFormat {
+    private final static double CELL_WIDTH = 340;
+    private final static double ATTRIBUTE_SPACING = 28;
+    private final static Color ENTITY_FILL = new Color(235, 255, 232);
+    private final static Color RELATIONSHIP_FILL = new Color(221, 221, 255);
+    private final static Color ATTRIBUTE_FILL = new Color(255, 235, 235);
+
+    /** Creates a new instance. */
+    public SQLInputFormat() {
+    }
+
+    public javax.swing.filechooser.FileFilter getFileFilter() {
+        return new ExtensionFileFilter("SQL DDL (sql)", "sql");
+    }
+
+    public JComponent getInputFormatAccessory() {
+        return null;
+    }
+
+    public void read(File file, Drawing drawing) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            read(in, drawing);
+        } finally {
+            in.close();
+        }
+    }
+
+    public void read(InputStream in, Drawing drawing) throws IOException {
+        Schema schema = new Schema();
+        schema.read(new InputStreamReader(in, "UTF-8"));
+        drawing.addAll(createFigures(schema));
+    }
+
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+        return false;
+    }
+
+    public List<Figure> readFigures(Transferable t) throws UnsupportedFlavorException, IOException {
+        throw new UnsupportedFlavorException(DataFlavor.stringFlavor);
+    }
+
+    /**
+     * Creates the figures of the ER diagram of a schema.
+     */
+    public List<Figure> createFigures(Schema schema) {
+        ArrayList<Figure> figures = new ArrayList<Figure>();
+        ArrayList<Figure> connections = new ArrayList<Figure>();
+        HashMap<String, Figure> entities = new HashMap<String, Figure>();
+        LinkedHashMap<Schema.Table, Figure> associations = new LinkedHashMap<Schema.Table, Figure>();
+
+        int columns = (int) Math.ceil(Math.sqrt(schema.getTables().size()));
+        int column = 0;
+        double x = 20, y = 20, rowHeight = 0;
+        for (Schema.Table t : schema.getTables()) {
+            List<Schema.Constraint> foreignKeys = getForeignKeys(schema, t);
+            boolean isAssociation = isAssociation(t, foreignKeys);
+
+            Figure node = isAssociation
+                    ? create(new RelacionamentoFigure().init(), t.getName(), x, y, 50, RELATIONSHIP_FILL)
+                    : create(new EntidadeFigure().init(), t.getName(), x, y, 40, ENTITY_FILL);
+            figures.add(node);
+            if (isAssociation) {
+                associations.put(t, node);
+            } else {
+                entities.put(t.getName().toUpperCase(), node);
+            }
+
+            HashSet<String> foreignKeyColumns = new HashSet<String>();
+            for (Schema.Constraint c : foreignKeys) {
+                for (String name : c.getColumns()) {
+                    foreignKeyColumns.add(name.toUpperCase());
+                }
+            }
+            HashSet<String> keyColumns = new HashSet<String>();
+            Schema.Constraint primaryKey = t.getPrimaryKey();
+            if (primaryKey != null && ! isAssociation) {
+                for (String name : primaryKey.getColumns()) {
+                    keyColumns.add(name.toUpperCase());
+                }
+            }
+
+            double ax = node.getBounds().getMaxX() + 40;
+            double ay = y;
+            for (Schema.Column c : t.getColumns()) {
+                String key = c.getName().toUpperCase();
+                if (foreignKeyColumns.contains(key) && ! keyColumns.contains(key)) {
+                    continue;
+                }
+                GroupFigure a = keyColumns.contains(key)
+                        ? create(new AtributoChaveFigure().init(), c.getName(), ax, ay, 20, ATTRIBUTE_FILL)
+                        : create(new AtributoFigure().init(), c.getName(), ax, ay, 20, ATTRIBUTE_FILL);
+                AttributeTypeElement e = (AttributeTypeElement) a;
+                e.setAttributeType(getAttributeType(c.getType()));
+                e.setNullable(c.isNullable());
+                figures.add(a);
+                connections.add(connect(new LineConnectionFigure(), node, a));
+                ay += ATTRIBUTE_SPACING;
+            }
+
+            rowHeight = Math.max(rowHeight, Math.max(ay - y, 60) + 60);
+            if (++column < columns) {
+                x += CELL_WIDTH;
+            } else {
+                column = 0;
+                x = 20;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+        }
+
+        int count = 0;
+        for (Schema.Table t : schema.getTables()) {
+            Figure node = entities.get(t.getName().toUpperCase());
+            if (node == null) {
+                continue;
+            }
+            for (Schema.Constraint c : getForeignKeys(schema, t)) {
+                Figure referenced = entities.get(c.getReferencedTable().toUpperCase());
+                if (referenced == null) {
+                    continue;
+                }
+                Point2D.Double p = center(node, referenced, count++);
+                Figure r = create(new RelacionamentoFigure().init(),
+                        c.getName() == null ? t.getName() + "_" + c.getReferencedTable() : c.getName(),
+                        p.x, p.y, 50, RELATIONSHIP_FILL);
+                figures.add(r);
+                connections.add(connect(new LabeledLineConnectionMuitosFigure(), node, r));
+                connections.add(connect(new LabeledLineConnectionUmFigure(), referenced, r));
+            }
+        }
+        for (Map.Entry<Schema.Table, Figure> entry : associations.entrySet()) {
+            for (Schema.Constraint c : getForeignKeys(schema, entry.getKey())) {
+                Figure referenced = entities.get(c.getReferencedTable().toUpperCase());
+                if (referenced != null) {
+                    connections.add(connect(new LabeledLineConnectionMuitosFigure(), referenced, entry.getValue()));
+                }
+            }
+        }
+
+        figures.addAll(connections);
+        return figures;
+    }
+
+    /**
+     * Returns the foreign keys of a table which reference a table of the
+     * schema.
+     */
+    private static List<Schema.Constraint> getForeignKeys(Schema schema, Schema.Table t) {
+        ArrayList<Schema.Constraint> list = new ArrayList<Schema.Constraint>();
+        for (Schema.Constraint c : t.getConstraints()) {
+            if (c.isForeignKey() && c.getReferencedTable() != null &&
+                    schema.getTable(c.getReferencedTable()) != null) {
+                list.add(c);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns true if the primary key of a table consists of the columns of
+     * exactly two foreign keys which reference other tables.
+     */
+    private static boolean isAssociation(Schema.Table t, List<Schema.Constraint> foreignKeys) {
+        Schema.Constraint primaryKey = t.getPrimaryKey();
+        if (primaryKey == null || foreignKeys.size() != 2) {
+            return false;
+        }
+        HashSet<String> columns = new HashSet<String>();
+        for (Schema.Constraint c : foreignKeys) {
+            if (c.getReferencedTable().equalsIgnoreCase(t.getName())) {
+                return false;
+            }
+            for (String name : c.getColumns()) {
+                columns.add(name.toUpperCase());
+            }
+        }
+        HashSet<String> keyColumns = new HashSet<String>();
+        for (String name : primaryKey.getColumns()) {
+            keyColumns.add(name.toUpperCase());
+        }
+        return columns.equals(keyColumns);
+    }
+
+    /**
+     * Returns the attribute type of a column type, or null if there is no
+     * matching attribute type.
+     */
+    public static AttributeTypeEnum getAttributeType(String columnType) {
+        AttributeTypeEnum type = AttributeTypeEnum.getAttributeTypeByString(columnType);
+        if (type != null) {
+            return type;
+        }
+        String s = columnType.toUpperCase();
+        if (s.startsWith("DATE") || s.startsWith("TIME")) {
+            return AttributeTypeEnum.DATE;
+        } else if (s.contains("VAR") || s.contains("TEXT") || s.contains("CLOB") || s.contains("STRING")) {
+            return AttributeTypeEnum.TEXT;
+        } else if (s.startsWith("CHAR") || s.startsWith("NCHAR")) {
+            return AttributeTypeEnum.CHAR;
+        } else if (s.contains("INT") || s.contains("SERIAL") || s.equals("NUMBER") ||
+                (s.startsWith("NUMBER(") && ! s.contains(","))) {
+            return AttributeTypeEnum.INTEGER;
+        } else if (s.startsWith("NUM") || s.startsWith("DEC") || s.startsWith("FLOAT") ||
+                s.startsWith("REAL") || s.startsWith("DOUBLE")) {
+            return AttributeTypeEnum.NUMBER;
+        }
+        return null;
+    }
+
+    /**
+     * Names a new ER figure and lays it out with the style of the figures
+     * created by the {@link CreationTool}.
+     * <p>
+     * The name is set without firing an attribute change, because the
+     * figures listen to their text to update the object inspector.
+     */
+    private static <T extends GroupFigure> T create(T f, String name, double x, double y, double height, Color fill) {
+        TextFigure text = null;
+        for (Figure child : f.getChildren()) {
+            if (child instanceof TextFigure) {
+                text = (TextFigure) child;
+            }
+        }
+        AttributeKeys.TEXT.basicSet(text, name);
+        text.invalidate();
+        Rectangle2D.Double tb = text.getBounds();
+        double width = Math.max(80, tb.width + ((f instanceof RelacionamentoFigure) ? 50 : 24));
+
+        f.willChange();
+        for (Figure child : f.getChildren()) {
+            if (child == text) {
+                child.setBounds(
+                        new Point2D.Double(x + (width - tb.width) / 2, y + (height - tb.height) / 2),
+                        new Point2D.Double(x + (width + tb.width) / 2, y + (height + tb.height) / 2));
+            } else {
+                child.setBounds(new Point2D.Double(x, y), new Point2D.Double(x + width, y + height));
+                AttributeKeys.FILL_COLOR.basicSet(child, fill);
+            }
+        }
+        f.changed();
+        return f;
+    }
+
+    private static LineConnectionFigure connect(LineConnectionFigure c, Figure start, Figure end) {
+        c.setStartConnector(new ChopRectangleConnector(start));
+        c.setEndConnector(new ChopRectangleConnector(end));
+        return c;
+    }
+
+    /**
+     * Returns the location of the n-th relationship between two entities,
+     * in the middle between them.
+     */
+    private static Point2D.Double center(Figure a, Figure b, int n) {
+        Rectangle2D.Double r = a.getBounds();
+        Rectangle2D.Double s = b.getBounds();
+        return new Point2D.Double(
+                (r.getCenterX() + s.getCenterX()) / 2 - 40 + (n % 4) * 12,
+                (r.getCenterY() + s.getCenterY()) / 2 - 25 + (n % 4) * 12);
+    }
+}
@@ -0,0 +1,89 @@
+package org.jhotdraw.draw;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Draws the outline of the bounds of a selection of figures. The drawing
+ * view uses this handle in place of the handles of the figures, when so
+ * many figures are selected that creating all their handles would make
+ * the view slow.
+ * <p>
+ * The handle listens to all figures of the selection, and computes the
+ * bounds of all figures whenever one of them changes. Figures which are
+ * removed from the drawing are dropped from the outline.
+ */
+public class SelectionOutlineHandle extends AbstractHandle {
+    private final static Color HANDLE_STROKE_COLOR = new Color(0x00a8ff);
+
+    private ArrayList<Figure> figures;
+
+    public SelectionOutlineHandle(Collection<Figure> figures) {
+        super(figures.iterator().next());
+        this.figures = new ArrayList<Figure>(figures);
+        for (Figure f : this.figures) {
+            if (f != getOwner()) {
+                f.addFigureListener(this);
+            }
+        }
+    }
+
+    @Override protected Rectangle basicGetBounds() {
+        Rectangle2D.Double r = null;
+        for (Figure f : figures) {
+            if (r == null) {
+                r = f.getBounds();
+            } else {
+                r.add(f.getBounds());
+            }
+        }
+        return view.drawingToView(r);
+    }
+    @Override public boolean contains(Point p) {
+        return false;
+    }
+
+    public void trackStart(Point anchor, int modifiersEx) {
+    }
+
+    public void trackStep(Point anchor, Point lead, int modifiersEx) {
+    }
+
+    public void trackEnd(Point anchor, Point lead, int modifiersEx) {
+    }
+
+    @Override public void draw(Graphics2D g) {
+        Rectangle r = getBounds();
+        g.setColor(HANDLE_STROKE_COLOR);
+        g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+    }
+
+    @Override public void figureRemoved(FigureEvent e) {
+        Figure f = e.getFigure();
+        if (figures != null && figures.remove(f)) {
+            if (f != getOwner()) {
+                f.removeFigureListener(this);
+            }
+            if (figures.isEmpty()) {
+                fireHandleRequestRemove(getDrawingArea());
+            } else {
+                updateBounds();
+            }
+        }
+    }
+
+    @Override public void dispose() {
+        for (Figure f : figures) {
+            if (f != getOwner()) {
+                f.removeFigureListener(this);
+            }
+        }
+        super.dispose();
+        figures = null;
+    }
+}
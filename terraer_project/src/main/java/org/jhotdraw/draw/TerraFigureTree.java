@@ -1,5 +1,7 @@
 package org.jhotdraw.draw;
 
+import java.awt.GraphicsEnvironment;
+
 import javax.swing.ImageIcon;
 import javax.swing.JTree;
 import javax.swing.event.TreeSelectionEvent;
@@ -60,6 +62,15 @@ public class TerraFigureTree extends JTree {
 		return instance;
 	}
 
+	/**
+	 * Returns the object inspector, or null in a headless environment, where
+	 * drawings are processed without a user interface and must not be added
+	 * to the inspector.
+	 */
+	public static TerraFigureTree getInspector() {
+		return GraphicsEnvironment.isHeadless() ? null : getInstance();
+	}
+
 	protected void buildTreeNodes() {
 		ResourceBundleUtil labels = ResourceBundleUtil.getLAFBundle("org.jhotdraw.app.Labels");
 		
@@ -110,6 +121,21 @@ public class TerraFigureTree extends JTree {
 
 	}
 
+	/**
+	 * Adds several figures, reloading each node of the tree at most once.
+	 */
+	public void addAll(java.util.Collection<Figure> figures) {
+		java.util.HashSet<DefaultMutableTreeNode> changedNodes = new java.util.HashSet<DefaultMutableTreeNode>();
+		for (Figure f : figures) {
+			DefaultMutableTreeNode Node = chooseApropriateNode(f);
+			Node.add(new DefaultMutableTreeNode(f));
+			changedNodes.add(Node);
+		}
+		for (DefaultMutableTreeNode Node : changedNodes) {
+			dtmTreeModel.reload(Node);
+		}
+	}
+
 	public void remove(Figure f) {
 		DefaultMutableTreeNode Node = chooseApropriateNode(f);
 		java.util.Enumeration<DefaultMutableTreeNode> NodeChildren = Node.children();
@@ -74,7 +74,10 @@ public class TerraResizeEventFunctions {
 
     	if(e1!=null && e2!=null && !e1.toString().equals(e2.toString())){
 
-    		TerraFigureTree.getInstance().refresh(Owner);
+    		TerraFigureTree inspector = TerraFigureTree.getInspector();
+    		if(inspector!=null){
+    			inspector.refresh(Owner);
+    		}
 
     		//Resize rectangle according to the new text if necessary
     		Rectangle2D.Double GeoBounds=Geo.getBounds();
@@ -105,6 +105,13 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
     }
     
     // DRAWING
+    /**
+     * Text is simplified by its font size, see {@link #drawText}.
+     */
+    protected boolean isSimplified(Graphics2D g) {
+        return false;
+    }
+    
     protected void drawText(Graphics2D g) {
         if (getText() != null || isEditable()) {
             Font font = getFont();
@@ -128,7 +135,16 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
                     tabStops[i] = (float) (textRect.x + (int) (tabWidth * (i + 1)));
                 }
                 
-                if (getText() != null) {
+                if (getText() != null && LevelOfDetail.isTextGreeked(g, font.getSize2D())) {
+                    // One bar for each paragraph, as far as it fits
+                    double lineHeight = font.getSize2D() * 1.2;
+                    String[] paragraphs = getText().split("\n");
+                    for (int i = 0; i < paragraphs.length && verticalPos + lineHeight <= maxVerticalPos; i++) {
+                        double width = Math.min(textRect.width, paragraphs[i].length() * font.getSize2D() / 2d);
+                        LevelOfDetail.greek(g, new Rectangle2D.Double(leftMargin, verticalPos, width, lineHeight));
+                        verticalPos += lineHeight;
+                    }
+                } else if (getText() != null) {
                     Shape savedClipArea = g.getClip();
                     g.clip(textRect);
                     
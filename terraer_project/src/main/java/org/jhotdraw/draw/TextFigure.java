@@ -82,10 +82,21 @@ public class TextFigure extends AbstractAttributedDecoratedFigure
     protected void drawFill(java.awt.Graphics2D g) {
     }
     
+    /**
+     * Text is simplified by its font size, see {@link #drawText}.
+     */
+    protected boolean isSimplified(java.awt.Graphics2D g) {
+        return false;
+    }
+    
     protected void drawText(java.awt.Graphics2D g) {
         if (getText() != null || isEditable()) {
-            TextLayout layout = getTextLayout();
-            layout.draw(g, (float) origin.x, (float) (origin.y + layout.getAscent()));
+            if (LevelOfDetail.isTextGreeked(g, getFontSize())) {
+                LevelOfDetail.greek(g, getBounds());
+            } else {
+                TextLayout layout = getTextLayout();
+                layout.draw(g, (float) origin.x, (float) (origin.y + layout.getAscent()));
+            }
         }
     }
     
@@ -0,0 +1,219 @@
+package org.jhotdraw.draw;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the rendered background, grid and drawing of a
+ * {@link DefaultDrawingView} in square tiles of view pixels.
+ * <p>
+ * Tile (col, row) covers the view pixels from (col * TILE_SIZE,
+ * row * TILE_SIZE) inclusive to ((col + 1) * TILE_SIZE, (row + 1) *
+ * TILE_SIZE) exclusive. The tiles are only valid for the scale factor, the
+ * translation and the size of the view they were rendered for; when one of
+ * them changes, the whole cache is dropped. Otherwise the view invalidates
+ * the tiles under each area of the drawing which changes, so that
+ * scrolling and exposing the view only copies images, and a change only
+ * renders the tiles it touches again.
+ * <p>
+ * The cache holds at most a fixed number of tiles and drops the least
+ * recently used tile first. The images of dropped tiles are reused for new
+ * tiles. The cache remembers which tiles have been rendered in draft
+ * quality, so that only these are rendered again when the view returns to
+ * full quality.
+ */
+public class TileCache {
+    /** The width and height of a tile in view pixels. */
+    public final static int TILE_SIZE = 256;
+
+    private int maxTiles;
+    private double scaleFactor;
+    private double translateX, translateY;
+    private int width, height;
+    private boolean isValid;
+
+    private LinkedHashMap<Long, BufferedImage> tiles;
+    /** The keys of the tiles which have been rendered in draft quality. */
+    private HashSet<Long> draftTiles = new HashSet<Long>();
+    private ArrayList<BufferedImage> freeImages = new ArrayList<BufferedImage>();
+    private long hitCount, renderCount;
+
+    /** Creates a new instance which holds up to 96 tiles. */
+    public TileCache() {
+        this(96);
+    }
+
+    /** Creates a new instance which holds up to maxTiles tiles. */
+    public TileCache(int maxTiles) {
+        this.maxTiles = maxTiles;
+        tiles = new LinkedHashMap<Long, BufferedImage>(maxTiles * 2, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                if (size() > TileCache.this.maxTiles) {
+                    freeImages.add(eldest.getValue());
+                    draftTiles.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Drops all tiles unless they have been rendered for the specified
+     * scale factor, translation and view size.
+     */
+    public void validate(double scaleFactor, double translateX, double translateY,
+            int width, int height) {
+        if (! isValid || scaleFactor != this.scaleFactor ||
+                translateX != this.translateX || translateY != this.translateY ||
+                width != this.width || height != this.height) {
+            invalidate();
+            this.scaleFactor = scaleFactor;
+            this.translateX = translateX;
+            this.translateY = translateY;
+            this.width = width;
+            this.height = height;
+            isValid = true;
+        }
+    }
+
+    /**
+     * Drops all tiles.
+     */
+    public void invalidate() {
+        freeImages.addAll(tiles.values());
+        tiles.clear();
+        draftTiles.clear();
+        while (freeImages.size() > maxTiles) {
+            freeImages.remove(freeImages.size() - 1);
+        }
+    }
+
+    /**
+     * Drops the tiles which intersect the specified rectangle in view
+     * coordinates.
+     */
+    public void invalidate(Rectangle r) {
+        if (tiles.isEmpty() || r.isEmpty()) {
+            return;
+        }
+        int col1 = floorDiv(r.x), col2 = floorDiv(r.x + r.width - 1);
+        int row1 = floorDiv(r.y), row2 = floorDiv(r.y + r.height - 1);
+        if ((long) (col2 - col1 + 1) * (row2 - row1 + 1) > tiles.size()) {
+            for (Iterator<Map.Entry<Long, BufferedImage>> i = tiles.entrySet().iterator(); i.hasNext(); ) {
+                Map.Entry<Long, BufferedImage> entry = i.next();
+                int col = (int) (entry.getKey() >> 32);
+                int row = (int) (long) entry.getKey();
+                if (col >= col1 && col <= col2 && row >= row1 && row <= row2) {
+                    freeImages.add(entry.getValue());
+                    draftTiles.remove(entry.getKey());
+                    i.remove();
+                }
+            }
+        } else {
+            for (int col = col1; col <= col2; col++) {
+                for (int row = row1; row <= row2; row++) {
+                    BufferedImage image = tiles.remove(key(col, row));
+                    if (image != null) {
+                        freeImages.add(image);
+                        draftTiles.remove(key(col, row));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the tiles which have been rendered in draft quality, and returns
+     * their areas in view coordinates.
+     */
+    public List<Rectangle> invalidateDraftTiles() {
+        ArrayList<Rectangle> areas = new ArrayList<Rectangle>(draftTiles.size());
+        for (Long key : draftTiles) {
+            BufferedImage image = tiles.remove(key);
+            if (image != null) {
+                freeImages.add(image);
+                int col = (int) (key >> 32);
+                int row = (int) (long) key;
+                areas.add(new Rectangle(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+            }
+        }
+        draftTiles.clear();
+        return areas;
+    }
+
+    /**
+     * Returns the image of a tile, or null if the tile has to be rendered.
+     */
+    public BufferedImage get(int col, int row) {
+        BufferedImage image = tiles.get(key(col, row));
+        if (image != null) {
+            hitCount++;
+        }
+        return image;
+    }
+
+    /**
+     * Stores the rendered image of a tile.
+     */
+    public void put(int col, int row, BufferedImage image) {
+        put(col, row, image, false);
+    }
+
+    /**
+     * Stores the rendered image of a tile, which has been rendered in draft
+     * quality if isDraft is true.
+     */
+    public void put(int col, int row, BufferedImage image, boolean isDraft) {
+        renderCount++;
+        tiles.put(key(col, row), image);
+        if (isDraft) {
+            draftTiles.add(key(col, row));
+        } else {
+            draftTiles.remove(key(col, row));
+        }
+    }
+
+    /**
+     * Returns an image for a new tile, reusing the image of a dropped tile
+     * if there is one. The content of the image is undefined.
+     */
+    public BufferedImage createImage() {
+        if (! freeImages.isEmpty()) {
+            return freeImages.remove(freeImages.size() - 1);
+        }
+        return new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Returns the number of tiles which have been copied from the cache.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of tiles which have been rendered.
+     */
+    public long getRenderCount() {
+        return renderCount;
+    }
+
+    /**
+     * Returns the column or row of the tile which contains a view
+     * coordinate.
+     */
+    public static int floorDiv(int v) {
+        return (v >= 0) ? v / TILE_SIZE : -((-v + TILE_SIZE - 1) / TILE_SIZE);
+    }
+
+    private static long key(int col, int row) {
+        return ((long) col << 32) | (row & 0xffffffffL);
+    }
+}
@@ -0,0 +1,750 @@
+package org.jhotdraw.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+
+/**
+ * A dynamic bounding volume tree of axis aligned bounding boxes.
+ * <p>
+ * Each object is a leaf of a balanced binary tree, and each inner node
+ * covers the boxes of its two children. Unlike a {@link QuadTree}, the tree
+ * has no fixed extent: it covers whatever area its objects cover.
+ * <p>
+ * The box of a leaf is the bounds of its object, enlarged by a margin. When
+ * the bounds of an object change but still fit into the enlarged box, which
+ * is the case for the small moves of a drag, only the bounds are updated,
+ * and the tree is left as it is. Otherwise the leaf is removed and
+ * inserted again, at the place where it enlarges the tree the least, and
+ * the tree is rebalanced with rotations on the way back to the root.
+ * <p>
+ * Adding many objects to an empty tree, or more objects than the tree
+ * holds, rebuilds the tree bottom-up in Sort-Tile-Recursive order: at each
+ * level, the nodes are sorted into vertical slices by the x coordinate of
+ * their center, and within each slice by the y coordinate, and neighbouring
+ * nodes are paired.
+ * <p>
+ * The nodes are stored in parallel arrays, and freed nodes are reused, so
+ * that updating the tree allocates nothing once the arrays have grown. The
+ * queries with a collection or a visitor reuse their traversal stack and
+ * allocate nothing either, see {@link #getAllocationCount}.
+ * <p>
+ * The nearest neighbour query searches best first: the nodes wait in a
+ * priority queue ordered by the distance of their box from the point, so
+ * that the objects come out nearest first, and the query only descends
+ * into the parts of the tree which are near the point.
+ */
+public class AABBTree<T> implements SpatialIndex<T> {
+    private final static int NULL = -1;
+
+    /** The margin by which the boxes of the leaves are enlarged. */
+    private double margin;
+
+    /* The boxes of the nodes. */
+    private double[] minX, minY, maxX, maxY;
+    /** The parent of a node, or the next free node if the node is free. */
+    private int[] parent;
+    private int[] child1, child2;
+    /** The height of the subtree of a node. Leaves have height 0. */
+    private int[] height;
+    /** The objects of the leaves. */
+    private Object[] items;
+    /** The bounds of the objects of the leaves. */
+    private Rectangle2D.Double[] bounds;
+
+    private int root = NULL;
+    private int freeList = NULL;
+    private HashMap<T, Integer> leaves = new HashMap<T, Integer>();
+    /** A stack for the traversal of the tree, reused by the queries. */
+    private int[] stack = new int[64];
+    /**
+     * A priority queue of nodes and their distances, reused by the nearest
+     * neighbour queries. It is a binary heap with the nearest node first.
+     */
+    private int[] queueNodes = new int[64];
+    private double[] queueDistances = new double[64];
+    private boolean isQueueInUse;
+    private long allocationCount;
+
+    /** Creates a new instance with a margin of 8. */
+    public AABBTree() {
+        this(8);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param margin The margin by which the boxes of the leaves are
+     * enlarged. Objects which move by less than the margin do not have to
+     * be moved in the tree.
+     */
+    public AABBTree(double margin) {
+        this.margin = margin;
+        allocateArrays(16);
+    }
+
+    private void allocateArrays(int capacity) {
+        int oldCapacity = (parent == null) ? 0 : parent.length;
+        minX = copyOf(minX, capacity);
+        minY = copyOf(minY, capacity);
+        maxX = copyOf(maxX, capacity);
+        maxY = copyOf(maxY, capacity);
+        parent = copyOf(parent, capacity);
+        child1 = copyOf(child1, capacity);
+        child2 = copyOf(child2, capacity);
+        height = copyOf(height, capacity);
+        Object[] newItems = new Object[capacity];
+        Rectangle2D.Double[] newBounds = new Rectangle2D.Double[capacity];
+        if (oldCapacity > 0) {
+            System.arraycopy(items, 0, newItems, 0, oldCapacity);
+            System.arraycopy(bounds, 0, newBounds, 0, oldCapacity);
+        }
+        items = newItems;
+        bounds = newBounds;
+        for (int i = capacity - 1; i >= oldCapacity; i--) {
+            parent[i] = freeList;
+            height[i] = -1;
+            freeList = i;
+        }
+    }
+
+    private static double[] copyOf(double[] a, int length) {
+        double[] b = new double[length];
+        if (a != null) {
+            System.arraycopy(a, 0, b, 0, a.length);
+        }
+        return b;
+    }
+
+    private static int[] copyOf(int[] a, int length) {
+        int[] b = new int[length];
+        if (a != null) {
+            System.arraycopy(a, 0, b, 0, a.length);
+        }
+        return b;
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL) {
+            allocateArrays(parent.length * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        items[node] = null;
+        bounds[node] = null;
+        freeList = node;
+    }
+
+    private boolean isLeaf(int node) {
+        return child1[node] == NULL;
+    }
+
+    /**
+     * Returns the number of objects in the tree.
+     */
+    public int size() {
+        return leaves.size();
+    }
+
+    /**
+     * Returns the height of the tree, that is the number of inner nodes on
+     * the longest path from the root to a leaf.
+     */
+    public int getHeight() {
+        return (root == NULL) ? 0 : height[root];
+    }
+
+    public void add(T o, Rectangle2D.Double r) {
+        Integer leaf = leaves.get(o);
+        if (leaf != null) {
+            update(o, r);
+        } else {
+            int node = createLeaf(o, r);
+            insertLeaf(node);
+            leaves.put(o, node);
+        }
+    }
+
+    private int createLeaf(T o, Rectangle2D.Double r) {
+        int node = allocateNode();
+        items[node] = o;
+        bounds[node] = (Rectangle2D.Double) r.clone();
+        setFatBox(node);
+        return node;
+    }
+
+    /**
+     * Sets the box of a leaf to the bounds of its object, enlarged by the
+     * margin.
+     */
+    private void setFatBox(int leaf) {
+        Rectangle2D.Double r = bounds[leaf];
+        minX[leaf] = Math.min(r.x, r.x + r.width) - margin;
+        minY[leaf] = Math.min(r.y, r.y + r.height) - margin;
+        maxX[leaf] = Math.max(r.x, r.x + r.width) + margin;
+        maxY[leaf] = Math.max(r.y, r.y + r.height) + margin;
+    }
+
+    /**
+     * Returns true if the box of a leaf still contains the bounds of its
+     * object, and is not much larger than needed.
+     */
+    private boolean fitsFatBox(int leaf) {
+        Rectangle2D.Double r = bounds[leaf];
+        double x1 = Math.min(r.x, r.x + r.width);
+        double y1 = Math.min(r.y, r.y + r.height);
+        double x2 = Math.max(r.x, r.x + r.width);
+        double y2 = Math.max(r.y, r.y + r.height);
+        return minX[leaf] <= x1 && minY[leaf] <= y1 && x2 <= maxX[leaf] && y2 <= maxY[leaf] &&
+                x1 - minX[leaf] + maxX[leaf] - x2 <= 4 * margin &&
+                y1 - minY[leaf] + maxY[leaf] - y2 <= 4 * margin;
+    }
+
+    public void addAll(Map<T, Rectangle2D.Double> objects) {
+        if (objects.size() < 2 || (root != NULL && objects.size() < leaves.size())) {
+            for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+
+        // Collect the leaves, and free the inner nodes
+        int[] nodes = new int[leaves.size() + objects.size()];
+        int count = 0;
+        if (root != NULL) {
+            int sp = 0;
+            int[] s = new int[Math.max(64, 2 * height[root] + 2)];
+            s[sp++] = root;
+            while (sp > 0) {
+                int node = s[--sp];
+                if (isLeaf(node)) {
+                    nodes[count++] = node;
+                } else {
+                    s[sp++] = child1[node];
+                    s[sp++] = child2[node];
+                    freeNode(node);
+                }
+            }
+            root = NULL;
+        }
+        for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
+            T o = entry.getKey();
+            Integer leaf = leaves.get(o);
+            if (leaf != null) {
+                bounds[leaf].setRect(entry.getValue());
+                setFatBox(leaf);
+            } else {
+                int node = createLeaf(o, entry.getValue());
+                leaves.put(o, node);
+                nodes[count++] = node;
+            }
+        }
+        build(nodes, count);
+    }
+
+    /**
+     * Builds the tree bottom-up from the specified leaves.
+     */
+    private void build(int[] nodes, int count) {
+        while (count > 1) {
+            sortTiles(nodes, count);
+            int n = 0;
+            for (int i = 0; i + 1 < count; i += 2) {
+                int node = allocateNode();
+                int a = nodes[i];
+                int b = nodes[i + 1];
+                child1[node] = a;
+                child2[node] = b;
+                parent[a] = node;
+                parent[b] = node;
+                height[node] = 1 + Math.max(height[a], height[b]);
+                union(node, a, b);
+                nodes[n++] = node;
+            }
+            if ((count & 1) == 1) {
+                nodes[n++] = nodes[count - 1];
+            }
+            count = n;
+        }
+        root = nodes[0];
+        parent[root] = NULL;
+    }
+
+    /**
+     * Sorts the nodes in Sort-Tile-Recursive order for pairs of nodes.
+     */
+    private void sortTiles(int[] nodes, int count) {
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = nodes[i];
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(minX[a] + maxX[a], minX[b] + maxX[b]);
+            }
+        });
+        int sliceSize = 2 * (int) Math.ceil(Math.sqrt((count + 1) / 2));
+        Comparator<Integer> byY = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(minY[a] + maxY[a], minY[b] + maxY[b]);
+            }
+        };
+        for (int i = 0; i < count; i += sliceSize) {
+            Arrays.sort(sorted, i, Math.min(i + sliceSize, count), byY);
+        }
+        for (int i = 0; i < count; i++) {
+            nodes[i] = sorted[i];
+        }
+    }
+
+    public void update(T o, Rectangle2D.Double r) {
+        Integer leaf = leaves.get(o);
+        if (leaf == null) {
+            add(o, r);
+        } else {
+            bounds[leaf].setRect(r);
+            if (! fitsFatBox(leaf)) {
+                removeLeaf(leaf);
+                setFatBox(leaf);
+                insertLeaf(leaf);
+            }
+        }
+    }
+
+    public void remove(T o) {
+        Integer leaf = leaves.remove(o);
+        if (leaf != null) {
+            removeLeaf(leaf);
+            freeNode(leaf);
+        }
+    }
+
+    private void union(int node, int a, int b) {
+        minX[node] = Math.min(minX[a], minX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+    }
+
+    private double perimeter(int node) {
+        return maxX[node] - minX[node] + maxY[node] - minY[node];
+    }
+
+    private double unionPerimeter(int a, int b) {
+        return Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]) +
+                Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+    }
+
+    /**
+     * Inserts a leaf as the sibling of the node where the increase of the
+     * perimeters of the boxes is the smallest.
+     */
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[root] = NULL;
+            return;
+        }
+
+        int node = root;
+        while (! isLeaf(node)) {
+            int a = child1[node];
+            int b = child2[node];
+            double combined = unionPerimeter(node, leaf);
+            // Cost of making the leaf and the node siblings
+            double cost = 2 * combined;
+            // Cost of pushing the leaf further down the tree
+            double inheritanceCost = 2 * (combined - perimeter(node));
+            double costA = unionPerimeter(a, leaf) - (isLeaf(a) ? 0 : perimeter(a)) + inheritanceCost;
+            double costB = unionPerimeter(b, leaf) - (isLeaf(b) ? 0 : perimeter(b)) + inheritanceCost;
+            if (cost < costA && cost < costB) {
+                break;
+            }
+            node = (costA < costB) ? a : b;
+        }
+
+        int sibling = node;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        union(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        if (oldParent == NULL) {
+            root = newParent;
+        } else if (child1[oldParent] == sibling) {
+            child1[oldParent] = newParent;
+        } else {
+            child2[oldParent] = newParent;
+        }
+
+        refit(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = (child1[p] == leaf) ? child2[p] : child1[p];
+        freeNode(p);
+        if (grandParent == NULL) {
+            root = sibling;
+            parent[sibling] = NULL;
+        } else {
+            if (child1[grandParent] == p) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            refit(grandParent);
+        }
+        parent[leaf] = NULL;
+    }
+
+    /**
+     * Rebalances the tree and updates the boxes and the heights of the
+     * nodes from the specified node up to the root.
+     */
+    private void refit(int node) {
+        while (node != NULL) {
+            node = balance(node);
+            int a = child1[node];
+            int b = child2[node];
+            height[node] = 1 + Math.max(height[a], height[b]);
+            union(node, a, b);
+            node = parent[node];
+        }
+    }
+
+    /**
+     * Rotates the higher child of a node up if the heights of the children
+     * differ by more than one. Returns the node which takes the place of
+     * the node.
+     */
+    private int balance(int a) {
+        if (isLeaf(a) || height[a] < 2) {
+            return a;
+        }
+        int b = child1[a];
+        int c = child2[a];
+        int balance = height[c] - height[b];
+        if (balance > 1) {
+            rotateUp(a, c, b, false);
+            return c;
+        }
+        if (balance < -1) {
+            rotateUp(a, b, c, true);
+            return b;
+        }
+        return a;
+    }
+
+    /**
+     * Makes {@code up}, a child of {@code a}, the parent of {@code a}. The
+     * higher child of {@code up} stays with {@code up}, the lower child
+     * replaces {@code up} as child of {@code a}.
+     *
+     * @param other The other child of {@code a}.
+     * @param isFirst True if {@code up} is the first child of {@code a}.
+     */
+    private void rotateUp(int a, int up, int other, boolean isFirst) {
+        int f = child1[up];
+        int g = child2[up];
+
+        child1[up] = a;
+        parent[up] = parent[a];
+        parent[a] = up;
+        if (parent[up] == NULL) {
+            root = up;
+        } else if (child1[parent[up]] == a) {
+            child1[parent[up]] = up;
+        } else {
+            child2[parent[up]] = up;
+        }
+
+        int keep, move;
+        if (height[f] > height[g]) {
+            keep = f;
+            move = g;
+        } else {
+            keep = g;
+            move = f;
+        }
+        child2[up] = keep;
+        if (isFirst) {
+            child1[a] = move;
+        } else {
+            child2[a] = move;
+        }
+        parent[move] = a;
+        union(a, other, move);
+        union(up, a, keep);
+        height[a] = 1 + Math.max(height[other], height[move]);
+        height[up] = 1 + Math.max(height[a], height[keep]);
+    }
+
+    private final static int CONTAINS = 0;
+    private final static int INTERSECTS = 1;
+    private final static int INSIDE = 2;
+
+    public Collection<T> findContains(Point2D.Double p) {
+        HashSet<T> result = new HashSet<T>();
+        query(CONTAINS, p.x, p.y, null, null, result);
+        return result;
+    }
+
+    public Collection<T> findIntersects(Rectangle2D r) {
+        return findIntersects(new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
+    }
+
+    public Collection<T> findIntersects(Rectangle2D.Double r) {
+        HashSet<T> result = new HashSet<T>();
+        query(INTERSECTS, 0, 0, r, null, result);
+        return result;
+    }
+
+    public Collection<T> findInside(Rectangle2D.Double r) {
+        HashSet<T> result = new HashSet<T>();
+        query(INSIDE, 0, 0, r, null, result);
+        return result;
+    }
+
+    public void findContains(Point2D.Double p, Collection<? super T> result) {
+        query(CONTAINS, p.x, p.y, null, null, result);
+    }
+
+    public void findIntersects(Rectangle2D.Double r, Collection<? super T> result) {
+        query(INTERSECTS, 0, 0, r, null, result);
+    }
+
+    public void findInside(Rectangle2D.Double r, Collection<? super T> result) {
+        query(INSIDE, 0, 0, r, null, result);
+    }
+
+    public void findContains(Point2D.Double p, SpatialIndex.Visitor<? super T> visitor) {
+        query(CONTAINS, p.x, p.y, null, visitor, null);
+    }
+
+    public void findIntersects(Rectangle2D.Double r, SpatialIndex.Visitor<? super T> visitor) {
+        query(INTERSECTS, 0, 0, r, visitor, null);
+    }
+
+    public void findInside(Rectangle2D.Double r, SpatialIndex.Visitor<? super T> visitor) {
+        query(INSIDE, 0, 0, r, visitor, null);
+    }
+
+    /**
+     * Returns the number of arrays the queries have allocated. Once the
+     * traversal stack has grown to the height of the tree, the queries
+     * which take a collection or a visitor allocate nothing, unless they
+     * run while another query is traversing the tree.
+     */
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    /**
+     * Takes the traversal stack. A query which runs while another query is
+     * traversing the tree, for example from a visitor, gets a stack of its
+     * own.
+     */
+    private int[] acquireStack() {
+        int[] s = stack;
+        stack = null;
+        if (s == null || s.length < 2 * getHeight() + 2) {
+            allocationCount++;
+            s = new int[Math.max(64, 4 * getHeight() + 4)];
+        }
+        return s;
+    }
+
+    private void releaseStack(int[] s) {
+        stack = s;
+    }
+
+    /**
+     * Traverses the tree and passes the objects found to the visitor, or
+     * adds them to the collection.
+     *
+     * @param mode CONTAINS for the point (px, py), INTERSECTS or INSIDE for
+     * the rectangle r.
+     */
+    @SuppressWarnings("unchecked")
+    private void query(int mode, double px, double py, Rectangle2D.Double r,
+            SpatialIndex.Visitor<? super T> visitor, Collection<? super T> result) {
+        if (root == NULL) {
+            return;
+        }
+        double x1, y1, x2, y2;
+        if (mode == CONTAINS) {
+            x1 = x2 = px;
+            y1 = y2 = py;
+        } else {
+            x1 = r.x;
+            y1 = r.y;
+            x2 = r.x + r.width;
+            y2 = r.y + r.height;
+        }
+        int[] s = acquireStack();
+        int sp = 0;
+        s[sp++] = root;
+        while (sp > 0) {
+            int node = s[--sp];
+            if (x2 < minX[node] || x1 > maxX[node] || y2 < minY[node] || y1 > maxY[node]) {
+                continue;
+            }
+            if (isLeaf(node)) {
+                boolean isFound;
+                switch (mode) {
+                    case CONTAINS :
+                        isFound = bounds[node].contains(px, py);
+                        break;
+                    case INTERSECTS :
+                        isFound = bounds[node].intersects(r);
+                        break;
+                    default :
+                        isFound = r.contains(bounds[node]);
+                        break;
+                }
+                if (isFound) {
+                    if (visitor == null) {
+                        result.add((T) items[node]);
+                    } else if (! visitor.visit((T) items[node])) {
+                        break;
+                    }
+                }
+            } else {
+                s[sp++] = child1[node];
+                s[sp++] = child2[node];
+            }
+        }
+        releaseStack(s);
+    }
+
+    public void findNearest(Point2D.Double p, double maxDistance,
+            SpatialIndex.Visitor<? super T> visitor) {
+        if (root == NULL) {
+            return;
+        }
+        int[] nodes = queueNodes;
+        double[] distances = queueDistances;
+        boolean isShared = ! isQueueInUse;
+        if (isShared) {
+            isQueueInUse = true;
+        } else {
+            allocationCount++;
+            nodes = new int[64];
+            distances = new double[64];
+        }
+        int size = 0;
+        double d = distance(root, p);
+        if (d <= maxDistance) {
+            nodes[0] = root;
+            distances[0] = d;
+            size = 1;
+        }
+        while (size > 0) {
+            int node = nodes[0];
+            size--;
+            siftDown(nodes, distances, size, nodes[size], distances[size]);
+            if (isLeaf(node)) {
+                @SuppressWarnings("unchecked")
+                T item = (T) items[node];
+                if (! visitor.visit(item)) {
+                    break;
+                }
+                continue;
+            }
+            if (size + 2 > nodes.length) {
+                allocationCount++;
+                nodes = copyOf(nodes, nodes.length * 2);
+                distances = copyOf(distances, distances.length * 2);
+            }
+            d = distance(child1[node], p);
+            if (d <= maxDistance) {
+                siftUp(nodes, distances, size++, child1[node], d);
+            }
+            d = distance(child2[node], p);
+            if (d <= maxDistance) {
+                siftUp(nodes, distances, size++, child2[node], d);
+            }
+        }
+        if (isShared) {
+            queueNodes = nodes;
+            queueDistances = distances;
+            isQueueInUse = false;
+        }
+    }
+
+    /**
+     * Returns the distance of a node from a point: of its box if it is an
+     * inner node, of the bounds of its object if it is a leaf.
+     */
+    private double distance(int node, Point2D.Double p) {
+        if (isLeaf(node)) {
+            return Geom.distance(bounds[node], p);
+        }
+        double dx = Math.max(0, Math.max(minX[node] - p.x, p.x - maxX[node]));
+        double dy = Math.max(0, Math.max(minY[node] - p.y, p.y - maxY[node]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Puts a node into the hole at index i of the priority queue and moves
+     * it towards the head.
+     */
+    private static void siftUp(int[] nodes, double[] distances, int i, int node, double d) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (distances[parent] <= d) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        distances[i] = d;
+    }
+
+    /**
+     * Puts a node into the hole at the head of a priority queue of the
+     * specified size and moves it towards the tail.
+     */
+    private static void siftDown(int[] nodes, double[] distances, int size, int node, double d) {
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && distances[child + 1] < distances[child]) {
+                child++;
+            }
+            if (d <= distances[child]) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        if (size > 0) {
+            nodes[i] = node;
+            distances[i] = d;
+        }
+    }
+}
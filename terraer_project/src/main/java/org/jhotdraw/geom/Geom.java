@@ -402,6 +402,15 @@ public class Geom {
     public static double length(Point2D.Double p1, Point2D.Double p2) {
         return Math.sqrt(length2(p1.x, p1.y, p2.x, p2.y));
     }
+    /**
+     * Gets the distance between a point and a rectangle. The distance is 0
+     * if the rectangle contains the point.
+     */
+    public static double distance(Rectangle2D.Double r, Point2D.Double p) {
+        double dx = Math.max(0, Math.max(r.x - p.x, p.x - r.x - r.width));
+        double dy = Math.max(0, Math.max(r.y - p.y, p.y - r.y - r.height));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
     /**
      * Caps the line defined by p1 and p2 by the number of units
      * specified by radius.
@@ -17,20 +17,29 @@ package org.jhotdraw.geom;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 /**
  * QuadTree.
+ * <p>
+ * The root of the tree covers a fixed area. Objects outside of it are kept
+ * in a separate map, until there are so many of them that the tree is
+ * reorganized to cover all objects. Changing the bounds of an object
+ * removes and adds it again. For drawings whose figures move and grow, see
+ * {@link AABBTree}.
  *
  * @author  Werner Randelshofer
  * @version 2.0 2006-12-06 Renamed from QuadTree2DDouble to QuadTree because
  * this class isn't a Shape2D class.
  * <br>1.0 2006-01-14 Derived from class QuadTree.
  */
-public class QuadTree<T> {
+public class QuadTree<T> implements SpatialIndex<T> {
     private HashMap<T,Rectangle2D.Double> outside = new HashMap<T,Rectangle2D.Double>();
     private QuadNode root;
     private int maxCapacity = 32;
@@ -56,6 +65,15 @@ public class QuadTree<T> {
             }
         }
     }
+    public void addAll(Map<T, Rectangle2D.Double> objects) {
+        for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+    public void update(T o, Rectangle2D.Double bounds) {
+        remove(o);
+        add(o, bounds);
+    }
     public void reorganize() {
         root.join();
         outside.putAll(root.objects);
@@ -115,6 +133,58 @@ public class QuadTree<T> {
         return result;
     }
     
+    /**
+     * Adds the objects whose bounds contain the point to the collection.
+     * An object may be stored in several nodes of the quad tree, so this
+     * method collects the objects into a set first.
+     */
+    public void findContains(Point2D.Double p, Collection<? super T> result) {
+        result.addAll(findContains(p));
+    }
+    public void findIntersects(Rectangle2D.Double r, Collection<? super T> result) {
+        result.addAll(findIntersects(r));
+    }
+    public void findInside(Rectangle2D.Double r, Collection<? super T> result) {
+        result.addAll(findInside(r));
+    }
+    public void findContains(Point2D.Double p, SpatialIndex.Visitor<? super T> visitor) {
+        visit(findContains(p), visitor);
+    }
+    public void findIntersects(Rectangle2D.Double r, SpatialIndex.Visitor<? super T> visitor) {
+        visit(findIntersects(r), visitor);
+    }
+    public void findInside(Rectangle2D.Double r, SpatialIndex.Visitor<? super T> visitor) {
+        visit(findInside(r), visitor);
+    }
+    /**
+     * Collects the objects within the distance with their distances, and
+     * visits them in the order of their distances.
+     */
+    public void findNearest(Point2D.Double p, double maxDistance, SpatialIndex.Visitor<? super T> visitor) {
+        final HashMap<T,Double> distances = new HashMap<T,Double>();
+        root.findNearest(p, maxDistance, distances);
+        for (Map.Entry<T,Rectangle2D.Double> entry : outside.entrySet()) {
+            double distance = Geom.distance(entry.getValue(), p);
+            if (distance <= maxDistance) {
+                distances.put(entry.getKey(), distance);
+            }
+        }
+        ArrayList<T> nearest = new ArrayList<T>(distances.keySet());
+        Collections.sort(nearest, new Comparator<T>() {
+            public int compare(T o1, T o2) {
+                return distances.get(o1).compareTo(distances.get(o2));
+            }
+        });
+        visit(nearest, visitor);
+    }
+    private void visit(Collection<T> c, SpatialIndex.Visitor<? super T> visitor) {
+        for (T o : c) {
+            if (! visitor.visit(o)) {
+                break;
+            }
+        }
+    }
+    
     private class QuadNode {
         private Rectangle2D.Double bounds;
         /**
@@ -254,6 +324,22 @@ public class QuadTree<T> {
                 }
             }
         }
+        public void findNearest(Point2D.Double p, double maxDistance, HashMap<T,Double> result) {
+            if (Geom.distance(bounds, p) <= maxDistance) {
+                for (Map.Entry<T,Rectangle2D.Double> entry : objects.entrySet()) {
+                    double distance = Geom.distance(entry.getValue(), p);
+                    if (distance <= maxDistance) {
+                        result.put(entry.getKey(), distance);
+                    }
+                }
+                if (! isLeaf()) {
+                    northWest.findNearest(p, maxDistance, result);
+                    northEast.findNearest(p, maxDistance, result);
+                    southWest.findNearest(p, maxDistance, result);
+                    southEast.findNearest(p, maxDistance, result);
+                }
+            }
+        }
         public void findInside(Rectangle2D.Double r, HashSet<T> result) {
             if (bounds.intersects(r)) {
             for (Map.Entry<T,Rectangle2D.Double> entry : objects.entrySet()) {
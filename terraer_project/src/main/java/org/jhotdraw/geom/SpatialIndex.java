@@ -0,0 +1,123 @@
+package org.jhotdraw.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Indexes objects by their bounds, to find the objects at a point or in an
+ * area without testing every object.
+ * <p>
+ * The queries return the objects whose bounds contain the point, intersect
+ * the rectangle or lie inside the rectangle, with the semantics of
+ * {@link Rectangle2D#contains(Point2D)}, {@link Rectangle2D#intersects} and
+ * {@link Rectangle2D#contains(Rectangle2D)}.
+ * <p>
+ * The nearest neighbour query visits the objects around a point in the
+ * order of their distance from the point, so that the caller can take the
+ * k nearest objects which meet a condition of its own.
+ * <p>
+ * Each of the other queries comes in three variants: one which returns a new collection,
+ * one which adds the objects found to a collection of the caller, and one
+ * which passes them to a {@link Visitor}. The latter two allow the caller
+ * to reuse its collection or its visitor, so that queries which run on
+ * every mouse move do not produce garbage.
+ *
+ * @see QuadTree
+ * @see AABBTree
+ */
+public interface SpatialIndex<T> {
+    /**
+     * Receives the objects found by a query, one at a time.
+     */
+    public interface Visitor<T> {
+        /**
+         * Visits an object. Returns false to end the query.
+         */
+        public boolean visit(T o);
+    }
+
+    /**
+     * Adds an object with the specified bounds. The index keeps a copy of
+     * the bounds.
+     */
+    public void add(T o, Rectangle2D.Double bounds);
+
+    /**
+     * Adds many objects at once. The map is iterated once, and the index
+     * keeps copies of the bounds.
+     */
+    public void addAll(Map<T, Rectangle2D.Double> objects);
+
+    /**
+     * Changes the bounds of an object, or adds the object if it is not in
+     * the index.
+     */
+    public void update(T o, Rectangle2D.Double bounds);
+
+    /**
+     * Removes an object.
+     */
+    public void remove(T o);
+
+    /**
+     * Returns the objects whose bounds contain the point.
+     */
+    public Collection<T> findContains(Point2D.Double p);
+
+    /**
+     * Returns the objects whose bounds intersect the rectangle.
+     */
+    public Collection<T> findIntersects(Rectangle2D r);
+
+    /**
+     * Returns the objects whose bounds intersect the rectangle.
+     */
+    public Collection<T> findIntersects(Rectangle2D.Double r);
+
+    /**
+     * Returns the objects whose bounds lie inside the rectangle.
+     */
+    public Collection<T> findInside(Rectangle2D.Double r);
+
+    /**
+     * Adds the objects whose bounds contain the point to the collection.
+     */
+    public void findContains(Point2D.Double p, Collection<? super T> result);
+
+    /**
+     * Adds the objects whose bounds intersect the rectangle to the
+     * collection.
+     */
+    public void findIntersects(Rectangle2D.Double r, Collection<? super T> result);
+
+    /**
+     * Adds the objects whose bounds lie inside the rectangle to the
+     * collection.
+     */
+    public void findInside(Rectangle2D.Double r, Collection<? super T> result);
+
+    /**
+     * Visits the objects whose bounds contain the point.
+     */
+    public void findContains(Point2D.Double p, Visitor<? super T> visitor);
+
+    /**
+     * Visits the objects whose bounds intersect the rectangle.
+     */
+    public void findIntersects(Rectangle2D.Double r, Visitor<? super T> visitor);
+
+    /**
+     * Visits the objects whose bounds lie inside the rectangle.
+     */
+    public void findInside(Rectangle2D.Double r, Visitor<? super T> visitor);
+
+    /**
+     * Visits the objects whose bounds are at most the specified distance
+     * away from the point, nearest first. The distance of bounds which
+     * contain the point is 0. The visitor returns false to end the query,
+     * for example once it has accepted k objects.
+     */
+    public void findNearest(Point2D.Double p, double maxDistance, Visitor<? super T> visitor);
+}
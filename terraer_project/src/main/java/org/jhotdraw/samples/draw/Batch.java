@@ -0,0 +1,257 @@
+package org.jhotdraw.samples.draw;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jhotdraw.ddl.DDLGenerator;
+import org.jhotdraw.ddl.ERModel;
+import org.jhotdraw.ddl.SQLDialect;
+import org.jhotdraw.draw.*;
+
+/**
+ * Processes TerraER drawings from the command line, without a user
+ * interface: validates them, generates their DDL scripts and renders them
+ * as PNG images.
+ * <p>
+ * Usage:
+ * <pre>
+ * java org.jhotdraw.samples.draw.Batch [options] file|directory...
+ *
+ *   -validate          report invalid connections and duplicate names
+ *   -ddl dialects      write the DDL script in the comma separated dialects,
+ *                      or in all dialects
+ *   -png               render the drawing as a PNG image
+ *   -out directory     write the files to the directory instead of next to
+ *                      the drawings
+ *   -threads n         process n drawings at a time, by default one per
+ *                      processor
+ * </pre>
+ * Directories are searched for {@code .xml} drawings. The output files are
+ * named after the drawing, for example {@code model_oracle.sql} and
+ * {@code model.png}.
+ * <p>
+ * The drawings are processed on a fixed pool of worker threads. The pool
+ * only accepts as many drawings as it has threads; when it is busy, the
+ * main thread processes the next drawing itself instead of queueing it. At
+ * most one drawing per thread is therefore held in memory, however many
+ * drawings there are.
+ * <p>
+ * The exit status is 0 if all drawings are valid, 1 if a drawing has
+ * validation problems, and 2 if a drawing could not be processed.
+ */
+public class Batch {
+    private boolean isValidate;
+    private boolean isPNG;
+    private List<SQLDialect> dialects = new ArrayList<SQLDialect>();
+    private File outputDirectory;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    private AtomicInteger invalidCount = new AtomicInteger();
+    private AtomicInteger failedCount = new AtomicInteger();
+
+    /** Creates a new instance. */
+    public Batch() {
+    }
+
+    public static void main(String[] args) {
+        // Must be set before the first AWT class is used
+        System.setProperty("java.awt.headless", "true");
+
+        Batch batch = new Batch();
+        List<File> files;
+        try {
+            files = batch.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        System.exit(batch.process(files));
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java " + Batch.class.getName() + " [options] file|directory...");
+        System.err.println("  -validate          report invalid connections and duplicate names");
+        System.err.println("  -ddl dialects      write the DDL script in the comma separated dialects, or all");
+        System.err.println("  -png               render the drawing as a PNG image");
+        System.err.println("  -out directory     write the files to the directory");
+        System.err.println("  -threads n         process n drawings at a time");
+    }
+
+    /**
+     * Parses the options and returns the drawings to be processed.
+     *
+     * @throws IllegalArgumentException if the arguments are invalid.
+     */
+    public List<File> parseArguments(String[] args) {
+        ArrayList<File> files = new ArrayList<File>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-validate")) {
+                isValidate = true;
+            } else if (arg.equals("-png")) {
+                isPNG = true;
+            } else if (arg.equals("-ddl")) {
+                setDialects(value(args, ++i, arg));
+            } else if (arg.equals("-out")) {
+                outputDirectory = new File(value(args, ++i, arg));
+            } else if (arg.equals("-threads")) {
+                try {
+                    threadCount = Integer.parseInt(value(args, ++i, arg));
+                } catch (NumberFormatException e) {
+                    threadCount = 0;
+                }
+                if (threadCount < 1) {
+                    throw new IllegalArgumentException("Invalid number of threads: " + args[i]);
+                }
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            } else {
+                addFiles(new File(arg), files);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No drawings.");
+        }
+        if (! isValidate && ! isPNG && dialects.isEmpty()) {
+            isValidate = true;
+        }
+        return files;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value of " + option);
+        }
+        return args[i];
+    }
+
+    private void setDialects(String names) {
+        dialects.clear();
+        for (String name : names.split(",")) {
+            boolean isFound = false;
+            for (SQLDialect d : DDLGenerator.getDialects()) {
+                if (name.equalsIgnoreCase("all") || name.equalsIgnoreCase(d.getName())) {
+                    dialects.add(d);
+                    isFound = true;
+                }
+            }
+            if (! isFound) {
+                throw new IllegalArgumentException("Unknown dialect: " + name);
+            }
+        }
+    }
+
+    private static void addFiles(File file, List<File> files) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isDirectory() || child.getName().toLowerCase().endsWith(".xml")) {
+                        addFiles(child, files);
+                    }
+                }
+            }
+        } else {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Processes the drawings and returns the exit status.
+     */
+    public int process(List<File> files) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(threadCount),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        for (final File file : files) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    process(file);
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            while (! executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        System.out.println(files.size() + " drawings, " + invalidCount + " invalid, " + failedCount + " failed.");
+        return (failedCount.get() > 0) ? 2 : ((invalidCount.get() > 0) ? 1 : 0);
+    }
+
+    /**
+     * Processes a drawing and prints its report. The report of a drawing is
+     * printed at once, so that the reports of concurrently processed
+     * drawings do not interleave.
+     */
+    private void process(File file) {
+        StringWriter report = new StringWriter();
+        PrintWriter out = new PrintWriter(report);
+        try {
+            Drawing drawing = new QuadTreeDrawing();
+            new DOMStorableInputOutputFormat(new DrawFigureFactory()).read(file, drawing);
+
+            String baseName = file.getName();
+            if (baseName.toLowerCase().endsWith(".xml")) {
+                baseName = baseName.substring(0, baseName.length() - 4);
+            }
+            File directory = (outputDirectory == null) ? file.getAbsoluteFile().getParentFile() : outputDirectory;
+
+            if (isValidate) {
+                List<String> problems = validate(drawing);
+                for (String problem : problems) {
+                    out.println(file + ": " + problem);
+                }
+                if (! problems.isEmpty()) {
+                    invalidCount.incrementAndGet();
+                }
+            }
+            if (! dialects.isEmpty()) {
+                ERModel model = new ERModel(drawing);
+                for (SQLDialect dialect : dialects) {
+                    File target = new File(directory, baseName + "_" + dialect.getName().toLowerCase() + ".sql");
+                    new DDLGenerator(model, dialect).write(target);
+                    out.println(file + ": wrote " + target);
+                }
+            }
+            if (isPNG) {
+                File target = new File(directory, baseName + ".png");
+                new ImageOutputFormat().write(target, drawing);
+                out.println(file + ": wrote " + target);
+            }
+        } catch (Throwable e) {
+            failedCount.incrementAndGet();
+            out.println(file + ": couldn't process the drawing. Reason: " + e);
+        }
+        out.flush();
+        synchronized (System.out) {
+            System.out.print(report);
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Returns the validation problems of a drawing: the connections which
+     * the model validation rejects, and the figures whose names collide.
+     */
+    public static List<String> validate(Drawing drawing) {
+        ArrayList<String> problems = new ArrayList<String>();
+        for (ModelValidator.Problem p : new ModelValidator(drawing).validate()) {
+            problems.add(p.toString());
+        }
+        return problems;
+    }
+}
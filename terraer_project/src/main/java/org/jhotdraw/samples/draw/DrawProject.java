@@ -48,6 +48,7 @@ import org.jhotdraw.draw.ImageOutputFormat;
 import org.jhotdraw.draw.InputFormat;
 import org.jhotdraw.draw.OutputFormat;
 import org.jhotdraw.draw.QuadTreeDrawing;
+import org.jhotdraw.draw.SQLInputFormat;
 import org.jhotdraw.draw.TextAreaFigure;
 import org.jhotdraw.draw.TextFigure;
 import org.jhotdraw.draw.TextInputFormat;
@@ -139,6 +140,7 @@ public class DrawProject extends AbstractProject {
                 new DOMStorableInputOutputFormat(new DrawFigureFactory());
         LinkedList<InputFormat> inputFormats = new LinkedList<InputFormat>();
         inputFormats.add(ioFormat);
+        inputFormats.add(new SQLInputFormat());
         inputFormats.add(new ImageInputFormat(new ImageFigure()));
         inputFormats.add(new ImageInputFormat(new ImageFigure(), "JPG","Joint Photographics Experts Group (JPEG)", "jpg", BufferedImage.TYPE_INT_RGB));
         inputFormats.add(new ImageInputFormat(new ImageFigure(), "GIF","Graphics Interchange Format (GIF)", "gif", BufferedImage.TYPE_INT_ARGB));
@@ -45,7 +45,14 @@ public class TerraProject extends DrawProject {
 			
 			terrawrapcomponent = new JPanel(new java.awt.BorderLayout());
 
-			JSplitPane spt = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, scr, this);
+			org.jhotdraw.ddl.DDLPreviewPanel preview = new org.jhotdraw.ddl.DDLPreviewPanel();
+			preview.setView(getEditor().getActiveView());
+			preview.setPreferredSize(new Dimension(200,150));
+			JSplitPane previewSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, this, preview);
+			previewSplit.setOneTouchExpandable(true);
+			previewSplit.setResizeWeight(1.0);
+
+			JSplitPane spt = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, scr, previewSplit);
 			//spt.setDividerLocation(0.2d);
 			
 			JPanel LeftFiller=new JPanel();